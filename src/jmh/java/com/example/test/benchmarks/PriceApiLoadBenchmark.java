@@ -0,0 +1,126 @@
+package com.example.test.benchmarks;
+
+import com.example.test.TestApplication;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDataGenerator;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetProfile;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Load test of the HTTP API comparing the platform-thread and the virtual-thread serving modes.
+ * <p>
+ * Many client threads hit {@code /api/prices/v1} over a real socket, and JMH samples each request to report
+ * throughput and the latency percentiles. With platform threads, concurrency is capped by the Tomcat pool size
+ * ({@code serverThreads}); with virtual threads it is capped by the repository concurrency limit instead.
+ * The virtual-thread mode requires running the benchmark on Java 21 or later; its forks trace any carrier
+ * pinning to the console and report the number of {@code jdk.VirtualThreadPinned} events recorded over the trial.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="PriceApiLoadBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(256)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g", "-Djdk.tracePinnedThreads=short"})
+public class PriceApiLoadBenchmark {
+
+    private static final int LOOKUPS = 4096;
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"32"})
+    public int serverThreads;
+
+    @Param({"SMALL"})
+    public String dataset;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String[] urls;
+    private RecordingStream pinning;
+    private final LongAdder pinnedEvents = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (virtualThreads) {
+            // Every pinning, however short, rather than those over the default threshold of 20 ms
+            pinning = new RecordingStream();
+            pinning.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withoutStackTrace();
+            pinning.onEvent(PINNED_EVENT, event -> pinnedEvents.increment());
+            pinning.startAsync();
+        }
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + serverThreads,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        PriceDatasetSpec spec = PriceDatasetProfile.valueOf(dataset).spec();
+        context.getBean(PriceDataGenerator.class).generate(spec);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        PriceQuery[] queries = spec.sampleQueries(LOOKUPS);
+        urls = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            urls[i] = "http://localhost:" + port + "/api/prices/v1" +
+                    "?dateTime=" + queries[i].getDateTime() +
+                    "&productId=" + queries[i].getProductId() +
+                    "&brandId=" + queries[i].getBrandId();
+        }
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        if (pinning != null) {
+            pinning.close();
+            System.out.printf("%d virtual threads pinned their carrier during the trial%n", pinnedEvents.sum());
+        }
+    }
+
+    @Benchmark
+    public int getApplicablePriceV1() throws IOException, InterruptedException {
+        String url = urls[ThreadLocalRandom.current().nextInt(LOOKUPS)];
+        HttpResponse<Void> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.discarding());
+        return response.statusCode();
+    }
+}
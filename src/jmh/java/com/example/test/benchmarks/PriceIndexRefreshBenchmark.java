@@ -0,0 +1,85 @@
+package com.example.test.benchmarks;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the refresh of the {@code in-memory} index by a single changed row, as the keys changed since the index
+ * was built or compacted grow. The index holds {@code baseKeys} keys, {@code overlayKeys} of which have been changed
+ * by refreshes of {@value #KEYS_PER_REFRESH} keys each, below the quarter of the keys that compacts the index.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="PriceIndexRefreshBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class PriceIndexRefreshBenchmark {
+
+    private static final int KEYS_PER_REFRESH = 100;
+    private static final long BRAND_ID = 1L;
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 1, 1, 0, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+
+    @Param({"100000"})
+    public int baseKeys;
+
+    @Param({"0", "1000", "10000", "24000"})
+    public int overlayKeys;
+
+    private InMemoryPriceIndex index;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Price> prices = new ArrayList<>(baseKeys);
+        for (long productId = 1; productId <= baseKeys; productId++) {
+            prices.add(price(productId, productId));
+        }
+        index = InMemoryPriceIndex.build(prices);
+        for (long from = 1; from <= overlayKeys; from += KEYS_PER_REFRESH) {
+            Map<PriceKey, List<Price>> changes = new HashMap<>();
+            for (long productId = from; productId < Math.min(from + KEYS_PER_REFRESH, overlayKeys + 1L); productId++) {
+                changes.put(new PriceKey(BRAND_ID, productId), List.of(price(productId, -productId)));
+            }
+            index = index.withChanges(changes);
+        }
+    }
+
+    private static Price price(long productId, long priceList) {
+        return new Price(BRAND_ID, START_DATE, END_DATE, priceList, productId, 0, BigDecimal.ONE, "EUR");
+    }
+
+    /**
+     * Changes one row of a key already in the overlay, or of the base when the overlay is empty, so the number of
+     * changed keys stays the same from one invocation to the next.
+     */
+    @Benchmark
+    public InMemoryPriceIndex refreshOneRow() {
+        long productId = 1 + next++ % Math.max(1, overlayKeys);
+        return index.withChanges(Map.of(new PriceKey(BRAND_ID, productId), List.of(price(productId, next))));
+    }
+}
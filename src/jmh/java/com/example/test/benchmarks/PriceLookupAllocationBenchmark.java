@@ -0,0 +1,130 @@
+package com.example.test.benchmarks;
+
+import com.example.test.TestApplication;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.ports.in.PricePublicApiPort;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDataGenerator;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetProfile;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetSpec;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceRepositoryAdapter;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PrimitivePriceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the boxed lookup of the {@code in-memory} repository, taking a {@link java.time.LocalDateTime} and
+ * returning an {@link Optional}, with its allocation-free primitive lookup over packed keys and epoch nanoseconds,
+ * and with the V1 lookup of the service, which reaches the primitive lookup through the repository port.
+ * <p>
+ * Run with the GC profiler to report the bytes allocated per lookup ({@code gc.alloc.rate.norm}):
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="PriceLookupAllocationBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class PriceLookupAllocationBenchmark {
+
+    private static final int LOOKUPS = 4096;
+
+    @Param({"SMALL"})
+    public String dataset;
+
+    private ConfigurableApplicationContext context;
+    private InMemoryPriceRepositoryAdapter adapter;
+    private PricePublicApiPort service;
+    private PriceQuery[] lookups;
+    private PriceQuery[] hits;
+    private long[] brandIds;
+    private long[] productIds;
+    private long[] epochNanos;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:allocation-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "price.repository.type=in-memory",
+                        "price.cache.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        PriceDatasetSpec spec = PriceDatasetProfile.valueOf(dataset).spec();
+        context.getBean(PriceDataGenerator.class).generate(spec);
+        adapter = context.getBean(InMemoryPriceRepositoryAdapter.class);
+        adapter.load();
+        service = context.getBean(PricePublicApiPort.class);
+
+        lookups = spec.sampleQueries(LOOKUPS);
+        brandIds = new long[LOOKUPS];
+        productIds = new long[LOOKUPS];
+        epochNanos = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            brandIds[i] = lookups[i].getBrandId();
+            productIds[i] = lookups[i].getProductId();
+            epochNanos[i] = PrimitivePriceIndex.epochNanos(lookups[i].getDateTime());
+        }
+        // The V1 lookup throws when no price applies, so it only gets the lookups finding one
+        PriceQuery[] found = Arrays.stream(lookups)
+                .filter(lookup -> adapter.findApplicablePriceAt(lookup.getDateTime(), lookup.getProductId(),
+                        lookup.getBrandId()).isPresent())
+                .toArray(PriceQuery[]::new);
+        hits = new PriceQuery[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            hits[i] = found[i % found.length];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private int nextLookup() {
+        int lookup = next;
+        next = (next + 1) & (LOOKUPS - 1);
+        return lookup;
+    }
+
+    @Benchmark
+    public Optional<Price> boxedLookup() {
+        PriceQuery lookup = lookups[nextLookup()];
+        return adapter.findApplicablePriceAt(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+
+    @Benchmark
+    public Price primitiveLookup() {
+        int lookup = nextLookup();
+        return adapter.findApplicablePrice(brandIds[lookup], productIds[lookup], epochNanos[lookup]);
+    }
+
+    @Benchmark
+    public Price v1Lookup() {
+        PriceQuery lookup = hits[nextLookup()];
+        return service.findApplicablePriceAtV1(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+}
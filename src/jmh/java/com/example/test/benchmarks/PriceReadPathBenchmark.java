@@ -0,0 +1,135 @@
+package com.example.test.benchmarks;
+
+import com.example.test.TestApplication;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.infrastructure.adapters.repositories.PriceRepositoryAdapter;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDataGenerator;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetSpec;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriorityDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two read paths of {@link PriceRepositoryAdapter}: managed JPA entities mapped to the domain model
+ * afterwards, and plain JDBC result sets mapped straight into {@link Price} with autocommit.
+ * <p>
+ * Each trial boots the application with the given {@code price.repository.read-path} against {@code databaseUrl},
+ * empties and seeds the price table through the {@link PriceDataGenerator} and replays the same seeded sequence of
+ * lookups. The default in-memory H2 database has no network round trip, which hides most of what a statement or a
+ * transaction costs; point {@code databaseUrl} at a database server, e.g. an H2 server started with
+ * {@code -tcp -tcpAllowOthers -ifNotExists}, to measure the read paths as deployed. Its credentials, like any other
+ * setting, can be overridden with system properties of the forks, see {@code -jvmArgsAppend}. Run it with
+ * {@code -prof gc} to also compare the bytes allocated per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class PriceReadPathBenchmark {
+
+    private static final int LOOKUPS = 4096;
+    private static final int BATCH_SIZE = 64;
+    private static final int BRANDS = 10;
+
+    @Param({"entity", "jdbc"})
+    public String readPath;
+
+    @Param({"10000"})
+    public int keyCount;
+
+    @Param({"4", "64"})
+    public int rowsPerProduct;
+
+    @Param({"jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1"})
+    public String databaseUrl;
+
+    private ConfigurableApplicationContext context;
+    private PriceRepositoryAdapter priceRepositoryAdapter;
+    private PriceQuery[] lookups;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + databaseUrl,
+                        "spring.h2.console.enabled=false",
+                        "price.repository.type=jpa",
+                        "price.repository.read-path=" + readPath,
+                        "price.cache.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        PriceDatasetSpec spec = new PriceDatasetSpec(BRANDS, Math.max(1, keyCount / BRANDS), rowsPerProduct, 2, 1,
+                PriorityDistribution.LAYERED, LocalDateTime.of(2020, 1, 1, 0, 0, 0), 365, 42L);
+        // A database server keeps the rows of the previous trials
+        context.getBean(JdbcTemplate.class).update("DELETE FROM price");
+        context.getBean(PriceDataGenerator.class).generate(spec);
+        lookups = spec.sampleQueries(LOOKUPS);
+
+        priceRepositoryAdapter = context.getBean(PriceRepositoryAdapter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private PriceQuery nextLookup() {
+        PriceQuery lookup = lookups[next];
+        next = (next + 1) & (LOOKUPS - 1);
+        return lookup;
+    }
+
+    @Benchmark
+    public Optional<Price> applicablePrice() {
+        PriceQuery lookup = nextLookup();
+        return priceRepositoryAdapter.findApplicablePriceAt(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+
+    @Benchmark
+    public List<Price> applicablePrices() {
+        PriceQuery lookup = nextLookup();
+        return priceRepositoryAdapter.findApplicablePricesAt(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+
+    @Benchmark
+    public Optional<ResolvedPrice> resolvedPrice() {
+        PriceQuery lookup = nextLookup();
+        return priceRepositoryAdapter.findResolvedPriceAt(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+
+    @Benchmark
+    public Map<PriceQuery, Price> batch() {
+        int from = next;
+        next = (next + BATCH_SIZE) & (LOOKUPS - 1);
+        return priceRepositoryAdapter.findApplicablePriceBatch(Arrays.asList(lookups).subList(from, from + BATCH_SIZE));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.test.benchmarks;
+
+import com.example.test.TestApplication;
+import com.example.test.price.application.services.PricePubicApiService;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.infrastructure.adapters.repositories.PriceRepositoryAdapter;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDataGenerator;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetProfile;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetSpec;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriorityDistribution;
+import com.example.test.price.infrastructure.adapters.repositories.jparepository.JpaPriceRepository;
+import com.example.test.price.infrastructure.adapters.repositories.jparepository.entities.JpaPriceEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the V1 (database-side priority) and V2 (stream max in Java) resolution strategies of
+ * {@link PricePubicApiService}, and isolates the entity to domain mapping done by {@link PriceRepositoryAdapter}.
+ * <p>
+ * Each trial boots the application against its own in-memory H2 database, seeded by the {@link PriceDataGenerator}
+ * with the named {@code dataset} profile or, when left {@code PARAMETERIZED}, with a catalog built from the
+ * remaining parameters, and replays the same seeded sequence of lookups.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec}; results are written to {@code target/jmh-result.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class PriceResolutionBenchmark {
+
+    private static final int LOOKUPS = 4096;
+    private static final int BRANDS = 10;
+
+    @Param({"PARAMETERIZED"})
+    public String dataset;
+
+    @Param({"100", "10000"})
+    public int keyCount;
+
+    @Param({"4", "64"})
+    public int rowsPerProduct;
+
+    @Param({"1", "4"})
+    public int overlapDepth;
+
+    private ConfigurableApplicationContext context;
+    private PricePubicApiService pricePubicApiService;
+    private PriceRepositoryAdapter priceRepositoryAdapter;
+    private JpaPriceRepository jpaPriceRepository;
+    private PriceQuery[] lookups;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "price.repository.type=jpa",
+                        "price.cache.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        PriceDatasetSpec spec = "PARAMETERIZED".equals(dataset)
+                ? new PriceDatasetSpec(BRANDS, Math.max(1, keyCount / BRANDS), rowsPerProduct, overlapDepth,
+                overlapDepth - 1, PriorityDistribution.LAYERED, LocalDateTime.of(2020, 1, 1, 0, 0, 0), 365, 42L)
+                : PriceDatasetProfile.valueOf(dataset).spec();
+        context.getBean(PriceDataGenerator.class).generate(spec);
+        lookups = spec.sampleQueries(LOOKUPS);
+
+        pricePubicApiService = context.getBean(PricePubicApiService.class);
+        priceRepositoryAdapter = context.getBean(PriceRepositoryAdapter.class);
+        jpaPriceRepository = context.getBean(JpaPriceRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private PriceQuery nextLookup() {
+        PriceQuery lookup = lookups[next];
+        next = (next + 1) & (LOOKUPS - 1);
+        return lookup;
+    }
+
+    @Benchmark
+    public Price v1DatabasePriority() {
+        PriceQuery lookup = nextLookup();
+        return pricePubicApiService.findApplicablePriceAtV1(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+
+    @Benchmark
+    public Price v2StreamMax() {
+        PriceQuery lookup = nextLookup();
+        return pricePubicApiService.findApplicablePriceAtV2(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+
+    @Benchmark
+    public List<JpaPriceEntity> candidatesAsEntities() {
+        PriceQuery lookup = nextLookup();
+        return jpaPriceRepository.findApplicablePricesAt(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+
+    @Benchmark
+    public List<Price> candidatesMappedByAdapter() {
+        PriceQuery lookup = nextLookup();
+        return priceRepositoryAdapter.findApplicablePricesAt(lookup.getDateTime(), lookup.getProductId(), lookup.getBrandId());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.test.price.application.cache;
+
+import com.example.test.price.application.services.PricePubicApiService;
+import com.example.test.price.domain.events.PricesChangedEvent;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.in.PricePublicApiPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link PricePublicApiPort} answering repeated lookups from a {@link PriceWindowCache}.
+ * Enabled with {@code price.cache.enabled=true}.
+ * <p>
+ * Resolved lookups are served from the cached validity windows; on a miss the price and its window are resolved
+ * through {@link PricePublicApiPort#resolveApplicablePriceAt}. Lookups without an applicable price are not cached.
+ * V1 and V2 lookups go straight to the underlying service, like batches and snapshots: they showcase two ways of
+ * picking the winner, which answering them from windows resolved on the timeline would hide.
+ * <p>
+ * The keys of a {@link PricesChangedEvent} are evicted as soon as it is published: the in-memory repository
+ * publishes the keys of every refresh, and an import publishes one covering every key. Changes written to the price table
+ * by anything else go unnoticed until their windows expire, {@code price.cache.ttl} after being cached.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "price.cache.enabled", havingValue = "true")
+public class CachingPricePublicApiService implements PricePublicApiPort {
+
+    private final PricePublicApiPort delegate;
+    private final PriceWindowCache cache;
+
+    @Autowired
+    public CachingPricePublicApiService(PricePubicApiService delegate,
+                                        @Value("${price.cache.max-size:100000}") long maxSize,
+                                        @Value("${price.cache.ttl:10m}") Duration ttl,
+                                        MeterRegistry meterRegistry) {
+        this(delegate, new PriceWindowCache(maxSize, ttl), meterRegistry);
+    }
+
+    public CachingPricePublicApiService(PricePublicApiPort delegate, PriceWindowCache cache,
+                                        MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = cache;
+        FunctionCounter.builder("price.cache.requests", cache, c -> c.stats().getHits())
+                .description("Lookups served by the cache or missing it")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("price.cache.requests", cache, c -> c.stats().getMisses())
+                .description("Lookups served by the cache or missing it")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("price.cache.evictions", cache, c -> c.stats().getEvictions())
+                .description("Cached windows evicted to make room or expired")
+                .register(meterRegistry);
+        Gauge.builder("price.cache.size", cache, c -> c.stats().getSize())
+                .description("Product/brand keys held by the cache")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onPricesChanged(PricesChangedEvent event) {
+        if (event.isAllKeys()) {
+            cache.clear();
+        } else {
+            cache.evict(event.getKeys());
+        }
+    }
+
+    @Override
+    public Price findApplicablePriceAtV1(LocalDateTime dateTime, Long productId, Long brandId) {
+        return delegate.findApplicablePriceAtV1(dateTime, productId, brandId);
+    }
+
+    @Override
+    public Price findApplicablePriceAtV2(LocalDateTime dateTime, Long productId, Long brandId) {
+        return delegate.findApplicablePriceAtV2(dateTime, productId, brandId);
+    }
+
+    @Override
+    public ResolvedPrice resolveApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        PriceKey key = new PriceKey(brandId, productId);
+        return cache.get(key, dateTime).orElseGet(() -> {
+            ResolvedPrice resolvedPrice = delegate.resolveApplicablePriceAt(dateTime, productId, brandId);
+            cache.put(key, resolvedPrice);
+            return resolvedPrice;
+        });
+    }
+
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, List<Long> brandIds) {
+        return delegate.findApplicablePricePerBrand(dateTime, productId, brandIds);
+    }
+
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        return delegate.findApplicablePriceAtEach(productId, brandId, dateTimes);
+    }
+
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(List<PriceQuery> queries) {
+        return delegate.findApplicablePriceBatch(queries);
+    }
+
+    @Override
+    public void snapshotApplicablePricesAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        delegate.snapshotApplicablePricesAt(dateTime, consumer);
+    }
+
+    public PriceCacheStats getStats() {
+        return cache.stats();
+    }
+}
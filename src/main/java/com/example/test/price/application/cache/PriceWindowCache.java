@@ -0,0 +1,186 @@
+package com.example.test.price.application.cache;
+
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.ResolvedPrice;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of resolved prices keyed by product and brand.
+ * <p>
+ * Instead of the exact timestamp of a lookup, every entry records the validity window of the resolved price,
+ * so any later lookup falling inside a cached window is a hit. Each key keeps up to
+ * {@value #MAX_WINDOWS_PER_KEY} windows, the oldest one making room for a new one.
+ * <p>
+ * Keys are spread over independently locked segments, each evicting its least recently used key once it holds
+ * its share of {@code maxSize} keys. Windows also expire {@code ttl} after being cached, which bounds how long a
+ * change in the price table can go unnoticed when nobody {@linkplain #evict(Collection) evicts} the changed keys.
+ */
+public class PriceWindowCache {
+    static final int MAX_WINDOWS_PER_KEY = 8;
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PriceWindowCache(long maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    public PriceWindowCache(long maxSize, Duration ttl, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive, got " + maxSize);
+        }
+        int segmentSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxSize / SEGMENTS));
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(segmentSize);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @param key the product and brand
+     * @param dateTime the application date and time
+     * @return the cached resolved price whose window contains the given instant, if any
+     */
+    public Optional<ResolvedPrice> get(PriceKey key, LocalDateTime dateTime) {
+        Segment segment = segmentFor(key);
+        long now = nanoClock.getAsLong();
+        synchronized (segment) {
+            Window[] windows = segment.get(key);
+            if (windows != null) {
+                for (int i = 0; i < windows.length; i++) {
+                    Window window = windows[i];
+                    if (window.resolvedPrice.isValidAt(dateTime)) {
+                        if (now - window.cachedAt < ttlNanos) {
+                            hits.increment();
+                            return Optional.of(window.resolvedPrice);
+                        }
+                        evictions.increment();
+                        segment.remove(key, windows, i);
+                        break;
+                    }
+                }
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(PriceKey key, ResolvedPrice resolvedPrice) {
+        Segment segment = segmentFor(key);
+        Window window = new Window(resolvedPrice, nanoClock.getAsLong());
+        synchronized (segment) {
+            Window[] windows = segment.get(key);
+            if (windows == null) {
+                segment.put(key, new Window[]{window});
+                return;
+            }
+            for (int i = 0; i < windows.length; i++) {
+                if (windows[i].resolvedPrice.getValidFrom().equals(resolvedPrice.getValidFrom())) {
+                    Window[] updated = windows.clone();
+                    updated[i] = window;
+                    segment.put(key, updated);
+                    return;
+                }
+            }
+            Window[] updated;
+            if (windows.length < MAX_WINDOWS_PER_KEY) {
+                updated = Arrays.copyOf(windows, windows.length + 1);
+            } else {
+                updated = Arrays.copyOfRange(windows, 1, windows.length + 1);
+                evictions.increment();
+            }
+            updated[updated.length - 1] = window;
+            segment.put(key, updated);
+        }
+    }
+
+    /**
+     * Drops every window of the given keys, whose prices changed.
+     */
+    public void evict(Collection<PriceKey> keys) {
+        for (PriceKey key : keys) {
+            Segment segment = segmentFor(key);
+            synchronized (segment) {
+                segment.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public PriceCacheStats stats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new PriceCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment segmentFor(PriceKey key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Window {
+        private final ResolvedPrice resolvedPrice;
+        private final long cachedAt;
+
+        private Window(ResolvedPrice resolvedPrice, long cachedAt) {
+            this.resolvedPrice = resolvedPrice;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    private final class Segment extends LinkedHashMap<PriceKey, Window[]> {
+        private final int maxEntries;
+
+        private Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        private void remove(PriceKey key, Window[] windows, int index) {
+            if (windows.length == 1) {
+                remove(key);
+                return;
+            }
+            Window[] updated = new Window[windows.length - 1];
+            System.arraycopy(windows, 0, updated, 0, index);
+            System.arraycopy(windows, index + 1, updated, index, windows.length - index - 1);
+            put(key, updated);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PriceKey, Window[]> eldest) {
+            if (size() > maxEntries) {
+                evictions.add(eldest.getValue().length);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.test.price.application.services;
 
 import com.example.test.price.domain.exceptions.PriceNotFoundException;
+import com.example.test.price.domain.exceptions.InvalidPriceBatchException;
 import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
 import com.example.test.price.domain.ports.in.PricePublicApiPort;
 import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class PricePubicApiService implements PricePublicApiPort {
@@ -35,25 +46,109 @@ public class PricePubicApiService implements PricePublicApiPort {
      */
 
     private final PriceRepositoryPort priceRepositoryPort;
+    private final Timer v1Timer;
+    private final Timer v2Timer;
+    private final Timer resolveTimer;
+    private final Timer perBrandTimer;
+    private final Timer atEachTimer;
+    private final Counter v1NotFound;
+    private final Counter v2NotFound;
+    private final Counter resolveNotFound;
+    private final Timer snapshotTimer;
 
     @Autowired
-    public PricePubicApiService(PriceRepositoryPort priceRepositoryPort) {
+    public PricePubicApiService(PriceRepositoryPort priceRepositoryPort, MeterRegistry meterRegistry) {
         this.priceRepositoryPort = priceRepositoryPort;
+        this.v1Timer = lookupTimer(meterRegistry, "v1");
+        this.v2Timer = lookupTimer(meterRegistry, "v2");
+        this.resolveTimer = lookupTimer(meterRegistry, "resolve");
+        this.perBrandTimer = lookupTimer(meterRegistry, "per-brand");
+        this.atEachTimer = lookupTimer(meterRegistry, "at-each");
+        this.v1NotFound = notFoundCounter(meterRegistry, "v1");
+        this.v2NotFound = notFoundCounter(meterRegistry, "v2");
+        this.resolveNotFound = notFoundCounter(meterRegistry, "resolve");
+        this.snapshotTimer = Timer.builder("price.snapshot")
+                .description("Time to stream the price of every product and brand")
+                .register(meterRegistry);
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String strategy) {
+        return Timer.builder("price.lookup")
+                .description("Time to resolve the applicable price of a lookup")
+                .tag("strategy", strategy)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter notFoundCounter(MeterRegistry meterRegistry, String strategy) {
+        return Counter.builder("price.lookup.not.found")
+                .description("Lookups without an applicable price")
+                .tag("strategy", strategy)
+                .register(meterRegistry);
+    }
+
+    private static PriceNotFoundException notFound(Counter counter, Long productId, Long brandId) {
+        counter.increment();
+        return new PriceNotFoundException(productId, brandId);
     }
 
     @Override
     public Price findApplicablePriceAtV1(LocalDateTime dateTime, Long productId, Long brandId) {
+        // Timed without a capturing lambda, and looked up without an Optional, so a repository answering without
+        // allocating keeps the whole lookup allocation-free up to the response
+        long start = System.nanoTime();
+        Price price = productId == null || brandId == null ? null
+                : priceRepositoryPort.findApplicablePrice(dateTime, productId, brandId);
+        v1Timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (price == null) {
+            throw notFound(v1NotFound, productId, brandId);
+        }
+        return price;
+    }
 
-        return priceRepositoryPort.findApplicablePriceAt(dateTime, productId, brandId)
-                .orElseThrow(() -> new PriceNotFoundException(productId, brandId));
+    @Override
+    public Price findApplicablePriceAtV2(LocalDateTime dateTime, Long productId, Long brandId) {
+        return v2Timer.record(() -> {
+            List<Price> priceList = priceRepositoryPort.findApplicablePricesAt(dateTime, productId, brandId);
+            return priceList.stream()
+                    .max(Comparator.comparing(Price::getPriority))
+                    .orElseThrow(() -> notFound(v2NotFound, productId, brandId));
+        });
+    }
 
+    @Override
+    public ResolvedPrice resolveApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return resolveTimer.record(() -> priceRepositoryPort.findResolvedPriceAt(dateTime, productId, brandId)
+                .orElseThrow(() -> notFound(resolveNotFound, productId, brandId)));
     }
 
     @Override
-    public Price findApplicablePriceAtV2(LocalDateTime dateTime, Long productId, Long brandId) {
-        List<Price> priceList = priceRepositoryPort.findApplicablePricesAt(dateTime, productId, brandId);
-        return priceList.stream()
-                .max(Comparator.comparing(Price::getPriority))
-                .orElseThrow(() -> new PriceNotFoundException(productId, brandId));
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, List<Long> brandIds) {
+        List<Long> brands = brandIds == null ? List.of() : brandIds;
+        return perBrandTimer.record(() -> priceRepositoryPort.findApplicablePricePerBrand(dateTime, productId, brands));
+    }
+
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        if (productId == null || brandId == null || dateTimes == null
+                || dateTimes.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidPriceBatchException("A series of lookups requires productId, brandId and a dateTime for each lookup");
+        }
+        return atEachTimer.record(() -> priceRepositoryPort.findApplicablePriceAtEach(productId, brandId, dateTimes));
+    }
+
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(List<PriceQuery> queries) {
+        for (PriceQuery query : queries) {
+            if (query.getDateTime() == null || query.getProductId() == null || query.getBrandId() == null) {
+                throw new InvalidPriceBatchException("Every lookup of a batch requires dateTime, productId and brandId");
+            }
+        }
+        return priceRepositoryPort.findApplicablePriceBatch(queries);
+    }
+
+    @Override
+    public void snapshotApplicablePricesAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        snapshotTimer.record(() -> priceRepositoryPort.forEachApplicablePriceAt(dateTime, consumer));
     }
 }
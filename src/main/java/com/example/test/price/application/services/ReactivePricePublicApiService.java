@@ -0,0 +1,48 @@
+package com.example.test.price.application.services;
+
+import com.example.test.price.domain.exceptions.InvalidPriceBatchException;
+import com.example.test.price.domain.exceptions.PriceNotFoundException;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.ports.in.ReactivePricePublicApiPort;
+import com.example.test.price.domain.ports.out.ReactivePriceRepositoryPort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Service
+@ConditionalOnProperty(name = "price.reactive.enabled", havingValue = "true")
+public class ReactivePricePublicApiService implements ReactivePricePublicApiPort {
+
+    private final ReactivePriceRepositoryPort reactivePriceRepositoryPort;
+
+    @Autowired
+    public ReactivePricePublicApiService(ReactivePriceRepositoryPort reactivePriceRepositoryPort) {
+        this.reactivePriceRepositoryPort = reactivePriceRepositoryPort;
+    }
+
+    @Override
+    public Mono<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return reactivePriceRepositoryPort.findApplicablePriceAt(dateTime, productId, brandId)
+                .switchIfEmpty(Mono.error(() -> new PriceNotFoundException(productId, brandId)));
+    }
+
+    @Override
+    public Flux<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return reactivePriceRepositoryPort.findApplicablePricesAt(dateTime, productId, brandId);
+    }
+
+    @Override
+    public Flux<PriceLookupResult> findApplicablePriceBatch(Flux<PriceQuery> queries) {
+        return reactivePriceRepositoryPort.findApplicablePriceBatch(queries.doOnNext(query -> {
+            if (query.getDateTime() == null || query.getProductId() == null || query.getBrandId() == null) {
+                throw new InvalidPriceBatchException("Every lookup of a batch requires dateTime, productId and brandId");
+            }
+        }));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.test.price.domain.events;
+
+import com.example.test.price.domain.models.PriceKey;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published once changed prices become visible to the lookups, so anything holding resolved prices can drop them.
+ */
+public final class PricesChangedEvent {
+    private static final PricesChangedEvent ALL_KEYS = new PricesChangedEvent(null);
+
+    private final Set<PriceKey> keys;
+
+    private PricesChangedEvent(Set<PriceKey> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * @param keys the product/brand keys whose prices changed
+     */
+    public static PricesChangedEvent of(Collection<PriceKey> keys) {
+        return new PricesChangedEvent(Set.copyOf(keys));
+    }
+
+    /**
+     * For changes whose keys are not tracked, such as a bulk import.
+     */
+    public static PricesChangedEvent allKeys() {
+        return ALL_KEYS;
+    }
+
+    public boolean isAllKeys() {
+        return keys == null;
+    }
+
+    /**
+     * @return the changed keys, only meaningful unless {@link #isAllKeys()}
+     */
+    public Set<PriceKey> getKeys() {
+        return keys == null ? Set.of() : keys;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.test.price.domain.exceptions;
+
+public class InvalidPriceBatchException extends RuntimeException {
+
+    public InvalidPriceBatchException(String message) {
+        super(message);
+    }
+}
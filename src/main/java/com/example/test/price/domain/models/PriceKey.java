@@ -0,0 +1,41 @@
+package com.example.test.price.domain.models;
+
+import java.util.Objects;
+
+/**
+ * Identifies the set of prices of a product within a brand (store).
+ */
+public final class PriceKey {
+    private final Long brandId;
+    private final Long productId;
+
+    public PriceKey(Long brandId, Long productId) {
+        this.brandId = brandId;
+        this.productId = productId;
+    }
+
+    public Long getBrandId() {
+        return brandId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PriceKey other)) return false;
+        return Objects.equals(brandId, other.brandId) && Objects.equals(productId, other.productId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(brandId, productId);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceKey{brandId=" + brandId + ", productId=" + productId + "}";
+    }
+}
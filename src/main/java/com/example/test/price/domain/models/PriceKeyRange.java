@@ -0,0 +1,47 @@
+package com.example.test.price.domain.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * The prices of a product within a brand, restricted to a date time range: from {@code from} to {@code to}, both
+ * inclusive.
+ */
+public final class PriceKeyRange {
+    private final PriceKey key;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public PriceKeyRange(PriceKey key, LocalDateTime from, LocalDateTime to) {
+        this.key = key;
+        this.from = from;
+        this.to = to;
+    }
+
+    public PriceKey getKey() {
+        return key;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * @param dateTime a date time to cover as well
+     * @return the smallest range of the same key covering this one and the given date time
+     */
+    public PriceKeyRange extendTo(LocalDateTime dateTime) {
+        if (dateTime.isBefore(from)) {
+            return new PriceKeyRange(key, dateTime, to);
+        }
+        return dateTime.isAfter(to) ? new PriceKeyRange(key, from, dateTime) : this;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceKeyRange{key=" + key + ", from=" + from + ", to=" + to + "}";
+    }
+}
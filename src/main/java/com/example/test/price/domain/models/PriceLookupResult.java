@@ -0,0 +1,46 @@
+package com.example.test.price.domain.models;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a single lookup of a batch: the query and its applicable price, or no price when none applies.
+ */
+public class PriceLookupResult {
+    private final PriceQuery query;
+    private final Price price;
+
+    public PriceLookupResult(PriceQuery query, Price price) {
+        this.query = query;
+        this.price = price;
+    }
+
+    /**
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @param dateTimes the looked up dates and times
+     * @param prices    the price at each date time, null where none applies, see {@link PriceTimeline#pricesAt(List)}
+     * @return the result of each date time, in the order of the date times
+     */
+    public static List<PriceLookupResult> ofEach(Long productId, Long brandId, List<LocalDateTime> dateTimes,
+                                                 Price[] prices) {
+        List<PriceLookupResult> results = new ArrayList<>(dateTimes.size());
+        for (int i = 0; i < prices.length; i++) {
+            results.add(new PriceLookupResult(new PriceQuery(dateTimes.get(i), productId, brandId), prices[i]));
+        }
+        return results;
+    }
+
+    public PriceQuery getQuery() {
+        return query;
+    }
+
+    public Price getPrice() {
+        return price;
+    }
+
+    public boolean isFound() {
+        return price != null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.test.price.domain.models;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A single price lookup: the product and brand whose price is wanted at a given date and time.
+ */
+public class PriceQuery {
+    private final LocalDateTime dateTime;
+    private final Long productId;
+    private final Long brandId;
+
+    public PriceQuery(LocalDateTime dateTime, Long productId, Long brandId) {
+        this.dateTime = dateTime;
+        this.productId = productId;
+        this.brandId = brandId;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getBrandId() {
+        return brandId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PriceQuery other)) return false;
+        return Objects.equals(dateTime, other.dateTime)
+                && Objects.equals(productId, other.productId)
+                && Objects.equals(brandId, other.brandId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dateTime, productId, brandId);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceQuery{dateTime=" + dateTime + ", productId=" + productId + ", brandId=" + brandId + "}";
+    }
+}
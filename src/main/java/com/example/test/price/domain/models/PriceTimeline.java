@@ -0,0 +1,198 @@
+package com.example.test.price.domain.models;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Effective price timeline of a single product and brand.
+ * <p>
+ * The overlapping prices are flattened once into a sorted sequence of disjoint segments, each one
+ * carrying the price that wins within it: the one with the highest priority, or the first one given
+ * when several share it. Resolving the price at a given instant is then a binary search over the
+ * segment start dates, whatever the number of overlapping prices.
+ * <p>
+ * Price date ranges are inclusive on both ends; segments are stored as {@code [start, end)} ranges
+ * with the end one nanosecond past the inclusive end date of the price.
+ */
+public class PriceTimeline {
+    private static final PriceTimeline EMPTY = new PriceTimeline(new LocalDateTime[0], new LocalDateTime[0], new Price[0]);
+
+    private final LocalDateTime[] segmentStarts;
+    private final LocalDateTime[] segmentEnds;
+    private final Price[] winners;
+
+    private PriceTimeline(LocalDateTime[] segmentStarts, LocalDateTime[] segmentEnds, Price[] winners) {
+        this.segmentStarts = segmentStarts;
+        this.segmentEnds = segmentEnds;
+        this.winners = winners;
+    }
+
+    /**
+     * Resolves the winning price of every instant covered by the given prices.
+     *
+     * @param prices the prices of a single product and brand
+     * @return the resolved timeline
+     */
+    public static PriceTimeline of(Collection<Price> prices) {
+        if (prices.isEmpty()) {
+            return EMPTY;
+        }
+
+        Price[] byStartDate = prices.toArray(new Price[0]);
+        Map<Price, Integer> inputOrder = new IdentityHashMap<>();
+        for (int i = 0; i < byStartDate.length; i++) {
+            inputOrder.put(byStartDate[i], i);
+        }
+        Arrays.sort(byStartDate, Comparator.comparing(Price::getStartDate));
+
+        TreeSet<LocalDateTime> boundaries = new TreeSet<>();
+        for (Price price : byStartDate) {
+            boundaries.add(price.getStartDate());
+            boundaries.add(exclusiveEnd(price));
+        }
+
+        // Highest priority first, ties resolved in favour of the price given first
+        PriorityQueue<Price> active = new PriorityQueue<>(
+                Comparator.comparing(Price::getPriority).reversed()
+                        .thenComparingInt(inputOrder::get));
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+        List<Price> segmentWinners = new ArrayList<>();
+
+        int next = 0;
+        LocalDateTime boundary = boundaries.first();
+        while (boundary != null) {
+            while (next < byStartDate.length && !byStartDate[next].getStartDate().isAfter(boundary)) {
+                active.add(byStartDate[next++]);
+            }
+            while (!active.isEmpty() && !exclusiveEnd(active.peek()).isAfter(boundary)) {
+                active.poll();
+            }
+
+            LocalDateTime nextBoundary = boundaries.higher(boundary);
+            Price winner = active.peek();
+            if (winner != null && nextBoundary != null) {
+                int last = segmentWinners.size() - 1;
+                if (last >= 0 && segmentWinners.get(last) == winner && ends.get(last).equals(boundary)) {
+                    ends.set(last, nextBoundary);
+                } else {
+                    starts.add(boundary);
+                    ends.add(nextBoundary);
+                    segmentWinners.add(winner);
+                }
+            }
+            boundary = nextBoundary;
+        }
+
+        return new PriceTimeline(
+                starts.toArray(new LocalDateTime[0]),
+                ends.toArray(new LocalDateTime[0]),
+                segmentWinners.toArray(new Price[0]));
+    }
+
+    /**
+     * @param dateTime the application date and time
+     * @return the winning price at the given instant, or an empty Optional if no price applies
+     */
+    public Optional<Price> priceAt(LocalDateTime dateTime) {
+        int segment = segmentAt(dateTime);
+        return segment < 0 ? Optional.empty() : Optional.of(winners[segment]);
+    }
+
+    /**
+     * @param dateTime the application date and time
+     * @return the winning price at the given instant and the window over which it keeps winning,
+     * or an empty Optional if no price applies
+     */
+    public Optional<ResolvedPrice> resolveAt(LocalDateTime dateTime) {
+        int segment = segmentAt(dateTime);
+        return segment < 0
+                ? Optional.empty()
+                : Optional.of(new ResolvedPrice(winners[segment], segmentStarts[segment], segmentEnds[segment]));
+    }
+
+    /**
+     * Resolves the winning price at many instants in a single sweep: the instants are sorted, then walked along with
+     * the segments, so the cost is that of the sort plus one pass over the segments.
+     *
+     * @param dateTimes the application dates and times, in any order
+     * @return the winning price at each instant, in the order of the instants, null where no price applies
+     */
+    public Price[] pricesAt(List<LocalDateTime> dateTimes) {
+        Integer[] byDateTime = new Integer[dateTimes.size()];
+        for (int i = 0; i < byDateTime.length; i++) {
+            byDateTime[i] = i;
+        }
+        Arrays.sort(byDateTime, Comparator.comparing(dateTimes::get));
+
+        Price[] prices = new Price[byDateTime.length];
+        int segment = 0;
+        for (int index : byDateTime) {
+            LocalDateTime dateTime = dateTimes.get(index);
+            while (segment < winners.length && !segmentEnds[segment].isAfter(dateTime)) {
+                segment++;
+            }
+            if (segment < winners.length && !segmentStarts[segment].isAfter(dateTime)) {
+                prices[index] = winners[segment];
+            }
+        }
+        return prices;
+    }
+
+    public int segmentCount() {
+        return winners.length;
+    }
+
+    /**
+     * @param segment the segment index, from 0 to {@link #segmentCount()} exclusive, in date order
+     * @return the inclusive start of the segment
+     */
+    public LocalDateTime segmentStart(int segment) {
+        return segmentStarts[segment];
+    }
+
+    /**
+     * @param segment the segment index, from 0 to {@link #segmentCount()} exclusive, in date order
+     * @return the exclusive end of the segment
+     */
+    public LocalDateTime segmentEnd(int segment) {
+        return segmentEnds[segment];
+    }
+
+    /**
+     * @param segment the segment index, from 0 to {@link #segmentCount()} exclusive, in date order
+     * @return the price winning over the segment
+     */
+    public Price winner(int segment) {
+        return winners[segment];
+    }
+
+    private int segmentAt(LocalDateTime dateTime) {
+        int low = 0;
+        int high = segmentStarts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (segmentStarts[mid].isAfter(dateTime)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high >= 0 && segmentEnds[high].isAfter(dateTime) ? high : -1;
+    }
+
+    private static LocalDateTime exclusiveEnd(Price price) {
+        LocalDateTime endDate = price.getEndDate();
+        return endDate.equals(LocalDateTime.MAX) ? endDate : endDate.plusNanos(1);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.test.price.domain.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * A winning price together with the window over which it stays the winner of its product and brand:
+ * from {@code validFrom}, inclusive, to {@code validUntil}, exclusive. Any lookup of the same product
+ * and brand within the window resolves to the same price.
+ */
+public class ResolvedPrice {
+    private final Price price;
+    private final LocalDateTime validFrom;
+    private final LocalDateTime validUntil;
+
+    public ResolvedPrice(Price price, LocalDateTime validFrom, LocalDateTime validUntil) {
+        this.price = price;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+    }
+
+    public Price getPrice() {
+        return price;
+    }
+
+    public LocalDateTime getValidFrom() {
+        return validFrom;
+    }
+
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+
+    public boolean isValidAt(LocalDateTime dateTime) {
+        return !validFrom.isAfter(dateTime) && validUntil.isAfter(dateTime);
+    }
+}
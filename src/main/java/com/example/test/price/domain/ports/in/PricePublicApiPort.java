@@ -1,6 +1,12 @@
 package com.example.test.price.domain.ports.in;
 import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PricePublicApiPort {
     /**
@@ -24,4 +30,57 @@ public interface PricePublicApiPort {
      * @return the applicable Price object
      */
      Price findApplicablePriceAtV2(LocalDateTime dateTime, Long productId, Long brandId);
+
+    /**
+     * Finds the price for a product and brand at a given time, along with the window over which it stays applicable.
+     * If multiple rates overlap in their date ranges, the one with the highest priority is returned.
+     *
+     * @param dateTime      the application date and time
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @return the applicable Price object and its validity window
+     */
+    ResolvedPrice resolveApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId);
+
+    /**
+     * Finds the price of a product at a given time in each of several brands, for comparing them.
+     * For each brand, if multiple rates overlap in their date ranges, the one with the highest priority is returned.
+     *
+     * @param dateTime  the application date and time
+     * @param productId the product identifier
+     * @param brandIds  the brand (store) identifiers, every brand if null or empty
+     * @return the applicable Price of each brand that has one, ordered by brand identifier; brands without an
+     *         applicable price are absent
+     */
+    List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, List<Long> brandIds);
+
+    /**
+     * Finds the price for a product and brand at each of many times at once, as for replaying a series of orders.
+     * For each time, if multiple rates overlap in their date ranges, the one with the highest priority is returned.
+     *
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @param dateTimes the application dates and times, in any order
+     * @return one result per time, in the order of the times; times without an applicable price have no price
+     */
+    List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes);
+
+    /**
+     * Finds the price of every query of a batch at once.
+     * For each query, if multiple rates overlap in their date ranges, the one with the highest priority is returned.
+     *
+     * @param queries the lookups to resolve
+     * @return the applicable Price of each query that has one; queries without an applicable price are absent
+     */
+    Map<PriceQuery, Price> findApplicablePriceBatch(List<PriceQuery> queries);
+
+    /**
+     * Streams a snapshot of the catalog: the price of every product and brand at a given time.
+     * For each product and brand, if multiple rates overlap in their date ranges, the one with the highest priority is returned.
+     *
+     * @param dateTime the application date and time
+     * @param consumer the consumer of each applicable Price, in no particular order; products and brands
+     *                 without an applicable price are skipped
+     */
+    void snapshotApplicablePricesAt(LocalDateTime dateTime, Consumer<Price> consumer);
 }
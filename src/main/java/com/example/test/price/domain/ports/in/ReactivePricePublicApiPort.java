@@ -0,0 +1,40 @@
+package com.example.test.price.domain.ports.in;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface ReactivePricePublicApiPort {
+    /**
+     * Finds the price for a product and brand at a given time.
+     * If multiple rates overlap in their date ranges, the one with the highest priority is emitted.
+     *
+     * @param dateTime      the application date and time
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @return a Mono emitting the applicable Price, or failing with PriceNotFoundException
+     */
+    Mono<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId);
+
+    /**
+     * Finds every price applying to a product and brand at a given time, whatever its priority.
+     *
+     * @param dateTime      the application date and time
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @return a Flux emitting the applicable prices, empty if none found
+     */
+    Flux<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId);
+
+    /**
+     * Finds the price of every query of a stream, one result per query in query order.
+     *
+     * @param queries the lookups to resolve
+     * @return a Flux emitting one result per query
+     */
+    Flux<PriceLookupResult> findApplicablePriceBatch(Flux<PriceQuery> queries);
+}
@@ -1,10 +1,16 @@
 package com.example.test.price.domain.ports.out;
 
 import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PriceRepositoryPort {
     /**
@@ -18,6 +24,29 @@ public interface PriceRepositoryPort {
      */
     Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId);
 
+    /**
+     * Retrieves the price for a given moment in time, product and brand, like {@link #findApplicablePriceAt}, but
+     * without boxing the identifiers nor wrapping the result, for the repositories able to answer without allocating
+     *
+     * @param dateTime  the application date and time
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @return the applicable Price, or null if none is found
+     */
+    default Price findApplicablePrice(LocalDateTime dateTime, long productId, long brandId) {
+        return findApplicablePriceAt(dateTime, productId, brandId).orElse(null);
+    }
+
+    /**
+     * Retrieves the price for a given moment in time, product and brand, along with the window over which it stays
+     * the highest priority price: until its end date or the start of a higher priority price, whichever comes first.
+     *
+     * @param dateTime      the application date and time
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @return an Optional containing the applicable ResolvedPrice if one exists, or an empty Optional if none is found
+     */
+    Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId);
 
     /**
      * Retrieves a list of prices for a given moment in time, product and brand
@@ -28,4 +57,44 @@ public interface PriceRepositoryPort {
      * @return the list of applicable price objects, empty if none found
      */
     List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId);
+
+    /**
+     * Retrieves the highest priority price of a product at a given moment in time for each of several brands, in a
+     * single pass over the prices of the product
+     *
+     * @param dateTime  the application date and time
+     * @param productId the product identifier
+     * @param brandIds  the brand (store) identifiers, every brand if empty
+     * @return the applicable Price of each brand that has one, ordered by brand identifier
+     */
+    List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds);
+
+    /**
+     * Retrieves the highest priority price of a product and brand at each of many moments in time, reading the
+     * prices of the product and brand once
+     *
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @param dateTimes the application dates and times, in any order
+     * @return one result per date time, in the order of the date times, without a price where none applies
+     */
+    List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes);
+
+    /**
+     * Retrieves the highest priority price of every query in a single round trip
+     *
+     * @param queries the lookups to resolve
+     * @return the applicable Price of each query that has one; queries without an applicable price are absent
+     */
+    Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries);
+
+    /**
+     * Streams the highest priority price of every product and brand at a given moment in time, without
+     * holding the whole catalog in memory
+     *
+     * @param dateTime the application date and time
+     * @param consumer the consumer of each applicable Price, called from the calling thread in no particular order;
+     *                 products and brands without an applicable price are skipped
+     */
+    void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer);
 }
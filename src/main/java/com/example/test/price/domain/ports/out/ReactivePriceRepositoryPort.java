@@ -0,0 +1,40 @@
+package com.example.test.price.domain.ports.out;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface ReactivePriceRepositoryPort {
+    /**
+     * Retrieves the price for a given moment in time, product and brand
+     * If multiple rates overlap in their date ranges, the one with the highest priority is emitted.
+     *
+     * @param dateTime      the application date and time
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @return a Mono emitting the applicable Price, or completing empty if none is found
+     */
+    Mono<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId);
+
+    /**
+     * Retrieves the prices for a given moment in time, product and brand
+     *
+     * @param dateTime      the application date and time
+     * @param productId the product identifier
+     * @param brandId   the brand (store) identifier
+     * @return a Flux emitting every applicable price, empty if none found
+     */
+    Flux<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId);
+
+    /**
+     * Resolves a stream of lookups, pulling them from upstream only as fast as downstream requests results
+     *
+     * @param queries the lookups to resolve
+     * @return a Flux emitting one result per query, in query order
+     */
+    Flux<PriceLookupResult> findApplicablePriceBatch(Flux<PriceQuery> queries);
+}
@@ -0,0 +1,39 @@
+package com.example.test.price.infrastructure.adapters.httpapi;
+
+import com.example.test.price.application.cache.CachingPricePublicApiService;
+import com.example.test.price.application.cache.PriceCacheStats;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceRepositoryAdapter;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceIndexStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/prices")
+public class PriceAdminController {
+
+    private final ObjectProvider<CachingPricePublicApiService> cachingPricePublicApiService;
+    private final ObjectProvider<InMemoryPriceRepositoryAdapter> inMemoryPriceRepositoryAdapter;
+
+    @Autowired
+    public PriceAdminController(ObjectProvider<CachingPricePublicApiService> cachingPricePublicApiService,
+                                ObjectProvider<InMemoryPriceRepositoryAdapter> inMemoryPriceRepositoryAdapter) {
+        this.cachingPricePublicApiService = cachingPricePublicApiService;
+        this.inMemoryPriceRepositoryAdapter = inMemoryPriceRepositoryAdapter;
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<PriceCacheStats> getCacheStats() {
+        CachingPricePublicApiService cache = cachingPricePublicApiService.getIfAvailable();
+        return cache == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(cache.getStats());
+    }
+
+    @GetMapping("/index")
+    public ResponseEntity<PriceIndexStats> getIndexStats() {
+        InMemoryPriceRepositoryAdapter index = inMemoryPriceRepositoryAdapter.getIfAvailable();
+        return index == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(index.getIndexStats());
+    }
+}
@@ -1,24 +1,57 @@
 package com.example.test.price.infrastructure.adapters.httpapi;
 
+import com.example.test.price.domain.exceptions.InvalidPriceBatchException;
 import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
 import com.example.test.price.domain.ports.in.PricePublicApiPort;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceBatchItemResponse;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceBatchRequestItem;
 import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceResponse;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceSeriesRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/prices")
 public class PriceController {
 
     private final PricePublicApiPort pricePublicApiPort;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+    private final int maxSeriesSize;
+    private final Duration maxAge;
 
     @Autowired
-    public PriceController(PricePublicApiPort pricePublicApiPort) {
+    public PriceController(PricePublicApiPort pricePublicApiPort, ObjectMapper objectMapper,
+                           @Value("${price.batch.max-size:1000}") int maxBatchSize,
+                           @Value("${price.series.max-size:10000}") int maxSeriesSize,
+                           @Value("${price.http.max-age:1m}") Duration maxAge) {
         this.pricePublicApiPort = pricePublicApiPort;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+        this.maxSeriesSize = maxSeriesSize;
+        this.maxAge = maxAge;
     }
 
     @GetMapping("/v1")
@@ -43,5 +76,119 @@ public class PriceController {
         return ResponseEntity.ok(PriceResponse.fromDomainModel(price));
     }
 
+    /**
+     * Resolves the price and lets clients and proxies cache the response. The response for a given
+     * {@code dateTime} only changes when rows change, so it is cached for {@code price.http.max-age}. Without a
+     * {@code dateTime} the price is resolved at the current server time, and the response also changes once the price
+     * stops winning: it is cached until then, as seen from the server clock, at most {@code price.http.max-age}. The
+     * {@code ETag} is made of every field of the winning price, so a request whose {@code If-None-Match} holds it
+     * gets a {@code 304} without a body.
+     */
+    @GetMapping("/v3")
+    public ResponseEntity<PriceResponse> getApplicablePriceV3(
+            @RequestParam(value = "dateTime", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestParam("productId") Long productId,
+            @RequestParam("brandId") Long brandId) {
+
+        LocalDateTime now = LocalDateTime.now();
+        ResolvedPrice resolvedPrice = pricePublicApiPort.resolveApplicablePriceAt(
+                dateTime == null ? now : dateTime, productId, brandId);
+
+        long maxAgeSeconds = dateTime == null
+                ? Math.min(maxAge.getSeconds(), Duration.between(now, resolvedPrice.getValidUntil()).getSeconds())
+                : maxAge.getSeconds();
+        // The If-None-Match check against the ETag, and the 304, are handled by Spring before writing the body
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .headers(headers -> headers.setExpires(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(maxAgeSeconds)))
+                .eTag(etagOf(resolvedPrice.getPrice()))
+                .body(PriceResponse.fromDomainModel(resolvedPrice.getPrice()));
+    }
+
+    /**
+     * @return the fields of the price making up the response body, so two prices never share a tag
+     */
+    private static String etagOf(Price price) {
+        return price.getPriceList() + "-" + price.getPriority() + "-" + price.getBrandId() + "-" + price.getProductId()
+                + "-" + price.getStartDate() + "-" + price.getEndDate() + "-" + price.getPrice().toPlainString()
+                + "-" + price.getCurrency();
+    }
+
+    /**
+     * Compares the price of a product across brands at the given time: every brand, or only those listed in
+     * {@code brandIds}. Brands without an applicable price are left out of the response.
+     */
+    @GetMapping("/brands")
+    public ResponseEntity<List<PriceResponse>> getApplicablePricePerBrand(
+            @RequestParam("dateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestParam("productId") Long productId,
+            @RequestParam(value = "brandIds", required = false) List<Long> brandIds) {
+
+        List<Price> prices = pricePublicApiPort.findApplicablePricePerBrand(dateTime, productId, brandIds);
+
+        return ResponseEntity.ok(prices.stream().map(PriceResponse::fromDomainModel).toList());
+    }
 
-}
\ No newline at end of file
+    @PostMapping("/batch")
+    public ResponseEntity<List<PriceBatchItemResponse>> getApplicablePriceBatch(
+            @RequestBody List<PriceBatchRequestItem> items) {
+
+        if (items.size() > maxBatchSize) {
+            throw new InvalidPriceBatchException(
+                    String.format("A batch can hold at most %d lookups, got %d", maxBatchSize, items.size()));
+        }
+
+        List<PriceQuery> queries = PriceBatchRequestItem.toDomainModels(items);
+        Map<PriceQuery, Price> prices = pricePublicApiPort.findApplicablePriceBatch(queries);
+
+        return ResponseEntity.ok(queries.stream()
+                .map(query -> PriceBatchItemResponse.fromDomainModel(query, prices.get(query)))
+                .toList());
+    }
+
+    /**
+     * Resolves the price of a single product and brand at many date times, reading its prices once; the response
+     * holds one entry per date time, in request order.
+     */
+    @PostMapping("/series")
+    public ResponseEntity<List<PriceBatchItemResponse>> getApplicablePriceSeries(@RequestBody PriceSeriesRequest request) {
+
+        if (request.getDateTimes() != null && request.getDateTimes().size() > maxSeriesSize) {
+            throw new InvalidPriceBatchException(String.format("A series can hold at most %d date times, got %d",
+                    maxSeriesSize, request.getDateTimes().size()));
+        }
+
+        List<PriceLookupResult> results = pricePublicApiPort.findApplicablePriceAtEach(
+                request.getProductId(), request.getBrandId(), request.getDateTimes());
+
+        return ResponseEntity.ok(results.stream()
+                .map(result -> PriceBatchItemResponse.fromDomainModel(result.getQuery(), result.getPrice()))
+                .toList());
+    }
+
+    /**
+     * Streams the price of every product and brand at the given time as newline-delimited JSON, written as the
+     * prices are resolved and off the request thread.
+     */
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getApplicablePriceSnapshot(
+            @RequestParam("dateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime) {
+
+        ObjectWriter writer = objectMapper.writerFor(PriceResponse.class);
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream buffered = new BufferedOutputStream(outputStream);
+            pricePublicApiPort.snapshotApplicablePricesAt(dateTime, price -> {
+                try {
+                    buffered.write(writer.writeValueAsBytes(PriceResponse.fromDomainModel(price)));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.test.price.infrastructure.adapters.httpapi;
+
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceFeedFormat;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceImportReport;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceImporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes price feeds straight into the price table. The application has no authentication of its own, so the
+ * endpoint only exists with {@code price.admin.import.enabled=true}, for deployments exposing it to operators alone.
+ */
+@RestController
+@RequestMapping("/api/admin/prices")
+@ConditionalOnProperty(name = "price.admin.import.enabled", havingValue = "true")
+public class PriceImportController {
+
+    private final PriceImporter priceImporter;
+
+    @Autowired
+    public PriceImportController(PriceImporter priceImporter) {
+        this.priceImporter = priceImporter;
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<PriceImportReport> importPrices(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+
+        Reader feed = new InputStreamReader(body, StandardCharsets.UTF_8);
+        return ResponseEntity.ok(priceImporter.importFeed(feed, PriceFeedFormat.fromMediaType(contentType)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.test.price.infrastructure.adapters.httpapi;
+
+import com.example.test.price.domain.exceptions.InvalidPriceBatchException;
+import com.example.test.price.domain.ports.in.ReactivePricePublicApiPort;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceBatchItemResponse;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceBatchRequestItem;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reactor variant of {@link PriceController}. Request threads are released while a lookup is pending,
+ * and multi-item responses are streamed as newline-delimited JSON as results are produced.
+ * <p>
+ * The lookups themselves are blocking calls moved off the request threads, see
+ * {@link com.example.test.price.infrastructure.adapters.repositories.reactive.ReactivePriceRepositoryAdapter}, and
+ * a batch is read whole from the request body before its first lookup. Enabled with
+ * {@code price.reactive.enabled=true}.
+ */
+@RestController
+@ConditionalOnProperty(name = "price.reactive.enabled", havingValue = "true")
+@RequestMapping("/api/reactive/prices")
+public class ReactivePriceController {
+
+    private final ReactivePricePublicApiPort reactivePricePublicApiPort;
+    private final int maxBatchSize;
+
+    @Autowired
+    public ReactivePriceController(ReactivePricePublicApiPort reactivePricePublicApiPort,
+                                   @Value("${price.batch.max-size:1000}") int maxBatchSize) {
+        this.reactivePricePublicApiPort = reactivePricePublicApiPort;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @GetMapping("/v1")
+    public Mono<PriceResponse> getApplicablePrice(
+            @RequestParam("dateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestParam("productId") Long productId,
+            @RequestParam("brandId") Long brandId) {
+
+        return reactivePricePublicApiPort.findApplicablePriceAt(dateTime, productId, brandId)
+                .map(PriceResponse::fromDomainModel);
+    }
+
+    @GetMapping(value = "/candidates", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PriceResponse> getApplicablePrices(
+            @RequestParam("dateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestParam("productId") Long productId,
+            @RequestParam("brandId") Long brandId) {
+
+        return reactivePricePublicApiPort.findApplicablePricesAt(dateTime, productId, brandId)
+                .map(PriceResponse::fromDomainModel);
+    }
+
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PriceBatchItemResponse> getApplicablePriceBatch(@RequestBody List<PriceBatchRequestItem> items) {
+
+        if (items.size() > maxBatchSize) {
+            throw new InvalidPriceBatchException(
+                    String.format("A batch can hold at most %d lookups, got %d", maxBatchSize, items.size()));
+        }
+
+        return reactivePricePublicApiPort.findApplicablePriceBatch(
+                        Flux.fromIterable(PriceBatchRequestItem.toDomainModels(items)))
+                .map(result -> PriceBatchItemResponse.fromDomainModel(result.getQuery(), result.getPrice()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.test.price.infrastructure.adapters.httpapi.dtos;
+
+import com.example.test.price.domain.exceptions.PriceNotFoundException;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceQuery;
+
+import java.time.LocalDateTime;
+
+public class PriceBatchItemResponse {
+    public static final String FOUND = "FOUND";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private LocalDateTime dateTime;
+    private Long productId;
+    private Long brandId;
+    private String status;
+    private PriceResponse price;
+    private String message;
+
+    public PriceBatchItemResponse(LocalDateTime dateTime, Long productId, Long brandId,
+                                  String status, PriceResponse price, String message) {
+        this.dateTime = dateTime;
+        this.productId = productId;
+        this.brandId = brandId;
+        this.status = status;
+        this.price = price;
+        this.message = message;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getBrandId() {
+        return brandId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public PriceResponse getPrice() {
+        return price;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public static PriceBatchItemResponse fromDomainModel(PriceQuery query, Price price) {
+        if (price == null) {
+            return new PriceBatchItemResponse(query.getDateTime(), query.getProductId(), query.getBrandId(),
+                    NOT_FOUND, null, new PriceNotFoundException(query.getProductId(), query.getBrandId()).getMessage());
+        }
+        return new PriceBatchItemResponse(query.getDateTime(), query.getProductId(), query.getBrandId(),
+                FOUND, PriceResponse.fromDomainModel(price), null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.test.price.infrastructure.adapters.httpapi.dtos;
+
+import com.example.test.price.domain.exceptions.InvalidPriceBatchException;
+import com.example.test.price.domain.models.PriceQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class PriceBatchRequestItem {
+    private LocalDateTime dateTime;
+    private Long productId;
+    private Long brandId;
+
+    public PriceBatchRequestItem(LocalDateTime dateTime, Long productId, Long brandId) {
+        this.dateTime = dateTime;
+        this.productId = productId;
+        this.brandId = brandId;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getBrandId() {
+        return brandId;
+    }
+
+    public PriceQuery toDomainModel() {
+        return new PriceQuery(dateTime, productId, brandId);
+    }
+
+    /**
+     * @param items the items of a batch request
+     * @return the lookup of each item, in order
+     * @throws InvalidPriceBatchException if an item is null or lacks its dateTime, productId or brandId
+     */
+    public static List<PriceQuery> toDomainModels(List<PriceBatchRequestItem> items) {
+        for (PriceBatchRequestItem item : items) {
+            if (item == null || item.dateTime == null || item.productId == null || item.brandId == null) {
+                throw new InvalidPriceBatchException("Every lookup of a batch requires dateTime, productId and brandId");
+            }
+        }
+        return items.stream().map(PriceBatchRequestItem::toDomainModel).toList();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.test.price.infrastructure.adapters.httpapi.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class PriceSeriesRequest {
+    private Long productId;
+    private Long brandId;
+    private List<LocalDateTime> dateTimes;
+
+    public PriceSeriesRequest(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        this.productId = productId;
+        this.brandId = brandId;
+        this.dateTimes = dateTimes;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getBrandId() {
+        return brandId;
+    }
+
+    public List<LocalDateTime> getDateTimes() {
+        return dateTimes;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.test.price.infrastructure.adapters.repositories;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * {@link PriceRepositoryPort} merging the single price lookups of concurrent callers into batch lookups, so that a
+ * single round trip answers many of them.
+ * <p>
+ * The first lookup arriving while no batch is open opens one and leads it: it waits for the batch window to elapse,
+ * or for the batch to reach its maximum size, then runs every lookup of the batch through
+ * {@link PriceRepositoryPort#findApplicablePriceBatch} on its own thread and hands each waiting caller its price, or
+ * the failure of the batch. No dispatcher thread is involved, and a batch goes through the decorators below this one
+ * as a single call. A batch that collected a single lookup runs it as such.
+ * <p>
+ * Only {@link #findApplicablePriceAt} is batched; the other lookups go straight to the underlying repository.
+ */
+public class BatchingPriceRepositoryPort implements PriceRepositoryPort {
+
+    private final PriceRepositoryPort delegate;
+    private final long windowNanos;
+    private final int maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private Batch open;
+
+    public BatchingPriceRepositoryPort(PriceRepositoryPort delegate, Duration window, int maxSize,
+                                       MeterRegistry meterRegistry) {
+        if (window.isNegative() || maxSize <= 0) {
+            throw new IllegalArgumentException("Batch window must not be negative and its size must be positive, got "
+                    + window + " and " + maxSize);
+        }
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.batchSize = DistributionSummary.builder("price.repository.batch.size")
+                .description("Distinct lookups merged into a single batch lookup")
+                .baseUnit("lookups")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("price.repository.batch.wait")
+                .description("Time a lookup waited for its batch to be dispatched")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        PriceQuery query = new PriceQuery(dateTime, productId, brandId);
+        Batch batch;
+        boolean leader;
+        CompletableFuture<Optional<Price>> result;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) {
+                open = new Batch();
+            }
+            batch = open;
+            result = batch.add(query);
+            if (batch.lookups.size() >= maxSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            awaitWindow(batch);
+            lock.lock();
+            try {
+                if (open == batch) {
+                    open = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            dispatch(batch);
+        }
+        return PriceRepositoryFutures.await(result);
+    }
+
+    @Override
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return delegate.findResolvedPriceAt(dateTime, productId, brandId);
+    }
+
+    @Override
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return delegate.findApplicablePricesAt(dateTime, productId, brandId);
+    }
+
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        return delegate.findApplicablePriceAtEach(productId, brandId, dateTimes);
+    }
+
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        return delegate.findApplicablePricePerBrand(dateTime, productId, brandIds);
+    }
+
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        return delegate.findApplicablePriceBatch(queries);
+    }
+
+    @Override
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        delegate.forEachApplicablePriceAt(dateTime, consumer);
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // Dispatch anyway: the other callers of the batch are waiting for it
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a sealed batch and completes the lookup of every caller, never throwing: the leader gets its own outcome
+     * like the others.
+     */
+    private void dispatch(Batch batch) {
+        long dispatchedAt = System.nanoTime();
+        batchSize.record(batch.lookups.size());
+        batch.lookups.values().forEach(lookup -> batchWait.record(dispatchedAt - lookup.enqueuedAt, TimeUnit.NANOSECONDS));
+
+        Map<PriceQuery, Price> prices;
+        try {
+            if (batch.lookups.size() == 1) {
+                PriceQuery query = batch.lookups.keySet().iterator().next();
+                prices = new LinkedHashMap<>();
+                delegate.findApplicablePriceAt(query.getDateTime(), query.getProductId(), query.getBrandId())
+                        .ifPresent(price -> prices.put(query, price));
+            } else {
+                prices = delegate.findApplicablePriceBatch(batch.lookups.keySet());
+            }
+        } catch (Throwable e) {
+            batch.lookups.values().forEach(lookup -> lookup.result.completeExceptionally(e));
+            return;
+        }
+        batch.lookups.forEach((query, lookup) -> lookup.result.complete(Optional.ofNullable(prices.get(query))));
+    }
+
+    private static class Batch {
+        private final Map<PriceQuery, Lookup> lookups = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        /**
+         * Identical lookups of a batch share its result.
+         */
+        private CompletableFuture<Optional<Price>> add(PriceQuery query) {
+            return lookups.computeIfAbsent(query, q -> new Lookup()).result;
+        }
+    }
+
+    private static class Lookup {
+        private final CompletableFuture<Optional<Price>> result = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+    }
+}
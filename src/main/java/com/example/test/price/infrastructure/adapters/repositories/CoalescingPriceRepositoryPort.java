@@ -0,0 +1,126 @@
+package com.example.test.price.infrastructure.adapters.repositories;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link PriceRepositoryPort} letting a single lookup per date time, product and brand into the underlying
+ * repository at once.
+ * <p>
+ * The first caller of a lookup runs it; identical callers arriving while it is in flight wait for its outcome
+ * instead of running their own, and all of them get the same result, or the same exception. A lookup leaves the
+ * in-flight table before its outcome is published, so a caller arriving afterwards runs a new one: nothing is
+ * served that was read before the caller asked for it, unlike a cache. Results are shared between the callers of a
+ * flight and must not be modified.
+ */
+public class CoalescingPriceRepositoryPort implements PriceRepositoryPort {
+
+    private final PriceRepositoryPort delegate;
+    private final Map<PriceQuery, CompletableFuture<Optional<Price>>> applicablePriceFlights = new ConcurrentHashMap<>();
+    private final Map<PriceQuery, CompletableFuture<Optional<ResolvedPrice>>> resolvedPriceFlights = new ConcurrentHashMap<>();
+    private final Map<PriceQuery, CompletableFuture<List<Price>>> applicablePricesFlights = new ConcurrentHashMap<>();
+    private final Counter applicablePriceCoalesced;
+    private final Counter resolvedPriceCoalesced;
+    private final Counter applicablePricesCoalesced;
+
+    public CoalescingPriceRepositoryPort(PriceRepositoryPort delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.applicablePriceCoalesced = coalescedCounter(meterRegistry, "applicable-price");
+        this.resolvedPriceCoalesced = coalescedCounter(meterRegistry, "resolved-price");
+        this.applicablePricesCoalesced = coalescedCounter(meterRegistry, "applicable-prices");
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String query) {
+        return Counter.builder("price.repository.coalesced")
+                .description("Lookups answered by an identical lookup already in flight")
+                .tag("query", query)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return coalesced(applicablePriceFlights, applicablePriceCoalesced, new PriceQuery(dateTime, productId, brandId),
+                () -> delegate.findApplicablePriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return coalesced(resolvedPriceFlights, resolvedPriceCoalesced, new PriceQuery(dateTime, productId, brandId),
+                () -> delegate.findResolvedPriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return coalesced(applicablePricesFlights, applicablePricesCoalesced, new PriceQuery(dateTime, productId, brandId),
+                () -> delegate.findApplicablePricesAt(dateTime, productId, brandId));
+    }
+
+    /**
+     * Not coalesced: series of date times rarely repeat as a whole.
+     */
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        return delegate.findApplicablePriceAtEach(productId, brandId, dateTimes);
+    }
+
+    /**
+     * Not coalesced: a single query already answers every brand.
+     */
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        return delegate.findApplicablePricePerBrand(dateTime, productId, brandIds);
+    }
+
+    /**
+     * Not coalesced: batches rarely repeat as a whole.
+     */
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        return delegate.findApplicablePriceBatch(queries);
+    }
+
+    /**
+     * Not coalesced: every caller consumes the snapshot as it streams.
+     */
+    @Override
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        delegate.forEachApplicablePriceAt(dateTime, consumer);
+    }
+
+    private static <T> T coalesced(Map<PriceQuery, CompletableFuture<T>> flights, Counter coalescedCalls,
+                                   PriceQuery query, Supplier<T> call) {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> inFlight = flights.putIfAbsent(query, flight);
+        if (inFlight != null) {
+            coalescedCalls.increment();
+            return PriceRepositoryFutures.await(inFlight);
+        }
+
+        T result;
+        try {
+            result = call.get();
+        } catch (Throwable e) {
+            flights.remove(query, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        flights.remove(query, flight);
+        flight.complete(result);
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.test.price.infrastructure.adapters.repositories;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link PriceRepositoryPort} letting at most a fixed number of callers into the underlying repository at once.
+ * <p>
+ * With virtual threads serving requests, thousands of callers may reach the JDBC driver and the connection pool
+ * together. Parts of that path still synchronize on monitors, which pins the carrier thread of a virtual thread
+ * while it blocks, on the JDKs before 24. The callers past the limit wait on a {@link Semaphore}, which unmounts
+ * virtual threads instead of pinning their carriers; the callers within it may still pin theirs, so the limit
+ * picked by {@link #virtualThreadLimit(int)} leaves a carrier free for the rest of the request handling.
+ */
+public class ConcurrencyLimitedPriceRepositoryPort implements PriceRepositoryPort {
+
+    private static final String CARRIER_PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+
+    private final PriceRepositoryPort delegate;
+    private final Semaphore permits;
+
+    /**
+     * @param connectionPoolSize the size of the connection pool of the repository
+     * @return the number of callers to let into the repository from virtual threads: at most one per connection and
+     * one less than the carrier threads, so callers pinning their carrier while blocked never pin every carrier
+     */
+    public static int virtualThreadLimit(int connectionPoolSize) {
+        return Math.max(1, Math.min(connectionPoolSize, carrierParallelism() - 1));
+    }
+
+    /**
+     * @return the number of carrier threads of the virtual thread scheduler, one per processor unless configured
+     */
+    static int carrierParallelism() {
+        String configured = System.getProperty(CARRIER_PARALLELISM_PROPERTY);
+        return configured == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(configured);
+    }
+
+    public ConcurrencyLimitedPriceRepositoryPort(PriceRepositoryPort delegate, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive, got " + maxConcurrency);
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return limited(() -> delegate.findApplicablePriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return limited(() -> delegate.findResolvedPriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return limited(() -> delegate.findApplicablePricesAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        return limited(() -> delegate.findApplicablePriceAtEach(productId, brandId, dateTimes));
+    }
+
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        return limited(() -> delegate.findApplicablePricePerBrand(dateTime, productId, brandIds));
+    }
+
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        return limited(() -> delegate.findApplicablePriceBatch(queries));
+    }
+
+    /**
+     * Not limited: every snapshot runs on the pool shared by all of them, bounded by {@code price.snapshot.parallelism}.
+     */
+    @Override
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        delegate.forEachApplicablePriceAt(dateTime, consumer);
+    }
+
+    private <T> T limited(Supplier<T> call) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the price repository", e);
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
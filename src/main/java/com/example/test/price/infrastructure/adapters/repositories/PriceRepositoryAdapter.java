@@ -1,38 +1,244 @@
 package com.example.test.price.infrastructure.adapters.repositories;
 
 import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.PriceKeyRange;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.PriceTimeline;
+import com.example.test.price.domain.models.ResolvedPrice;
 import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.jdbcrepository.JdbcPriceRepository;
 import com.example.test.price.infrastructure.adapters.repositories.jparepository.JpaPriceRepository;
 import com.example.test.price.infrastructure.adapters.repositories.jparepository.entities.JpaPriceEntity;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.PriceSnapshotScanner;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-@Component
+/**
+ * Storage adapter reading the prices from the price table.
+ * <p>
+ * The lookups read either managed JPA entities, mapped to the domain model afterwards, or, with
+ * {@code price.repository.read-path=jdbc}, plain result sets mapped straight into {@link Price}, each lookup
+ * being a single autocommit statement without any transaction or persistence context bookkeeping.
+ */
+@Component(PriceRepositoryConfiguration.STORAGE_ADAPTER)
+@ConditionalOnProperty(name = "price.repository.type", havingValue = "jpa", matchIfMissing = true)
 public class PriceRepositoryAdapter implements PriceRepositoryPort {
+    public static final String ENTITY_READ_PATH = "entity";
+    public static final String JDBC_READ_PATH = "jdbc";
+
     private final JpaPriceRepository jpaPriceRepository;
+    private final JdbcPriceRepository jdbcPriceRepository;
+    private final boolean jdbcReads;
+    private final PriceSnapshotScanner priceSnapshotScanner;
+    private final Timer applicablePriceQueryTimer;
+    private final Timer applicablePricesQueryTimer;
+    private final Timer resolvedPriceQueryTimer;
+    private final Timer batchQueryTimer;
+    private final Timer perBrandQueryTimer;
+    private final Timer atEachQueryTimer;
+    private final Timer mappingTimer;
+    private final DistributionSummary candidateRows;
 
     @Autowired
-    public PriceRepositoryAdapter(JpaPriceRepository jpaPriceRepository) {
+    public PriceRepositoryAdapter(JpaPriceRepository jpaPriceRepository, JdbcPriceRepository jdbcPriceRepository,
+                                  PriceSnapshotScanner priceSnapshotScanner, MeterRegistry meterRegistry,
+                                  @Value("${price.repository.read-path:" + ENTITY_READ_PATH + "}") String readPath) {
+        if (!ENTITY_READ_PATH.equals(readPath) && !JDBC_READ_PATH.equals(readPath)) {
+            throw new IllegalArgumentException("price.repository.read-path must be " + ENTITY_READ_PATH + " or "
+                    + JDBC_READ_PATH + ": " + readPath);
+        }
         this.jpaPriceRepository = jpaPriceRepository;
+        this.jdbcPriceRepository = jdbcPriceRepository;
+        this.jdbcReads = JDBC_READ_PATH.equals(readPath);
+        this.priceSnapshotScanner = priceSnapshotScanner;
+        this.applicablePriceQueryTimer = queryTimer(meterRegistry, "applicable-price");
+        this.applicablePricesQueryTimer = queryTimer(meterRegistry, "applicable-prices");
+        this.resolvedPriceQueryTimer = queryTimer(meterRegistry, "resolved-price");
+        this.batchQueryTimer = queryTimer(meterRegistry, "batch");
+        this.perBrandQueryTimer = queryTimer(meterRegistry, "per-brand");
+        this.atEachQueryTimer = queryTimer(meterRegistry, "at-each");
+        this.mappingTimer = Timer.builder("price.repository.mapping")
+                .description("Time to map price entities to the domain model")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.candidateRows = DistributionSummary.builder("price.repository.candidates")
+                .description("Candidate price rows returned by a single-key query")
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer queryTimer(MeterRegistry meterRegistry, String query) {
+        return Timer.builder("price.repository.query")
+                .description("Time spent in the price table query")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
     public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
-        Optional<JpaPriceEntity> priceEntity = jpaPriceRepository.findApplicablePriceAt(dateTime, productId, brandId);
-        return priceEntity.map(JpaPriceEntity::toDomainModel);
+        if (jdbcReads) {
+            return applicablePriceQueryTimer.record(
+                    () -> jdbcPriceRepository.findApplicablePriceAt(dateTime, productId, brandId));
+        }
+        Optional<JpaPriceEntity> priceEntity = applicablePriceQueryTimer.record(
+                () -> jpaPriceRepository.findApplicablePriceAt(dateTime, productId, brandId));
+        return mappingTimer.record(() -> priceEntity.map(JpaPriceEntity::toDomainModel));
+    }
+
+    /**
+     * Reads the prices of the product and brand within the range of the ones applicable at the date time, and
+     * resolves the date time against their timeline: outside that range the winner does not apply, so the rows past
+     * it cannot change its window.
+     */
+    @Override
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        List<Price> prices = queryPrices(resolvedPriceQueryTimer,
+                () -> jdbcPriceRepository.findPricesAroundAt(dateTime, productId, brandId),
+                () -> jpaPriceRepository.findPricesAroundAt(dateTime, productId, brandId));
+        candidateRows.record(prices.size());
+        return PriceTimeline.of(prices).resolveAt(dateTime);
     }
 
     @Override
     public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
-        List<JpaPriceEntity> entities = jpaPriceRepository.findApplicablePricesAt(dateTime, productId, brandId);
+        List<Price> prices = queryPrices(applicablePricesQueryTimer,
+                () -> jdbcPriceRepository.findApplicablePricesAt(dateTime, productId, brandId),
+                () -> jpaPriceRepository.findApplicablePricesAt(dateTime, productId, brandId));
+        candidateRows.record(prices.size());
+
+        return prices;
+    }
+
+    /**
+     * Runs a query on the configured read path; the JDBC one maps its rows while reading them, so its mapping is
+     * part of the query time.
+     */
+    private List<Price> queryPrices(Timer queryTimer, Supplier<List<Price>> jdbcQuery,
+                                    Supplier<List<JpaPriceEntity>> entityQuery) {
+        if (jdbcReads) {
+            return queryTimer.record(jdbcQuery);
+        }
+        return mapAll(queryTimer.record(entityQuery));
+    }
 
-        return entities.stream()
+    private List<Price> mapAll(List<JpaPriceEntity> entities) {
+        return mappingTimer.record(() -> entities.stream()
                 .map(JpaPriceEntity::toDomainModel)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads the applicable prices of the product grouped by brand and in descending priority, and keeps the first
+     * one of each brand; with the entity read path only those are mapped.
+     */
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        if (jdbcReads) {
+            List<Price> prices = perBrandQueryTimer.record(
+                    () -> jdbcPriceRepository.findApplicablePricesOfBrandsAt(dateTime, productId, brandIds));
+            candidateRows.record(prices.size());
+            return firstOfEachBrand(prices, Price::getBrandId);
+        }
+        List<JpaPriceEntity> entities = perBrandQueryTimer.record(() -> brandIds.isEmpty()
+                ? jpaPriceRepository.findApplicablePricesOfEveryBrandAt(dateTime, productId)
+                : jpaPriceRepository.findApplicablePricesOfBrandsAt(dateTime, productId, brandIds));
+        candidateRows.record(entities.size());
+        return mapAll(firstOfEachBrand(entities, JpaPriceEntity::getBrandId));
+    }
+
+    private static <T> List<T> firstOfEachBrand(List<T> rowsByBrand, Function<T, Long> brandOf) {
+        List<T> winners = new ArrayList<>();
+        Long previousBrand = null;
+        for (T row : rowsByBrand) {
+            Long brand = brandOf.apply(row);
+            if (!brand.equals(previousBrand)) {
+                winners.add(row);
+                previousBrand = brand;
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * Reads the prices of the product and brand overlapping the looked up date times once, and resolves every date
+     * time against their timeline in a single sweep.
+     */
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        if (dateTimes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LocalDateTime from = Collections.min(dateTimes);
+        LocalDateTime to = Collections.max(dateTimes);
+        List<Price> prices = queryPrices(atEachQueryTimer,
+                () -> jdbcPriceRepository.findPricesOverlapping(productId, brandId, from, to),
+                () -> jpaPriceRepository.findPricesOverlapping(productId, brandId, from, to));
+        candidateRows.record(prices.size());
+        return PriceLookupResult.ofEach(productId, brandId, dateTimes, PriceTimeline.of(prices).pricesAt(dateTimes));
+    }
+
+    /**
+     * Reads, in a single query, the prices of each looked up product and brand overlapping the date times looked up
+     * for that key only, and resolves every lookup against the timeline of its key.
+     */
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        Map<PriceQuery, Price> result = new HashMap<>();
+        if (queries.isEmpty()) {
+            return result;
+        }
+
+        Map<PriceKey, PriceKeyRange> rangesByKey = new HashMap<>();
+        for (PriceQuery query : queries) {
+            PriceKey key = new PriceKey(query.getBrandId(), query.getProductId());
+            LocalDateTime dateTime = query.getDateTime();
+            rangesByKey.merge(key, new PriceKeyRange(key, dateTime, dateTime), (range, ignored) -> range.extendTo(dateTime));
+        }
+
+        Collection<PriceKeyRange> ranges = rangesByKey.values();
+        List<Price> prices = queryPrices(batchQueryTimer,
+                () -> jdbcPriceRepository.findPricesOverlapping(ranges),
+                () -> jpaPriceRepository.findPricesOverlapping(ranges));
+        Map<PriceKey, List<Price>> pricesByKey = prices.stream()
+                .collect(Collectors.groupingBy(price -> new PriceKey(price.getBrandId(), price.getProductId())));
+
+        Map<PriceKey, PriceTimeline> timelinesByKey = new HashMap<>();
+        for (PriceQuery query : queries) {
+            PriceKey key = new PriceKey(query.getBrandId(), query.getProductId());
+            List<Price> keyPrices = pricesByKey.get(key);
+            if (keyPrices != null) {
+                timelinesByKey.computeIfAbsent(key, k -> PriceTimeline.of(keyPrices))
+                        .priceAt(query.getDateTime())
+                        .ifPresent(price -> result.put(query, price));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        priceSnapshotScanner.forEachApplicablePriceAt(dateTime, consumer);
     }
 }
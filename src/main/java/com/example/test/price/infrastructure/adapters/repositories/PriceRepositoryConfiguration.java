@@ -0,0 +1,86 @@
+package com.example.test.price.infrastructure.adapters.repositories;
+
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.replica.ReplicaPriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.replica.ReplicaRoutingDataSource;
+import com.example.test.price.infrastructure.adapters.repositories.shard.PriceShards;
+import com.example.test.price.infrastructure.adapters.repositories.shard.ShardedPriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.ParallelPriceScan;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Assembles the {@link PriceRepositoryPort} used by the application: the storage adapter selected by
+ * {@code price.repository.type}, registered under {@value #STORAGE_ADAPTER}, wrapped by whichever decorators
+ * the configuration enables.
+ */
+@Configuration
+public class PriceRepositoryConfiguration {
+
+    public static final String STORAGE_ADAPTER = "priceStorageAdapter";
+
+    @Bean
+    @Primary
+    public PriceRepositoryPort priceRepositoryPort(
+            @Qualifier(STORAGE_ADAPTER) PriceRepositoryPort storageAdapter,
+            @Value("${price.repository.type:jpa}") String repositoryType,
+            @Value("${price.repository.max-concurrency:0}") int maxConcurrency,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+            ObjectProvider<PriceShards> priceShards,
+            ParallelPriceScan parallelScan,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+            @Value("${price.replicas.hedge.enabled:false}") boolean hedging,
+            @Value("${price.replicas.hedge.percentile:0.95}") double hedgePercentile,
+            @Value("${price.replicas.hedge.min-delay:2ms}") Duration minHedgeDelay,
+            @Value("${price.replicas.hedge.budget:0.1}") double hedgeBudget,
+            @Value("${price.replicas.hedge.max-threads:4}") int hedgeThreads,
+            @Value("${price.repository.batching.enabled:false}") boolean batching,
+            @Value("${price.repository.batching.window:300us}") Duration batchWindow,
+            @Value("${price.repository.batching.max-size:100}") int batchMaxSize,
+            @Value("${price.repository.coalescing.enabled:false}") boolean coalescing,
+            MeterRegistry meterRegistry) {
+
+        PriceRepositoryPort port = storageAdapter;
+
+        // Innermost, so every lookup reaching the database opens its connections on the shard or the replica it
+        // was sent to
+        PriceShards shards = priceShards.getIfAvailable();
+        if (shards != null && "jpa".equals(repositoryType)) {
+            port = new ShardedPriceRepositoryPort(port, shards, parallelScan);
+        }
+        ReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        if (routing != null && "jpa".equals(repositoryType)) {
+            port = new ReplicaPriceRepositoryPort(port, routing, hedging, hedgePercentile, minHedgeDelay, hedgeBudget,
+                    hedgeThreads, meterRegistry);
+        }
+
+        // Virtual threads have no pool to cap them, so bound the callers reaching the database to its connections,
+        // and to fewer than the carrier threads their blocking calls may pin
+        int concurrency = maxConcurrency > 0 ? maxConcurrency
+                : virtualThreads && "jpa".equals(repositoryType)
+                ? ConcurrencyLimitedPriceRepositoryPort.virtualThreadLimit(connectionPoolSize) : 0;
+        if (concurrency > 0) {
+            port = new ConcurrencyLimitedPriceRepositoryPort(port, concurrency);
+        }
+
+        // Above the limit, so a whole batch takes a single permit
+        if (batching) {
+            port = new BatchingPriceRepositoryPort(port, batchWindow, batchMaxSize, meterRegistry);
+        }
+
+        // Outermost, so callers waiting on a lookup in flight hold no concurrency permit
+        if (coalescing) {
+            port = new CoalescingPriceRepositoryPort(port, meterRegistry);
+        }
+
+        return port;
+    }
+}
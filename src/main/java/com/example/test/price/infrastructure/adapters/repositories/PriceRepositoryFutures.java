@@ -0,0 +1,41 @@
+package com.example.test.price.infrastructure.adapters.repositories;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Waiting on the lookups the repository decorators hand to other threads. Public for the decorators of the
+ * subpackages only.
+ */
+public final class PriceRepositoryFutures {
+
+    private PriceRepositoryFutures() {
+    }
+
+    /**
+     * Waits for a lookup and rethrows its failure as is when unchecked, so the caller sees the error of the
+     * repository rather than a wrapper.
+     *
+     * @param future the lookup
+     * @return its result
+     * @throws IllegalStateException if the waiting thread is interrupted, its interrupt flag being restored, or the
+     *                               lookup failed with a checked exception
+     */
+    public static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the price repository", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Price repository lookup failed", cause);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.test.price.infrastructure.adapters.repositories.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fills the price table with a synthetic catalog described by a {@link PriceDatasetSpec}.
+ * <p>
+ * Rows are written through plain JDBC batches on a single connection, committing every {@value #BATCH_SIZE} rows,
+ * so the generator keeps a constant memory footprint whatever the size of the catalog. The same spec always
+ * produces the same rows.
+ */
+@Component
+public class PriceDataGenerator {
+    private static final Logger log = LoggerFactory.getLogger(PriceDataGenerator.class);
+
+    static final int BATCH_SIZE = 5_000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String[] CURRENCIES = {"EUR", "EUR", "EUR", "USD", "GBP"};
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public PriceDataGenerator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @param spec the shape of the catalog
+     * @return the number of rows written
+     */
+    public long generate(PriceDatasetSpec spec) {
+        long start = System.nanoTime();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            long rows;
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                rows = write(spec, statement, connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("Generated {} prices for {} keys in {} ms ({} rows/s)",
+                    rows, spec.getKeyCount(), elapsedMillis, rows * 1000 / elapsedMillis);
+            return rows;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not generate the price dataset", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private long write(PriceDatasetSpec spec, PreparedStatement statement, Connection connection) throws SQLException {
+        Random random = new Random(spec.getSeed());
+        long spreadSeconds = spec.getSpreadDays() * 86_400L;
+        int rangesPerLayer = spec.getRowsPerKey() / spec.getOverlapDepth();
+        int extraRows = spec.getRowsPerKey() % spec.getOverlapDepth();
+        long[] boundaries = new long[spec.getRowsPerKey() + 1];
+        long rows = 0;
+
+        for (long key = 0; key < spec.getKeyCount(); key++) {
+            long brandId = spec.brandId(key);
+            long productId = spec.productId(key);
+            long priceList = 1;
+            for (int layer = 0; layer < spec.getOverlapDepth(); layer++) {
+                int ranges = rangesPerLayer + (layer < extraRows ? 1 : 0);
+                cutPoints(random, spreadSeconds, ranges, boundaries);
+                int priority = spec.getPriorityDistribution().next(random, layer, spec.getMaxPriority());
+                for (int range = 0; range < ranges; range++) {
+                    LocalDateTime startDate = spec.getStartDate().plusSeconds(boundaries[range]);
+                    LocalDateTime endDate = spec.getStartDate().plusSeconds(boundaries[range + 1] - 1);
+                    statement.setLong(1, brandId);
+                    statement.setTimestamp(2, Timestamp.valueOf(startDate));
+                    statement.setTimestamp(3, Timestamp.valueOf(endDate));
+                    statement.setLong(4, priceList++);
+                    statement.setLong(5, productId);
+                    statement.setInt(6, priority);
+                    statement.setBigDecimal(7, BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+                    statement.setString(8, CURRENCIES[(int) (brandId % CURRENCIES.length)]);
+                    statement.addBatch();
+
+                    if (++rows % BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+        }
+        statement.executeBatch();
+        return rows;
+    }
+
+    /**
+     * Splits {@code [0, spreadSeconds)} into {@code ranges} consecutive, non-empty ranges at random points.
+     */
+    private static void cutPoints(Random random, long spreadSeconds, int ranges, long[] boundaries) {
+        boundaries[0] = 0;
+        for (int i = 1; i < ranges; i++) {
+            boundaries[i] = 1 + (long) (random.nextDouble() * (spreadSeconds - 1));
+        }
+        boundaries[ranges] = spreadSeconds;
+        Arrays.sort(boundaries, 1, ranges);
+        for (int i = 1; i <= ranges; i++) {
+            if (boundaries[i] <= boundaries[i - 1]) {
+                boundaries[i] = boundaries[i - 1] + 1;
+            }
+        }
+    }
+}
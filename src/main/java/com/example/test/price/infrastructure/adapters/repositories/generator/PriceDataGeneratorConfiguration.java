@@ -0,0 +1,28 @@
+package com.example.test.price.infrastructure.adapters.repositories.generator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+/**
+ * Seeds the database with a named synthetic catalog right after the Flyway migrations, before any repository
+ * reads it. Enabled with {@code price.generator.profile=small|medium|huge}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "price.generator.profile")
+public class PriceDataGeneratorConfiguration {
+
+    @Bean
+    public FlywayMigrationStrategy priceDatasetMigrationStrategy(PriceDataGenerator priceDataGenerator,
+                                                                 @Value("${price.generator.profile}") String profile) {
+        PriceDatasetProfile datasetProfile = PriceDatasetProfile.valueOf(profile.trim().toUpperCase(Locale.ROOT));
+        return flyway -> {
+            flyway.migrate();
+            priceDataGenerator.generate(datasetProfile.spec());
+        };
+    }
+}
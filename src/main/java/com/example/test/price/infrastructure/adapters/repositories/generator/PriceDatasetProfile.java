@@ -0,0 +1,43 @@
+package com.example.test.price.infrastructure.adapters.repositories.generator;
+
+import java.time.LocalDateTime;
+
+/**
+ * Named synthetic catalogs, from a quick local dataset up to a production sized one.
+ */
+public enum PriceDatasetProfile {
+    /**
+     * 10 brands x 1,000 products x 8 rows: 80 thousand rows.
+     */
+    SMALL(10, 1_000, 8, 2),
+    /**
+     * 20 brands x 25,000 products x 8 rows: 4 million rows.
+     */
+    MEDIUM(20, 25_000, 8, 4),
+    /**
+     * 50 brands x 100,000 products x 8 rows: 40 million rows.
+     */
+    HUGE(50, 100_000, 8, 4);
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 1, 1, 0, 0, 0);
+    private static final int SPREAD_DAYS = 365;
+    private static final int MAX_PRIORITY = 3;
+    private static final long SEED = 42L;
+
+    private final int brandCount;
+    private final int productsPerBrand;
+    private final int rowsPerKey;
+    private final int overlapDepth;
+
+    PriceDatasetProfile(int brandCount, int productsPerBrand, int rowsPerKey, int overlapDepth) {
+        this.brandCount = brandCount;
+        this.productsPerBrand = productsPerBrand;
+        this.rowsPerKey = rowsPerKey;
+        this.overlapDepth = overlapDepth;
+    }
+
+    public PriceDatasetSpec spec() {
+        return new PriceDatasetSpec(brandCount, productsPerBrand, rowsPerKey, overlapDepth, MAX_PRIORITY,
+                PriorityDistribution.SKEWED, START_DATE, SPREAD_DAYS, SEED);
+    }
+}
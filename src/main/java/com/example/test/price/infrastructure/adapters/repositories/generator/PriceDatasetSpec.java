@@ -0,0 +1,122 @@
+package com.example.test.price.infrastructure.adapters.repositories.generator;
+
+import com.example.test.price.domain.models.PriceQuery;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Shape of a synthetic price catalog.
+ * <p>
+ * The catalog holds {@code brandCount * productsPerBrand} product and brand keys, each with {@code rowsPerKey}
+ * prices spread over {@code overlapDepth} layers. Every layer splits the {@code spreadDays} days following
+ * {@code startDate} into consecutive ranges with randomly placed boundaries, so any covered instant falls within
+ * exactly {@code overlapDepth} prices. Product IDs start at {@value #FIRST_PRODUCT_ID} to stay clear of the
+ * initial data; brand IDs start at 1.
+ */
+public class PriceDatasetSpec {
+    public static final long FIRST_PRODUCT_ID = 1_000_000L;
+
+    private final int brandCount;
+    private final int productsPerBrand;
+    private final int rowsPerKey;
+    private final int overlapDepth;
+    private final int maxPriority;
+    private final PriorityDistribution priorityDistribution;
+    private final LocalDateTime startDate;
+    private final int spreadDays;
+    private final long seed;
+
+    public PriceDatasetSpec(int brandCount, int productsPerBrand, int rowsPerKey, int overlapDepth, int maxPriority,
+                            PriorityDistribution priorityDistribution, LocalDateTime startDate, int spreadDays,
+                            long seed) {
+        if (brandCount <= 0 || productsPerBrand <= 0 || overlapDepth <= 0 || spreadDays <= 0 || maxPriority < 0) {
+            throw new IllegalArgumentException("Dataset dimensions must be positive");
+        }
+        if (rowsPerKey < overlapDepth) {
+            throw new IllegalArgumentException("rowsPerKey must be at least overlapDepth");
+        }
+        this.brandCount = brandCount;
+        this.productsPerBrand = productsPerBrand;
+        this.rowsPerKey = rowsPerKey;
+        this.overlapDepth = overlapDepth;
+        this.maxPriority = maxPriority;
+        this.priorityDistribution = priorityDistribution;
+        this.startDate = startDate;
+        this.spreadDays = spreadDays;
+        this.seed = seed;
+    }
+
+    public int getBrandCount() {
+        return brandCount;
+    }
+
+    public int getProductsPerBrand() {
+        return productsPerBrand;
+    }
+
+    public int getRowsPerKey() {
+        return rowsPerKey;
+    }
+
+    public int getOverlapDepth() {
+        return overlapDepth;
+    }
+
+    public int getMaxPriority() {
+        return maxPriority;
+    }
+
+    public PriorityDistribution getPriorityDistribution() {
+        return priorityDistribution;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public int getSpreadDays() {
+        return spreadDays;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getKeyCount() {
+        return (long) brandCount * productsPerBrand;
+    }
+
+    public long getRowCount() {
+        return getKeyCount() * rowsPerKey;
+    }
+
+    public LocalDateTime getEndDate() {
+        return startDate.plusDays(spreadDays).minusSeconds(1);
+    }
+
+    long brandId(long key) {
+        return 1 + key % brandCount;
+    }
+
+    long productId(long key) {
+        return FIRST_PRODUCT_ID + key / brandCount;
+    }
+
+    /**
+     * @param count the number of lookups
+     * @return a seeded sequence of lookups spread uniformly over every key and the covered dates,
+     * each of them resolving to a price
+     */
+    public PriceQuery[] sampleQueries(int count) {
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+        long spreadSeconds = spreadDays * 86_400L;
+        PriceQuery[] queries = new PriceQuery[count];
+        for (int i = 0; i < count; i++) {
+            long key = (long) (random.nextDouble() * getKeyCount());
+            queries[i] = new PriceQuery(startDate.plusSeconds((long) (random.nextDouble() * spreadSeconds)),
+                    productId(key), brandId(key));
+        }
+        return queries;
+    }
+}
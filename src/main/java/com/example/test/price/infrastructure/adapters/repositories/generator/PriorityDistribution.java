@@ -0,0 +1,42 @@
+package com.example.test.price.infrastructure.adapters.repositories.generator;
+
+import java.util.Random;
+
+/**
+ * How generated prices are assigned their priority.
+ */
+public enum PriorityDistribution {
+    /**
+     * The priority is the overlap layer of the price, so higher layers always win.
+     */
+    LAYERED {
+        @Override
+        int next(Random random, int layer, int maxPriority) {
+            return Math.min(layer, maxPriority);
+        }
+    },
+    /**
+     * Any priority between 0 and the maximum, with the same probability.
+     */
+    UNIFORM {
+        @Override
+        int next(Random random, int layer, int maxPriority) {
+            return random.nextInt(maxPriority + 1);
+        }
+    },
+    /**
+     * Mostly low priorities, each level being half as likely as the previous one.
+     */
+    SKEWED {
+        @Override
+        int next(Random random, int layer, int maxPriority) {
+            int priority = 0;
+            while (priority < maxPriority && random.nextBoolean()) {
+                priority++;
+            }
+            return priority;
+        }
+    };
+
+    abstract int next(Random random, int layer, int maxPriority);
+}
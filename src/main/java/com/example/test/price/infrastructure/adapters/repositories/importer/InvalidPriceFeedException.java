@@ -0,0 +1,12 @@
+package com.example.test.price.infrastructure.adapters.repositories.importer;
+
+/**
+ * Thrown when a price feed cannot be imported at all, e.g. its CSV header is missing a column.
+ * Rows failing validation do not abort the import; they are counted as rejected instead.
+ */
+public class InvalidPriceFeedException extends RuntimeException {
+
+    public InvalidPriceFeedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.test.price.infrastructure.adapters.repositories.importer;
+
+import java.util.Locale;
+
+/**
+ * Line-oriented formats of a price feed.
+ * <p>
+ * Both formats carry the columns of the price table, named as in the table:
+ * {@code brand_id, start_date, end_date, price_list, product_id, priority, price, currency}.
+ */
+public enum PriceFeedFormat {
+    /**
+     * Comma-separated values, the first line being a header naming the columns in any order.
+     */
+    CSV("text/csv", ".csv"),
+    /**
+     * Newline-delimited JSON, one object per line.
+     */
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    PriceFeedFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param fileName the name of a feed file
+     * @return the format matching the file extension
+     * @throws InvalidPriceFeedException if the extension is neither {@code .csv} nor {@code .ndjson}
+     */
+    public static PriceFeedFormat fromFileName(String fileName) {
+        String lowerCase = fileName.toLowerCase(Locale.ROOT);
+        for (PriceFeedFormat format : values()) {
+            if (lowerCase.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new InvalidPriceFeedException("Unsupported price feed file: " + fileName);
+    }
+
+    /**
+     * @param mediaType the content type of a feed, parameters ignored
+     * @return the format matching the media type
+     * @throws InvalidPriceFeedException if the media type is not one of the feed formats
+     */
+    public static PriceFeedFormat fromMediaType(String mediaType) {
+        String type = mediaType == null ? "" : mediaType.split(";", 2)[0].trim();
+        for (PriceFeedFormat format : values()) {
+            if (format.mediaType.equalsIgnoreCase(type)) {
+                return format;
+            }
+        }
+        throw new InvalidPriceFeedException("Unsupported price feed media type: " + mediaType);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.test.price.infrastructure.adapters.repositories.importer;
+
+import com.example.test.price.domain.models.Price;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses and validates a single line of a price feed into a {@link Price}.
+ * <p>
+ * Dates are ISO-8601 local date-times, with either a {@code T} or a space between date and time, like the
+ * {@code '2020-06-14 00:00:00'} literals of the initial data script.
+ * <p>
+ * CSV fields are plain comma-separated values: none of the columns needs a comma, so quoted fields are rejected
+ * rather than split in the wrong place.
+ */
+abstract class PriceFeedParser {
+    static final String[] COLUMNS =
+            {"brand_id", "start_date", "end_date", "price_list", "product_id", "priority", "price", "currency"};
+
+    private static final DateTimeFormatter DATE_TIME = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter(Locale.ROOT);
+
+    /**
+     * @param line a data line of the feed
+     * @return the valid price described by the line
+     * @throws IllegalArgumentException if the line is malformed or describes an invalid price
+     */
+    abstract Price parse(String line);
+
+    /**
+     * @param format     the feed format
+     * @param headerLine the first line of the feed, only read for CSV
+     * @param mapper     the mapper reading NDJSON lines
+     * @return the parser of the remaining lines
+     */
+    static PriceFeedParser of(PriceFeedFormat format, String headerLine, ObjectMapper mapper) {
+        return format == PriceFeedFormat.CSV ? new Csv(headerLine) : new Ndjson(mapper);
+    }
+
+    static Price validated(Long brandId, LocalDateTime startDate, LocalDateTime endDate, Long priceList,
+                           Long productId, Integer priority, BigDecimal price, String currency) {
+        if (brandId <= 0 || productId <= 0 || priceList <= 0) {
+            throw new IllegalArgumentException("brand_id, product_id and price_list must be positive");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("end_date " + endDate + " is before start_date " + startDate);
+        }
+        if (priority < 0) {
+            throw new IllegalArgumentException("priority must not be negative");
+        }
+        if (price.signum() < 0 || price.scale() > 2 || price.precision() - price.scale() > 17) {
+            throw new IllegalArgumentException("price " + price + " does not fit DECIMAL(19, 2) or is negative");
+        }
+        if (currency.length() != 3 || !currency.chars().allMatch(c -> c >= 'A' && c <= 'Z')) {
+            throw new IllegalArgumentException("currency " + currency + " is not an ISO 4217 code");
+        }
+        return new Price(brandId, startDate, endDate, priceList, productId, priority, price, currency);
+    }
+
+    static LocalDateTime dateTime(String column, String value) {
+        try {
+            return LocalDateTime.parse(value.trim(), DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " " + value + " is not a date-time");
+        }
+    }
+
+    private static final class Csv extends PriceFeedParser {
+        private final int[] positions = new int[COLUMNS.length];
+        private final int width;
+
+        Csv(String headerLine) {
+            if (headerLine == null) {
+                throw new InvalidPriceFeedException("CSV price feed is empty");
+            }
+            if (headerLine.indexOf('"') >= 0) {
+                throw new InvalidPriceFeedException("CSV price feed header has quoted fields, which are not supported");
+            }
+            String[] header = headerLine.split(",", -1);
+            Map<String, Integer> byName = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                byName.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Integer position = byName.get(COLUMNS[i]);
+                if (position == null) {
+                    throw new InvalidPriceFeedException("CSV price feed header is missing column " + COLUMNS[i]);
+                }
+                positions[i] = position;
+            }
+            this.width = header.length;
+        }
+
+        @Override
+        Price parse(String line) {
+            if (line.indexOf('"') >= 0) {
+                throw new IllegalArgumentException("quoted fields are not supported");
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != width) {
+                throw new IllegalArgumentException("expected " + width + " fields but found " + fields.length);
+            }
+            try {
+                return validated(
+                        Long.valueOf(fields[positions[0]].trim()),
+                        dateTime(COLUMNS[1], fields[positions[1]]),
+                        dateTime(COLUMNS[2], fields[positions[2]]),
+                        Long.valueOf(fields[positions[3]].trim()),
+                        Long.valueOf(fields[positions[4]].trim()),
+                        Integer.valueOf(fields[positions[5]].trim()),
+                        new BigDecimal(fields[positions[6]].trim()),
+                        fields[positions[7]].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("malformed number: " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class Ndjson extends PriceFeedParser {
+        private final ObjectMapper mapper;
+
+        Ndjson(ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        Price parse(String line) {
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("malformed JSON");
+            }
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            return validated(
+                    integral(node, COLUMNS[0]).longValue(),
+                    dateTime(COLUMNS[1], text(node, COLUMNS[1])),
+                    dateTime(COLUMNS[2], text(node, COLUMNS[2])),
+                    integral(node, COLUMNS[3]).longValue(),
+                    integral(node, COLUMNS[4]).longValue(),
+                    integer(node, COLUMNS[5]),
+                    number(node, COLUMNS[6]).decimalValue(),
+                    text(node, COLUMNS[7]));
+        }
+
+        private static JsonNode field(JsonNode node, String column) {
+            JsonNode value = node.get(column);
+            if (value == null || value.isNull()) {
+                throw new IllegalArgumentException(column + " is missing");
+            }
+            return value;
+        }
+
+        private static JsonNode integral(JsonNode node, String column) {
+            JsonNode value = field(node, column);
+            if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+                throw new IllegalArgumentException(column + " is not an integer");
+            }
+            return value;
+        }
+
+        private static int integer(JsonNode node, String column) {
+            JsonNode value = integral(node, column);
+            if (!value.canConvertToInt()) {
+                throw new IllegalArgumentException(column + " is out of range");
+            }
+            return value.intValue();
+        }
+
+        private static JsonNode number(JsonNode node, String column) {
+            JsonNode value = field(node, column);
+            if (!value.isNumber()) {
+                throw new IllegalArgumentException(column + " is not a number");
+            }
+            return value;
+        }
+
+        private static String text(JsonNode node, String column) {
+            JsonNode value = field(node, column);
+            if (!value.isTextual()) {
+                throw new IllegalArgumentException(column + " is not a string");
+            }
+            return value.textValue();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.test.price.infrastructure.adapters.repositories.importer;
+
+import java.util.List;
+
+/**
+ * Outcome of a price feed import.
+ */
+public class PriceImportReport {
+    private final long rowsRead;
+    private final long rowsImported;
+    private final List<Long> rowsImportedPerShard;
+    private final long rowsRejected;
+    private final long elapsedMillis;
+    private final List<String> rejections;
+
+    public PriceImportReport(long rowsRead, long rowsImported, List<Long> rowsImportedPerShard, long rowsRejected,
+                             long elapsedMillis, List<String> rejections) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsImportedPerShard = List.copyOf(rowsImportedPerShard);
+        this.rowsRejected = rowsRejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rejections = List.copyOf(rejections);
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * @return the rows committed on each shard, in shard order, a single count when the table is not sharded
+     */
+    public List<Long> getRowsImportedPerShard() {
+        return rowsImportedPerShard;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsImported * 1000 / Math.max(1, elapsedMillis);
+    }
+
+    /**
+     * @return the reason of the first rejected rows, prefixed with their line number
+     */
+    public List<String> getRejections() {
+        return rejections;
+    }
+}
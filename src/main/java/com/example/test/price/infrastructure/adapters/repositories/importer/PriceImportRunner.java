@@ -0,0 +1,33 @@
+package com.example.test.price.infrastructure.adapters.repositories.importer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Imports the price feed file named by {@code price.import.file} once the application has started, e.g.
+ * {@code java -jar test.jar --price.import.file=/feeds/prices.csv}.
+ */
+@Component
+@ConditionalOnProperty(name = "price.import.file")
+public class PriceImportRunner implements ApplicationRunner {
+
+    private final PriceImporter priceImporter;
+    private final Path file;
+
+    @Autowired
+    public PriceImportRunner(PriceImporter priceImporter, @Value("${price.import.file}") Path file) {
+        this.priceImporter = priceImporter;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        priceImporter.importFile(file);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.test.price.infrastructure.adapters.repositories.importer;
+
+import com.example.test.price.domain.events.PricesChangedEvent;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.infrastructure.adapters.repositories.shard.PriceShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a price feed into the price table.
+ * <p>
+ * The feed is read one line at a time and written through plain JDBC batches on a single connection, committing
+ * every {@code price.import.chunk-size} rows, so the import keeps a constant memory footprint whatever the size
+ * of the feed. Invalid rows are skipped and reported; a failure of the database or of the feed itself aborts
+ * the import, keeping the chunks committed so far.
+ * <p>
+ * When the price table is sharded, every row goes to the shard holding its brand, through one connection per shard,
+ * and a chunk is committed on every shard before the next one is read. The shards are committed one after the other,
+ * without a distributed transaction, so a chunk is not atomic across shards: if the commit of a shard fails, the
+ * shards committed before it keep their part of the chunk. The rows committed on each shard are reported, in the
+ * report of a completed import and in the exception aborting one, and are counted as imported.
+ * <p>
+ * Once an import has committed any row, completed or not, a {@link PricesChangedEvent} covering every key is
+ * published, the imported keys not being tracked.
+ */
+@Component
+public class PriceImporter {
+    private static final Logger log = LoggerFactory.getLogger(PriceImporter.class);
+
+    static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final long PROGRESS_INTERVAL_ROWS = 1_000_000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final PriceShards shards;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @Autowired
+    public PriceImporter(DataSource dataSource, ObjectProvider<PriceShards> priceShards, ObjectMapper objectMapper,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${price.import.chunk-size:5000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("price.import.chunk-size must be positive: " + chunkSize);
+        }
+        this.dataSource = dataSource;
+        this.shards = priceShards.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param file a feed file, its format given by its extension
+     * @return the import report
+     * @throws IOException if the file cannot be read
+     */
+    public PriceImportReport importFile(Path file) throws IOException {
+        PriceFeedFormat format = PriceFeedFormat.fromFileName(file.getFileName().toString());
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFeed(reader, format);
+        }
+    }
+
+    // Spreadsheet exports start UTF-8 files with a byte order mark, read as a first character of the header
+    private static void skipByteOrderMark(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    /**
+     * @param feed   the feed, left open
+     * @param format the feed format
+     * @return the import report
+     * @throws IOException if the feed cannot be read
+     */
+    public PriceImportReport importFeed(Reader feed, PriceFeedFormat format) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = feed instanceof BufferedReader ? (BufferedReader) feed : new BufferedReader(feed);
+        skipByteOrderMark(reader);
+        PriceFeedParser parser = PriceFeedParser.of(format, format == PriceFeedFormat.CSV ? reader.readLine() : null,
+                objectMapper);
+        long lineNumber = format == PriceFeedFormat.CSV ? 1 : 0;
+
+        long read = 0;
+        long imported = 0;
+        long rejected = 0;
+        List<String> rejections = new ArrayList<>();
+
+        List<ShardWriter> writers = new ArrayList<>();
+        try {
+            int shardCount = shards == null ? 1 : shards.getShardCount();
+            for (int shard = 0; shard < shardCount; shard++) {
+                ShardWriter writer = new ShardWriter(shards == null ? dataSource : shards.getDataSource(shard));
+                writers.add(writer);
+                writer.begin();
+            }
+            try {
+                int pending = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    read++;
+                    Price price;
+                    try {
+                        price = parser.parse(line);
+                    } catch (IllegalArgumentException e) {
+                        if (rejected++ < MAX_REPORTED_REJECTIONS) {
+                            rejections.add("line " + lineNumber + ": " + e.getMessage());
+                        }
+                        continue;
+                    }
+
+                    writers.get(shards == null ? 0 : shards.shardOf(price.getBrandId())).add(price);
+                    if (++pending == chunkSize) {
+                        commit(writers);
+                        pending = 0;
+                        imported = committed(writers);
+                        if (imported % PROGRESS_INTERVAL_ROWS < chunkSize) {
+                            log.info("Imported {} prices ({} rows/s)", imported, rowsPerSecond(imported, start));
+                        }
+                    }
+                }
+                commit(writers);
+                imported = committed(writers);
+            } catch (SQLException | IOException | RuntimeException e) {
+                for (ShardWriter writer : writers) {
+                    writer.rollback(e);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not import the price feed after " + committed(writers)
+                    + " rows, committed per shard: " + committedPerShard(writers), e);
+        } finally {
+            for (ShardWriter writer : writers) {
+                writer.close();
+            }
+            if (committed(writers) > 0) {
+                eventPublisher.publishEvent(PricesChangedEvent.allKeys());
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        PriceImportReport report = new PriceImportReport(read, imported, committedPerShard(writers), rejected,
+                elapsedMillis, rejections);
+        log.info("Imported {} of {} prices in {} ms ({} rows/s), {} rejected",
+                imported, read, elapsedMillis, report.getRowsPerSecond(), rejected);
+        return report;
+    }
+
+    /**
+     * Sends the pending rows of every shard before committing any, so a failing batch leaves every shard to roll
+     * back. The commits themselves are not atomic across shards.
+     */
+    private static void commit(List<ShardWriter> writers) throws SQLException {
+        for (ShardWriter writer : writers) {
+            writer.statement.executeBatch();
+        }
+        for (ShardWriter writer : writers) {
+            writer.connection.commit();
+            writer.committed += writer.pending;
+            writer.pending = 0;
+        }
+    }
+
+    private static long committed(List<ShardWriter> writers) {
+        long committed = 0;
+        for (ShardWriter writer : writers) {
+            committed += writer.committed;
+        }
+        return committed;
+    }
+
+    private static List<Long> committedPerShard(List<ShardWriter> writers) {
+        List<Long> committed = new ArrayList<>(writers.size());
+        for (ShardWriter writer : writers) {
+            committed.add(writer.committed);
+        }
+        return committed;
+    }
+
+    private static void bind(PreparedStatement statement, Price price) throws SQLException {
+        statement.setLong(1, price.getBrandId());
+        statement.setTimestamp(2, Timestamp.valueOf(price.getStartDate()));
+        statement.setTimestamp(3, Timestamp.valueOf(price.getEndDate()));
+        statement.setLong(4, price.getPriceList());
+        statement.setLong(5, price.getProductId());
+        statement.setInt(6, price.getPriority());
+        statement.setBigDecimal(7, price.getPrice());
+        statement.setString(8, price.getCurrency());
+    }
+
+    private static long rowsPerSecond(long rows, long startNanos) {
+        return rows * 1000 / Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * The connection and the pending batch of a shard, or of the whole table when it is not sharded.
+     */
+    private static class ShardWriter {
+        private final DataSource dataSource;
+        private final Connection connection;
+        private boolean autoCommit;
+        private PreparedStatement statement;
+        private int pending;
+        private long committed;
+
+        private ShardWriter(DataSource dataSource) {
+            this.dataSource = dataSource;
+            this.connection = DataSourceUtils.getConnection(dataSource);
+        }
+
+        private void begin() throws SQLException {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(INSERT_SQL);
+        }
+
+        private void add(Price price) throws SQLException {
+            bind(statement, price);
+            statement.addBatch();
+            pending++;
+        }
+
+        private void rollback(Exception cause) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                cause.addSuppressed(e);
+            }
+        }
+
+        private void close() {
+            try {
+                if (statement != null) {
+                    statement.close();
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                log.warn("Could not reset the import connection", e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        }
+    }
+}
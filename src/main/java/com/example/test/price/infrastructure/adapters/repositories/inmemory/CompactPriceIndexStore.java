@@ -0,0 +1,331 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceTimeline;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * {@link PriceIndexStore} holding the prices in parallel primitive arrays instead of objects, for catalogs too large
+ * to keep a {@link Price} per row on the heap.
+ * <p>
+ * A price row takes about 40 bytes: its dates as epoch seconds, its price list, its amount as a {@code long} of
+ * minor units with its scale, its priority and its currency as an index into the currencies met so far. Dates with
+ * a fraction of a second also keep their nanoseconds, in arrays only allocated once such a date is met. The
+ * segments of the resolved timelines are kept in epoch nanoseconds like in a {@link PrimitivePriceIndex}.
+ * <p>
+ * Rows are converted back to {@link Price} objects, without loss, only when returned by a lookup.
+ * <p>
+ * The store takes over the arrays of its builder as they are, rather than copying them to their exact length, so
+ * building it never holds the arrays twice. A builder told the size of the catalog with
+ * {@link PriceIndexStore.Builder#expect(int, long) expect} allocates its key and row arrays to that size at once;
+ * otherwise they grow by half as keys are added, leaving at most a third of them unused.
+ */
+public class CompactPriceIndexStore implements PriceIndexStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int keyCount;
+    private final int rowCount;
+    private final LongIntHashMap keySlots;
+    private final long[] slotKeys;
+    private final int[] firstSegments;
+    private final long[] segmentStarts;
+    private final long[] segmentEnds;
+    private final int[] segmentWinners;
+    private final int[] firstRows;
+    private final long[] startSeconds;
+    private final long[] endSeconds;
+    private final int[] startNanos;
+    private final int[] endNanos;
+    private final long[] priceLists;
+    private final long[] amounts;
+    private final byte[] scales;
+    private final int[] priorities;
+    private final short[] currencies;
+    private final String[] currencyCodes;
+    private final IntToLongFunction starts;
+    private final IntToLongFunction ends;
+
+    private CompactPriceIndexStore(Builder builder) {
+        this.keyCount = builder.keyCount;
+        this.rowCount = builder.rowCount;
+        this.slotKeys = builder.slotKeys;
+        // One more entry than keys, ending the segments and rows of the last key
+        this.firstSegments = builder.firstSegments;
+        this.firstSegments[keyCount] = builder.segmentCount;
+        this.segmentStarts = builder.segmentStarts;
+        this.segmentEnds = builder.segmentEnds;
+        this.segmentWinners = builder.segmentWinners;
+        this.firstRows = builder.firstRows;
+        this.firstRows[keyCount] = rowCount;
+        this.startSeconds = builder.startSeconds;
+        this.endSeconds = builder.endSeconds;
+        this.startNanos = builder.startNanos;
+        this.endNanos = builder.endNanos;
+        this.priceLists = builder.priceLists;
+        this.amounts = builder.amounts;
+        this.scales = builder.scales;
+        this.priorities = builder.priorities;
+        this.currencies = builder.currencies;
+        this.currencyCodes = builder.currencyCodes.toArray(new String[0]);
+        this.starts = segment -> segmentStarts[segment];
+        this.ends = segment -> segmentEnds[segment];
+
+        this.keySlots = new LongIntHashMap(keyCount);
+        for (int slot = 0; slot < keyCount; slot++) {
+            keySlots.put(slotKeys[slot], slot);
+        }
+    }
+
+    public static PriceIndexStore.Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int slotOf(long key) {
+        return keySlots.get(key);
+    }
+
+    @Override
+    public long keyInSlot(int slot) {
+        return slotKeys[slot];
+    }
+
+    @Override
+    public Price applicablePrice(int slot, long epochNanos) {
+        int segment = SegmentSearch.find(firstSegments[slot], firstSegments[slot + 1], starts, ends, epochNanos);
+        return segment < 0 ? null : price(slotKeys[slot], segmentWinners[segment]);
+    }
+
+    @Override
+    public PriceTimeline timeline(int slot) {
+        return PriceTimeline.of(prices(slot));
+    }
+
+    @Override
+    public PriceIntervalList intervals(int slot) {
+        return new PriceIntervalList(prices(slot));
+    }
+
+    @Override
+    public int keyCount() {
+        return keyCount;
+    }
+
+    @Override
+    public long size() {
+        return rowCount;
+    }
+
+    /**
+     * @return the bytes held by the arrays of the store, unused room included
+     */
+    public long footprint() {
+        long segments = segmentStarts.length * 20L;
+        long rows = startSeconds.length * 39L + (startNanos == null ? 0 : startNanos.length * 8L);
+        return keySlots.footprint() + slotKeys.length * 8L + firstSegments.length * 4L + firstRows.length * 4L
+                + segments + rows;
+    }
+
+    private List<Price> prices(int slot) {
+        List<Price> prices = new ArrayList<>(firstRows[slot + 1] - firstRows[slot]);
+        for (int row = firstRows[slot]; row < firstRows[slot + 1]; row++) {
+            prices.add(price(slotKeys[slot], row));
+        }
+        return prices;
+    }
+
+    private Price price(long key, int row) {
+        return new Price(
+                key >>> 32,
+                LocalDateTime.ofEpochSecond(startSeconds[row], startNanos == null ? 0 : startNanos[row], ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(endSeconds[row], endNanos == null ? 0 : endNanos[row], ZoneOffset.UTC),
+                priceLists[row],
+                key & 0xFFFFFFFFL,
+                priorities[row],
+                BigDecimal.valueOf(amounts[row], scales[row]),
+                currencyCodes[currencies[row]]
+        );
+    }
+
+    private static class Builder implements PriceIndexStore.Builder {
+        private final Map<String, Short> currencyIds = new HashMap<>();
+        private final List<String> currencyCodes = new ArrayList<>();
+        private int keyCount;
+        private int segmentCount;
+        private int rowCount;
+        private boolean built;
+        private long[] slotKeys;
+        private int[] firstSegments;
+        private int[] firstRows;
+        private long[] segmentStarts;
+        private long[] segmentEnds;
+        private int[] segmentWinners;
+        private long[] startSeconds;
+        private long[] endSeconds;
+        private int[] startNanos;
+        private int[] endNanos;
+        private long[] priceLists;
+        private long[] amounts;
+        private byte[] scales;
+        private int[] priorities;
+        private short[] currencies;
+
+        private Builder() {
+            allocate(INITIAL_CAPACITY, INITIAL_CAPACITY, INITIAL_CAPACITY);
+        }
+
+        @Override
+        public void expect(int keyCount, long size) {
+            if (this.keyCount > 0) {
+                throw new IllegalStateException("Store sized once keys were added");
+            }
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many prices for a compact store: " + size);
+            }
+            // Most keys hold a regular price interrupted by a few promotions, so a bit more segments than rows
+            int rows = Math.max(1, (int) size);
+            allocate(Math.max(1, keyCount), (int) Math.min(Integer.MAX_VALUE - 8, (long) rows + keyCount), rows);
+        }
+
+        private void allocate(int keys, int segments, int rows) {
+            slotKeys = new long[keys];
+            firstSegments = new int[keys + 1];
+            firstRows = new int[keys + 1];
+            segmentStarts = new long[segments];
+            segmentEnds = new long[segments];
+            segmentWinners = new int[segments];
+            startSeconds = new long[rows];
+            endSeconds = new long[rows];
+            priceLists = new long[rows];
+            amounts = new long[rows];
+            scales = new byte[rows];
+            priorities = new int[rows];
+            currencies = new short[rows];
+        }
+
+        @Override
+        public void add(long key, List<Price> prices) {
+            if (built) {
+                throw new IllegalStateException("Store already built, its arrays are no longer the builder's");
+            }
+            List<Price> rows = new PriceIntervalList(prices).getPrices();
+            PriceTimeline timeline = PriceTimeline.of(rows);
+
+            if (keyCount == slotKeys.length) {
+                int length = grown(keyCount);
+                slotKeys = Arrays.copyOf(slotKeys, length);
+                firstSegments = Arrays.copyOf(firstSegments, length + 1);
+                firstRows = Arrays.copyOf(firstRows, length + 1);
+            }
+            slotKeys[keyCount] = key;
+            firstSegments[keyCount] = segmentCount;
+            firstRows[keyCount] = rowCount;
+            keyCount++;
+
+            ensureSegmentCapacity(segmentCount + timeline.segmentCount());
+            for (int i = 0; i < timeline.segmentCount(); i++, segmentCount++) {
+                segmentStarts[segmentCount] = PrimitivePriceIndex.epochNanos(timeline.segmentStart(i));
+                segmentEnds[segmentCount] = PrimitivePriceIndex.epochNanos(timeline.segmentEnd(i));
+                segmentWinners[segmentCount] = rowCount + indexOf(rows, timeline.winner(i));
+            }
+
+            ensureRowCapacity(rowCount + rows.size());
+            for (Price price : rows) {
+                addRow(price);
+            }
+        }
+
+        private void addRow(Price price) {
+            BigDecimal amount = price.getPrice();
+            if (amount.unscaledValue().bitLength() > 63 || amount.scale() != (byte) amount.scale()) {
+                throw new IllegalArgumentException("Price amount " + amount + " does not fit in minor units");
+            }
+            LocalDateTime startDate = price.getStartDate();
+            LocalDateTime endDate = price.getEndDate();
+            if ((startDate.getNano() != 0 || endDate.getNano() != 0) && startNanos == null) {
+                startNanos = new int[startSeconds.length];
+                endNanos = new int[endSeconds.length];
+            }
+
+            startSeconds[rowCount] = startDate.toEpochSecond(ZoneOffset.UTC);
+            endSeconds[rowCount] = endDate.toEpochSecond(ZoneOffset.UTC);
+            if (startNanos != null) {
+                startNanos[rowCount] = startDate.getNano();
+                endNanos[rowCount] = endDate.getNano();
+            }
+            priceLists[rowCount] = price.getPriceList();
+            amounts[rowCount] = amount.unscaledValue().longValue();
+            scales[rowCount] = (byte) amount.scale();
+            priorities[rowCount] = price.getPriority();
+            currencies[rowCount] = currencyId(price.getCurrency());
+            rowCount++;
+        }
+
+        private short currencyId(String currency) {
+            Short id = currencyIds.get(currency);
+            if (id == null) {
+                if (currencyCodes.size() > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Too many currencies, " + currency + " does not fit");
+                }
+                id = (short) currencyCodes.size();
+                currencyIds.put(currency, id);
+                currencyCodes.add(currency);
+            }
+            return id;
+        }
+
+        private static int indexOf(List<Price> rows, Price winner) {
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i) == winner) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Winner is not one of the prices of its key");
+        }
+
+        private static int grown(int length) {
+            return (int) Math.min(Integer.MAX_VALUE - 8, length + (length >> 1) + 1L);
+        }
+
+        private void ensureSegmentCapacity(int capacity) {
+            if (capacity > segmentStarts.length) {
+                int length = Math.max(capacity, grown(segmentStarts.length));
+                segmentStarts = Arrays.copyOf(segmentStarts, length);
+                segmentEnds = Arrays.copyOf(segmentEnds, length);
+                segmentWinners = Arrays.copyOf(segmentWinners, length);
+            }
+        }
+
+        private void ensureRowCapacity(int capacity) {
+            if (capacity > startSeconds.length) {
+                int length = Math.max(capacity, grown(startSeconds.length));
+                startSeconds = Arrays.copyOf(startSeconds, length);
+                endSeconds = Arrays.copyOf(endSeconds, length);
+                if (startNanos != null) {
+                    startNanos = Arrays.copyOf(startNanos, length);
+                    endNanos = Arrays.copyOf(endNanos, length);
+                }
+                priceLists = Arrays.copyOf(priceLists, length);
+                amounts = Arrays.copyOf(amounts, length);
+                scales = Arrays.copyOf(scales, length);
+                priorities = Arrays.copyOf(priorities, length);
+                currencies = Arrays.copyOf(currencies, length);
+            }
+        }
+
+        @Override
+        public PriceIndexStore build() {
+            built = true;
+            return new CompactPriceIndexStore(this);
+        }
+    }
+}
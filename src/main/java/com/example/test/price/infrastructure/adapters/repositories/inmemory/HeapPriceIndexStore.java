@@ -0,0 +1,86 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceTimeline;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PriceIndexStore} holding the prices on the heap: the intervals of every key, for the candidate lookups,
+ * and their resolved timelines laid out in a {@link PrimitivePriceIndex}, for the allocation-free winner lookup.
+ */
+public class HeapPriceIndexStore implements PriceIndexStore {
+    private final PrimitivePriceIndex timelines;
+    private final PriceIntervalList[] intervals;
+    private final long size;
+
+    private HeapPriceIndexStore(PrimitivePriceIndex timelines, PriceIntervalList[] intervals, long size) {
+        this.timelines = timelines;
+        this.intervals = intervals;
+        this.size = size;
+    }
+
+    public static PriceIndexStore.Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int slotOf(long key) {
+        return timelines.slotOf(key);
+    }
+
+    @Override
+    public long keyInSlot(int slot) {
+        return timelines.keyInSlot(slot);
+    }
+
+    @Override
+    public Price applicablePrice(int slot, long epochNanos) {
+        int segment = timelines.segmentInSlot(slot, epochNanos);
+        return segment < 0 ? null : timelines.winner(segment);
+    }
+
+    @Override
+    public PriceTimeline timeline(int slot) {
+        return timelines.timelineInSlot(slot);
+    }
+
+    @Override
+    public PriceIntervalList intervals(int slot) {
+        return intervals[slot];
+    }
+
+    @Override
+    public int keyCount() {
+        return intervals.length;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    private static class Builder implements PriceIndexStore.Builder {
+        private final Map<Long, PriceIntervalList> intervalsByKey = new HashMap<>();
+        private final Map<Long, PriceTimeline> timelinesByKey = new HashMap<>();
+        private long size;
+
+        @Override
+        public void add(long key, List<Price> prices) {
+            PriceIntervalList intervals = new PriceIntervalList(prices);
+            intervalsByKey.put(key, intervals);
+            timelinesByKey.put(key, PriceTimeline.of(intervals.getPrices()));
+            size += prices.size();
+        }
+
+        @Override
+        public PriceIndexStore build() {
+            PrimitivePriceIndex timelines = PrimitivePriceIndex.of(timelinesByKey);
+            PriceIntervalList[] intervals = new PriceIntervalList[timelines.keyCount()];
+            intervalsByKey.forEach((key, keyIntervals) -> intervals[timelines.slotOf(key)] = keyIntervals);
+            return new HeapPriceIndexStore(timelines, intervals, size);
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.PriceTimeline;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.ParallelPriceScan;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Immutable in-memory index of the price table, grouping the prices by product and brand.
+ * <p>
+ * Each key keeps its intervals, to find every price applying at an instant, and its resolved
+ * {@link PriceTimeline}, so the highest priority price is found without comparing priorities per lookup.
+ * Both are held by a {@link PriceIndexStore}: a {@link HeapPriceIndexStore} by default, whose
+ * {@link PrimitivePriceIndex} also offers an allocation-free lookup through
+ * {@link #findApplicablePrice(long, long, long)}, a {@link CompactPriceIndexStore} for very large catalogs, or a
+ * {@link MappedPriceIndex} read from an index file.
+ * <p>
+ * Changed keys are applied with {@link #withChanges(Map)}, which shares the bulk of the index with the new one
+ * and only resolves the changed keys again, into an overlay consulted before the base. The overlay has two layers:
+ * the keys changed recently, rebuilt by every change, and the settled keys they are folded into once more than
+ * {@value #MAX_RECENT_KEYS} accumulate, so a change does not copy every key changed since the base was built. Once
+ * the overlay grows past a quarter of the keys, the next change compacts base and overlay into a new base, laid out
+ * by the store builder the index was created with.
+ * <p>
+ * The index also keeps the identifiers of the brands it holds prices for, so the prices of a product across every
+ * brand are found by one key lookup per brand rather than by scanning the keys.
+ * <p>
+ * Keys whose brand or product identifier does not fit a {@link PrimitivePriceIndex#key(long, long) packed key}
+ * are held apart, by {@link PriceKey}, with their intervals and timeline on the heap whatever the store. They are
+ * expected to be rare: their lookups allocate their key, and they are never compacted into the store.
+ */
+public class InMemoryPriceIndex {
+    static final int MIN_COMPACTION_KEYS = 4096;
+    static final int MIN_SNAPSHOT_PARTITION_KEYS = 4096;
+    static final int MAX_RECENT_KEYS = 1024;
+
+    private static final PrimitivePriceIndex NO_TIMELINES = PrimitivePriceIndex.of(Map.of());
+    private static final long[] NO_BRANDS = new long[0];
+
+    private final PriceIndexStore base;
+    private final Map<PriceKey, PriceIntervalList> settledIntervalsByKey;
+    private final PrimitivePriceIndex settledTimelines;
+    private final Map<PriceKey, PriceIntervalList> recentIntervalsByKey;
+    private final PrimitivePriceIndex recentTimelines;
+    private final int changedKeyCount;
+    private final Map<PriceKey, PriceIntervalList> wideIntervalsByKey;
+    private final Map<PriceKey, PriceTimeline> wideTimelinesByKey;
+    private final int keyCount;
+    private final long size;
+    private final long[] brandIds;
+    private final Supplier<PriceIndexStore.Builder> storeBuilder;
+
+    private InMemoryPriceIndex(PriceIndexStore base,
+                               Map<PriceKey, PriceIntervalList> settledIntervalsByKey, PrimitivePriceIndex settledTimelines,
+                               Map<PriceKey, PriceIntervalList> recentIntervalsByKey, PrimitivePriceIndex recentTimelines,
+                               int changedKeyCount,
+                               Map<PriceKey, PriceIntervalList> wideIntervalsByKey,
+                               Map<PriceKey, PriceTimeline> wideTimelinesByKey,
+                               int keyCount, long size, long[] brandIds, Supplier<PriceIndexStore.Builder> storeBuilder) {
+        this.base = base;
+        this.settledIntervalsByKey = settledIntervalsByKey;
+        this.settledTimelines = settledTimelines;
+        this.recentIntervalsByKey = recentIntervalsByKey;
+        this.recentTimelines = recentTimelines;
+        this.changedKeyCount = changedKeyCount;
+        this.wideIntervalsByKey = wideIntervalsByKey;
+        this.wideTimelinesByKey = wideTimelinesByKey;
+        this.keyCount = keyCount;
+        this.size = size;
+        this.brandIds = brandIds;
+        this.storeBuilder = storeBuilder;
+    }
+
+    public static InMemoryPriceIndex build(Iterable<Price> prices) {
+        return build(prices, HeapPriceIndexStore::builder);
+    }
+
+    /**
+     * @param prices       the prices to index
+     * @param storeBuilder the builder of the store holding the prices, see {@link #of(PriceIndexStore, Supplier)}
+     * @return the index
+     */
+    public static InMemoryPriceIndex build(Iterable<Price> prices, Supplier<PriceIndexStore.Builder> storeBuilder) {
+        Map<PriceKey, List<Price>> pricesByKey = new HashMap<>();
+        long size = 0;
+        for (Price price : prices) {
+            pricesByKey.computeIfAbsent(new PriceKey(price.getBrandId(), price.getProductId()),
+                    key -> new ArrayList<>()).add(price);
+            size++;
+        }
+        PriceIndexStore.Builder builder = storeBuilder.get();
+        builder.expect(pricesByKey.size(), size);
+        Map<PriceKey, List<Price>> wideKeys = new HashMap<>();
+        pricesByKey.forEach((key, keyPrices) -> {
+            if (isPackable(key)) {
+                builder.add(packed(key), keyPrices);
+            } else {
+                wideKeys.put(key, keyPrices);
+            }
+        });
+        return of(builder.build(), storeBuilder).withChanges(wideKeys);
+    }
+
+    /**
+     * @param base         the store holding the prices, every key of which holds at least one price
+     * @param storeBuilder the builder of the store the index is compacted into once many keys changed
+     * @return the index answering the lookups from the given store
+     */
+    public static InMemoryPriceIndex of(PriceIndexStore base, Supplier<PriceIndexStore.Builder> storeBuilder) {
+        long[] brandIds = NO_BRANDS;
+        long previousBrand = -1;
+        for (int slot = 0; slot < base.keyCount(); slot++) {
+            long brandId = base.keyInSlot(slot) >>> 32;
+            if (brandId != previousBrand) {
+                brandIds = withBrand(brandIds, brandId);
+                previousBrand = brandId;
+            }
+        }
+        return new InMemoryPriceIndex(base, Map.of(), NO_TIMELINES, Map.of(), NO_TIMELINES, 0, Map.of(), Map.of(),
+                base.keyCount(), base.size(), brandIds, storeBuilder);
+    }
+
+    /**
+     * @param key a product and brand key
+     * @return whether both identifiers of the key fit a {@link PrimitivePriceIndex#key(long, long) packed key}
+     */
+    public static boolean isPackable(PriceKey key) {
+        return PrimitivePriceIndex.isPackable(key.getBrandId()) && PrimitivePriceIndex.isPackable(key.getProductId());
+    }
+
+    /**
+     * @return the given sorted brands, or a copy holding the given brand as well if they do not
+     */
+    private static long[] withBrand(long[] brandIds, long brandId) {
+        int position = Arrays.binarySearch(brandIds, brandId);
+        if (position >= 0) {
+            return brandIds;
+        }
+        int insertion = -position - 1;
+        long[] extended = new long[brandIds.length + 1];
+        System.arraycopy(brandIds, 0, extended, 0, insertion);
+        extended[insertion] = brandId;
+        System.arraycopy(brandIds, insertion, extended, insertion + 1, brandIds.length - insertion);
+        return extended;
+    }
+
+    /**
+     * Replaces every price of the given keys, leaving the other keys untouched. A change costs the changed keys plus
+     * the keys changed recently, at most {@value #MAX_RECENT_KEYS}. Once more accumulate, they are folded into the
+     * settled keys at a cost proportional to every key changed since the index was built or compacted, and once those
+     * reach a quarter of the keys the whole index is compacted.
+     *
+     * @param changes the complete set of current prices of each changed key, empty for a key without prices left
+     * @return the index holding the changes
+     */
+    public InMemoryPriceIndex withChanges(Map<PriceKey, ? extends Collection<Price>> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+
+        Map<PriceKey, PriceIntervalList> recentIntervals = new HashMap<>(recentIntervalsByKey);
+        // Copied only when a wide key changes, which is rare
+        Map<PriceKey, PriceIntervalList> wideIntervals = wideIntervalsByKey;
+        Map<PriceKey, PriceTimeline> wideTimelines = wideTimelinesByKey;
+        int newChangedKeyCount = changedKeyCount;
+        int newKeyCount = keyCount;
+        long newSize = size;
+        // A brand left without prices is kept: looking it up just finds none
+        long[] newBrandIds = brandIds;
+        for (Map.Entry<PriceKey, ? extends Collection<Price>> change : changes.entrySet()) {
+            PriceKey key = change.getKey();
+            PriceIntervalList previous = intervalsOf(key);
+            PriceIntervalList current = new PriceIntervalList(change.getValue());
+            newKeyCount += (current.size() > 0 ? 1 : 0) - (previous != null && previous.size() > 0 ? 1 : 0);
+            newSize += current.size() - (previous == null ? 0 : previous.size());
+            if (isPackable(key)) {
+                if (!recentIntervals.containsKey(key) && !settledIntervalsByKey.containsKey(key)) {
+                    newChangedKeyCount++;
+                }
+                recentIntervals.put(key, current);
+            } else {
+                if (wideIntervals == wideIntervalsByKey) {
+                    wideIntervals = new HashMap<>(wideIntervalsByKey);
+                    wideTimelines = new HashMap<>(wideTimelinesByKey);
+                }
+                if (current.size() > 0) {
+                    wideIntervals.put(key, current);
+                    wideTimelines.put(key, PriceTimeline.of(current.getPrices()));
+                } else {
+                    wideIntervals.remove(key);
+                    wideTimelines.remove(key);
+                }
+            }
+            if (current.size() > 0) {
+                newBrandIds = withBrand(newBrandIds, key.getBrandId());
+            }
+        }
+
+        if (newChangedKeyCount > Math.max(MIN_COMPACTION_KEYS, base.keyCount() / 4)) {
+            Map<PriceKey, PriceIntervalList> changedIntervals = new HashMap<>(settledIntervalsByKey);
+            changedIntervals.putAll(recentIntervals);
+            return compact(changedIntervals, wideIntervals, wideTimelines);
+        }
+
+        if (recentIntervals.size() > MAX_RECENT_KEYS) {
+            Map<PriceKey, PriceIntervalList> settledIntervals = new HashMap<>(settledIntervalsByKey);
+            settledIntervals.putAll(recentIntervals);
+            return new InMemoryPriceIndex(base, settledIntervals, timelinesOf(settledIntervals, changes),
+                    Map.of(), NO_TIMELINES, newChangedKeyCount, wideIntervals, wideTimelines,
+                    newKeyCount, newSize, newBrandIds, storeBuilder);
+        }
+        return new InMemoryPriceIndex(base, settledIntervalsByKey, settledTimelines,
+                recentIntervals, timelinesOf(recentIntervals, changes), newChangedKeyCount, wideIntervals, wideTimelines,
+                newKeyCount, newSize, newBrandIds, storeBuilder);
+    }
+
+    /**
+     * @return the timelines of the given packed keys, resolved again for the changed keys and taken from the overlay
+     * of this index for the others
+     */
+    private PrimitivePriceIndex timelinesOf(Map<PriceKey, PriceIntervalList> intervalsByKey,
+                                            Map<PriceKey, ? extends Collection<Price>> changes) {
+        Map<Long, PriceTimeline> timelinesByKey = new HashMap<>(intervalsByKey.size() * 4 / 3 + 1);
+        intervalsByKey.forEach((key, intervals) -> {
+            long packedKey = packed(key);
+            timelinesByKey.put(packedKey, changes.containsKey(key)
+                    ? PriceTimeline.of(intervals.getPrices())
+                    : overlayOf(packedKey).timeline(packedKey));
+        });
+        return PrimitivePriceIndex.of(timelinesByKey);
+    }
+
+    /**
+     * @return the layer of the overlay holding the timeline of the given packed key, or {@code null} if the key is
+     * not changed since the base was built
+     */
+    private PrimitivePriceIndex overlayOf(long key) {
+        if (recentTimelines.contains(key)) {
+            return recentTimelines;
+        }
+        return settledTimelines.contains(key) ? settledTimelines : null;
+    }
+
+    private InMemoryPriceIndex compact(Map<PriceKey, PriceIntervalList> changedIntervals,
+                                       Map<PriceKey, PriceIntervalList> wideIntervals,
+                                       Map<PriceKey, PriceTimeline> wideTimelines) {
+        // Copied key by key, so a compact store is never held as price objects all at once
+        PriceIndexStore.Builder builder = storeBuilder.get();
+        long changedSize = 0;
+        for (PriceIntervalList intervals : changedIntervals.values()) {
+            changedSize += intervals.size();
+        }
+        // At most, as the changed keys held in the base are replaced rather than added
+        builder.expect(base.keyCount() + changedIntervals.size(), base.size() + changedSize);
+        for (int slot = 0; slot < base.keyCount(); slot++) {
+            long key = base.keyInSlot(slot);
+            if (!changedIntervals.containsKey(new PriceKey(key >>> 32, key & 0xFFFFFFFFL))) {
+                builder.add(key, base.intervals(slot).getPrices());
+            }
+        }
+        changedIntervals.forEach((key, intervals) -> {
+            if (intervals.size() > 0) {
+                builder.add(packed(key), intervals.getPrices());
+            }
+        });
+        InMemoryPriceIndex compacted = of(builder.build(), storeBuilder);
+        long[] compactedBrandIds = compacted.brandIds;
+        long wideSize = 0;
+        for (Map.Entry<PriceKey, PriceIntervalList> wideKey : wideIntervals.entrySet()) {
+            compactedBrandIds = withBrand(compactedBrandIds, wideKey.getKey().getBrandId());
+            wideSize += wideKey.getValue().size();
+        }
+        return new InMemoryPriceIndex(compacted.base, Map.of(), NO_TIMELINES, Map.of(), NO_TIMELINES, 0,
+                wideIntervals, wideTimelines, compacted.keyCount + wideIntervals.size(), compacted.size + wideSize,
+                compactedBrandIds, storeBuilder);
+    }
+
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        if (brandId == null || productId == null) {
+            return Optional.empty();
+        }
+        long instant = PrimitivePriceIndex.epochNanos(dateTime);
+        return Optional.ofNullable(applicablePrice(brandId, productId, dateTime, instant));
+    }
+
+    /**
+     * Allocation-free variant of {@link #findApplicablePriceAt(LocalDateTime, Long, Long)}, as long as the key is
+     * held on the heap: a compact or mapped store creates the price it returns.
+     *
+     * @param brandId    the brand identifier
+     * @param productId  the product identifier
+     * @param epochNanos the application instant, see {@link PrimitivePriceIndex#epochNanos(LocalDateTime)}
+     * @return the highest priority price applying at the given instant, or {@code null} if none applies
+     */
+    public Price findApplicablePrice(long brandId, long productId, long epochNanos) {
+        if (!PrimitivePriceIndex.isPackable(brandId) || !PrimitivePriceIndex.isPackable(productId)) {
+            return wideApplicablePrice(brandId, productId, PrimitivePriceIndex.dateTime(epochNanos));
+        }
+        long key = PrimitivePriceIndex.key(brandId, productId);
+        PrimitivePriceIndex overlay = overlayOf(key);
+        if (overlay != null) {
+            int segment = overlay.segmentAt(key, epochNanos);
+            return segment < 0 ? null : overlay.winner(segment);
+        }
+        int slot = base.slotOf(key);
+        return slot < 0 ? null : base.applicablePrice(slot, epochNanos);
+    }
+
+    private Price applicablePrice(long brandId, long productId, LocalDateTime dateTime, long epochNanos) {
+        if (!PrimitivePriceIndex.isPackable(brandId) || !PrimitivePriceIndex.isPackable(productId)) {
+            return wideApplicablePrice(brandId, productId, dateTime);
+        }
+        return findApplicablePrice(brandId, productId, epochNanos);
+    }
+
+    private Price wideApplicablePrice(long brandId, long productId, LocalDateTime dateTime) {
+        PriceTimeline timeline = wideTimelinesByKey.get(new PriceKey(brandId, productId));
+        return timeline == null ? null : timeline.priceAt(dateTime).orElse(null);
+    }
+
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        PriceTimeline timeline = timelineOf(productId, brandId);
+        return timeline == null ? Optional.empty() : timeline.resolveAt(dateTime);
+    }
+
+    /**
+     * @param productId the product identifier
+     * @param brandId   the brand identifier
+     * @param dateTimes the application dates and times, in any order
+     * @return the result of each date time, in their order, resolved in a single sweep over the timeline of the key
+     */
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        PriceTimeline timeline = timelineOf(productId, brandId);
+        Price[] prices = timeline == null ? new Price[dateTimes.size()] : timeline.pricesAt(dateTimes);
+        return PriceLookupResult.ofEach(productId, brandId, dateTimes, prices);
+    }
+
+    private PriceTimeline timelineOf(Long productId, Long brandId) {
+        if (brandId == null || productId == null) {
+            return null;
+        }
+        if (!PrimitivePriceIndex.isPackable(brandId) || !PrimitivePriceIndex.isPackable(productId)) {
+            return wideTimelinesByKey.get(new PriceKey(brandId, productId));
+        }
+        long key = PrimitivePriceIndex.key(brandId, productId);
+        PrimitivePriceIndex overlay = overlayOf(key);
+        if (overlay != null) {
+            return overlay.timeline(key);
+        }
+        int slot = base.slotOf(key);
+        return slot < 0 ? null : base.timeline(slot);
+    }
+
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        PriceIntervalList intervals = intervalsOf(new PriceKey(brandId, productId));
+        return intervals == null ? new ArrayList<>() : intervals.findAllAt(dateTime);
+    }
+
+    /**
+     * @param dateTime  the application date and time
+     * @param productId the product identifier
+     * @param brandIds  the brand identifiers, every brand held by the index if empty
+     * @return the highest priority price of each brand applying at the given instant, ordered by brand identifier
+     */
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        List<Price> prices = new ArrayList<>();
+        if (productId == null) {
+            return prices;
+        }
+        long instant = PrimitivePriceIndex.epochNanos(dateTime);
+        long[] brands = brandIds.isEmpty() ? this.brandIds
+                : brandIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        for (long brandId : brands) {
+            Price price = applicablePrice(brandId, productId, dateTime, instant);
+            if (price != null) {
+                prices.add(price);
+            }
+        }
+        return prices;
+    }
+
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        Map<PriceQuery, Price> result = new HashMap<>();
+        for (PriceQuery query : queries) {
+            findApplicablePriceAt(query.getDateTime(), query.getProductId(), query.getBrandId())
+                    .ifPresent(price -> result.put(query, price));
+        }
+        return result;
+    }
+
+    /**
+     * Streams the highest priority price of every key at the given instant, resolving partitions of the keys in
+     * parallel through a {@link ParallelPriceScan}.
+     *
+     * @param dateTime     the application date and time
+     * @param parallelScan the scan running the partitions
+     * @param consumer     the consumer of each applicable price, called from the calling thread
+     */
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, ParallelPriceScan parallelScan,
+                                         Consumer<Price> consumer) {
+        int parallelism = parallelScan.getParallelism();
+        long instant = PrimitivePriceIndex.epochNanos(dateTime);
+        List<ParallelPriceScan.Partition> partitions = new ArrayList<>();
+        addPartitions(partitions, base.keyCount(), parallelism, (slot, sink) -> {
+            if (overlayOf(base.keyInSlot(slot)) == null) {
+                Price price = base.applicablePrice(slot, instant);
+                if (price != null) {
+                    sink.accept(price);
+                }
+            }
+        });
+        addPartitions(partitions, settledTimelines.keyCount(), parallelism, (slot, sink) -> {
+            if (!recentTimelines.contains(settledTimelines.keyInSlot(slot))) {
+                int segment = settledTimelines.segmentInSlot(slot, instant);
+                if (segment >= 0) {
+                    sink.accept(settledTimelines.winner(segment));
+                }
+            }
+        });
+        addPartitions(partitions, recentTimelines.keyCount(), parallelism, (slot, sink) -> {
+            int segment = recentTimelines.segmentInSlot(slot, instant);
+            if (segment >= 0) {
+                sink.accept(recentTimelines.winner(segment));
+            }
+        });
+        if (!wideTimelinesByKey.isEmpty()) {
+            partitions.add(sink -> wideTimelinesByKey.values()
+                    .forEach(timeline -> timeline.priceAt(dateTime).ifPresent(sink)));
+        }
+        parallelScan.run(partitions, consumer);
+    }
+
+    private static void addPartitions(List<ParallelPriceScan.Partition> partitions, int slots, int parallelism,
+                                      SlotScan scan) {
+        int width = Math.max(MIN_SNAPSHOT_PARTITION_KEYS, (slots + parallelism * 4 - 1) / (parallelism * 4));
+        for (int from = 0; from < slots; from += width) {
+            int first = from;
+            int last = Math.min(slots, from + width);
+            partitions.add(sink -> {
+                for (int slot = first; slot < last; slot++) {
+                    scan.scan(slot, sink);
+                }
+            });
+        }
+    }
+
+    private interface SlotScan {
+        void scan(int slot, Consumer<Price> sink);
+    }
+
+    private PriceIntervalList intervalsOf(PriceKey key) {
+        PriceIntervalList changed = recentIntervalsByKey.get(key);
+        if (changed == null) {
+            changed = settledIntervalsByKey.get(key);
+        }
+        if (changed != null) {
+            return changed;
+        }
+        if (key.getBrandId() == null || key.getProductId() == null) {
+            return null;
+        }
+        if (!isPackable(key)) {
+            return wideIntervalsByKey.get(key);
+        }
+        int slot = base.slotOf(packed(key));
+        return slot < 0 ? null : base.intervals(slot);
+    }
+
+    private static long packed(PriceKey key) {
+        return PrimitivePriceIndex.key(key.getBrandId(), key.getProductId());
+    }
+
+    /**
+     * @return the number of product and brand keys holding at least one price
+     */
+    public int keyCount() {
+        return keyCount;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of keys held apart from the store, their identifiers not fitting a packed key
+     */
+    public int wideKeyCount() {
+        return wideIntervalsByKey.size();
+    }
+
+    /**
+     * @return the number of keys changed since the index was last built or compacted
+     */
+    public int changedKeyCount() {
+        return changedKeyCount;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Schedules the periodic {@link InMemoryPriceRepositoryAdapter#refresh() refresh} of the in-memory index.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "price.repository.type", havingValue = "in-memory")
+public class InMemoryPriceRefreshConfiguration {
+}
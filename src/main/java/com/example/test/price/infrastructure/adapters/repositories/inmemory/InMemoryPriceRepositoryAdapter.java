@@ -0,0 +1,303 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.events.PricesChangedEvent;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.PriceRepositoryConfiguration;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.ParallelPriceScan;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link PriceRepositoryPort} answering the lookups from an in-memory index of the price table,
+ * loaded once at startup and then refreshed every {@code price.refresh.interval} with the keys changed
+ * in the meantime. Enabled with {@code price.repository.type=in-memory}.
+ * <p>
+ * When {@code price.index.file} is set, every load from the database writes the index to that file, and the next
+ * startup maps it with a {@link MappedPriceIndex} instead of reading the table, catching up with the rows changed
+ * since the file was written. A missing, corrupted or outdated file falls back to loading from the database.
+ * <p>
+ * With {@code price.index.compact=true} the prices are held by a {@link CompactPriceIndexStore} instead of objects,
+ * for catalogs too large for the heap otherwise; the table is then counted to size the store up front, and read one
+ * key at a time, so it is never held as objects all at once.
+ * <p>
+ * Every load and refresh builds a new {@link PriceIndexGeneration} off to the side and publishes it with an atomic
+ * swap. A lookup reads a single generation from start to end without taking a lock or writing anything shared, and
+ * a replaced generation is freed by the garbage collector once the last lookup reading it is done.
+ * <p>
+ * Every refresh then publishes a {@link PricesChangedEvent} with the keys it changed.
+ */
+@Component(PriceRepositoryConfiguration.STORAGE_ADAPTER)
+@ConditionalOnProperty(name = "price.repository.type", havingValue = "in-memory")
+public class InMemoryPriceRepositoryAdapter implements PriceRepositoryPort {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryPriceRepositoryAdapter.class);
+
+    private final PriceTableLoader priceTableLoader;
+    private final ParallelPriceScan parallelScan;
+    private final Path indexFile;
+    private final boolean compact;
+    private final Supplier<PriceIndexStore.Builder> storeBuilder;
+    private final PriceIndexGenerations generations;
+    private final ApplicationEventPublisher eventPublisher;
+    private PriceWatermark watermark;
+
+    @Autowired
+    public InMemoryPriceRepositoryAdapter(PriceTableLoader priceTableLoader,
+                                          ParallelPriceScan parallelScan,
+                                          @Value("${price.index.file:}") String indexFile,
+                                          @Value("${price.index.compact:false}") boolean compact,
+                                          MeterRegistry meterRegistry,
+                                          ApplicationEventPublisher eventPublisher) {
+        this.priceTableLoader = priceTableLoader;
+        this.eventPublisher = eventPublisher;
+        this.parallelScan = parallelScan;
+        this.indexFile = indexFile.isBlank() ? null : Path.of(indexFile);
+        this.compact = compact;
+        this.storeBuilder = compact ? CompactPriceIndexStore::builder : HeapPriceIndexStore::builder;
+        Counter replacements = Counter.builder("price.index.generations.replaced")
+                .description("Index generations replaced by a newer one, still held until freed")
+                .register(meterRegistry);
+        this.generations = new PriceIndexGenerations(generation -> {
+            replacements.increment();
+            log.debug("Retired price index generation {}", generation.getId());
+        });
+        Gauge.builder("price.index.generation", generations, g -> g.isPublished() ? g.current().getId() : 0)
+                .description("Generation of the index serving the lookups")
+                .register(meterRegistry);
+        Gauge.builder("price.index.generation.age", generations, InMemoryPriceRepositoryAdapter::ageSeconds)
+                .description("Time since the index serving the lookups was published")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("price.index.generations.live", generations, PriceIndexGenerations::liveCount)
+                .description("Index generations still in memory, the current one included")
+                .register(meterRegistry);
+        FunctionCounter.builder("price.index.generations.released", generations,
+                        PriceIndexGenerations::releasedCount)
+                .description("Index generations freed by the garbage collector")
+                .register(meterRegistry);
+    }
+
+    private static double ageSeconds(PriceIndexGenerations generations) {
+        if (!generations.isPublished()) {
+            return 0;
+        }
+        return Duration.between(generations.current().getBuiltAt(), Instant.now()).toMillis() / 1000.0;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        long start = System.nanoTime();
+        // Read before the table, so rows changed while loading are read again by the next refresh
+        PriceWatermark current = priceTableLoader.currentWatermark();
+        if (indexFile != null && mapIndexFile(current.getVersion(), start)) {
+            InMemoryPriceIndex index = generations.current().getIndex();
+            log.info("Mapped {} prices for {} product/brand keys from {} in {} ms",
+                    index.size(), index.keyCount(), indexFile, (System.nanoTime() - start) / 1_000_000);
+            refresh();
+            return;
+        }
+
+        PriceIndexStore.Builder builder = storeBuilder.get();
+        if (compact) {
+            priceTableLoader.expectTableSize(builder);
+        }
+        Map<PriceKey, List<Price>> wideKeys = new HashMap<>();
+        priceTableLoader.forEachKey(prices -> {
+            PriceKey key = new PriceKey(prices.get(0).getBrandId(), prices.get(0).getProductId());
+            if (InMemoryPriceIndex.isPackable(key)) {
+                builder.add(PrimitivePriceIndex.key(key.getBrandId(), key.getProductId()), prices);
+            } else {
+                wideKeys.put(key, prices);
+            }
+        });
+        PriceIndexStore store = builder.build();
+        InMemoryPriceIndex index = InMemoryPriceIndex.of(store, storeBuilder).withChanges(wideKeys);
+        watermark = current;
+        publish(index, start);
+        log.info("Loaded {} prices for {} product/brand keys in {} ms",
+                index.size(), index.keyCount(), (System.nanoTime() - start) / 1_000_000);
+        if (indexFile != null) {
+            if (wideKeys.isEmpty()) {
+                writeIndexFile(store, current.getVersion());
+            } else {
+                discardIndexFile(wideKeys.size());
+            }
+        }
+    }
+
+    private boolean mapIndexFile(long currentVersion, long start) {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try {
+            MappedPriceIndex mapped = MappedPriceIndex.open(indexFile);
+            // A watermark ahead of the table means the file was written from another database
+            if (mapped.getWatermark() > currentVersion) {
+                log.warn("Ignoring price index file {} at version {}, ahead of the price table at version {}",
+                        indexFile, mapped.getWatermark(), currentVersion);
+                return false;
+            }
+            // The versions read within its window are not kept in the file, so the next refresh reads it again
+            watermark = PriceWatermark.at(mapped.getWatermark());
+            publish(InMemoryPriceIndex.of(mapped, storeBuilder), start);
+            return true;
+        } catch (IOException e) {
+            log.warn("Ignoring price index file {}: {}", indexFile, e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeIndexFile(PriceIndexStore store, long version) {
+        long start = System.nanoTime();
+        try {
+            MappedPriceIndex.write(indexFile, version, store);
+            log.info("Wrote price index file {} in {} ms", indexFile, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write price index file {}", indexFile, e);
+        }
+    }
+
+    private void publish(InMemoryPriceIndex index, long buildStart) {
+        PriceIndexGeneration generation = generations.publish(index, Duration.ofNanos(System.nanoTime() - buildStart));
+        log.debug("Published price index generation {} built in {} ms",
+                generation.getId(), generation.getBuildTime().toMillis());
+    }
+
+    /**
+     * The index file only holds packed keys, so it can't stand for a table holding wider ones: it is removed, for the
+     * next startups to read the table instead.
+     */
+    private void discardIndexFile(int wideKeyCount) {
+        log.warn("Not writing price index file {}: {} product/brand keys have identifiers beyond 32 bits",
+                indexFile, wideKeyCount);
+        try {
+            Files.deleteIfExists(indexFile);
+        } catch (IOException e) {
+            log.warn("Could not remove price index file {}", indexFile, e);
+        }
+    }
+
+    /**
+     * Reads the keys changed since the last load or refresh and publishes them as a new generation of the index.
+     */
+    @Scheduled(fixedDelayString = "${price.refresh.interval:10s}", initialDelayString = "${price.refresh.interval:10s}")
+    public synchronized void refresh() {
+        long start = System.nanoTime();
+        PriceChanges changes = priceTableLoader.findChangesSince(watermark);
+        if (changes.isEmpty()) {
+            return;
+        }
+        // The previous generation keeps serving the lookups until the new one is built
+        publish(generations.current().getIndex().withChanges(changes.getPricesByKey()), start);
+        watermark = changes.getWatermark();
+        eventPublisher.publishEvent(PricesChangedEvent.of(changes.getPricesByKey().keySet()));
+        log.info("Refreshed {} product/brand keys up to version {} in {} ms",
+                changes.getPricesByKey().size(), watermark.getVersion(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return read(index -> index.findApplicablePriceAt(dateTime, productId, brandId));
+    }
+
+    /**
+     * Serves the V1 lookups without boxing, through the primitive lookup of the index, see
+     * {@link InMemoryPriceIndex#findApplicablePrice(long, long, long)}.
+     */
+    @Override
+    public Price findApplicablePrice(LocalDateTime dateTime, long productId, long brandId) {
+        return generations.current().getIndex()
+                .findApplicablePrice(brandId, productId, PrimitivePriceIndex.epochNanos(dateTime));
+    }
+
+    /**
+     * Allocation-free lookup, see {@link InMemoryPriceIndex#findApplicablePrice(long, long, long)}.
+     *
+     * @param brandId    the brand identifier
+     * @param productId  the product identifier
+     * @param epochNanos the application instant, see {@link PrimitivePriceIndex#epochNanos(LocalDateTime)}
+     * @return the highest priority price applying at the given instant, or {@code null} if none applies
+     */
+    public Price findApplicablePrice(long brandId, long productId, long epochNanos) {
+        // Without the lambda of read(), which would capture the arguments
+        return generations.current().getIndex().findApplicablePrice(brandId, productId, epochNanos);
+    }
+
+    @Override
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return read(index -> index.findResolvedPriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return read(index -> index.findApplicablePricesAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        return read(index -> index.findApplicablePriceAtEach(productId, brandId, dateTimes));
+    }
+
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        return read(index -> index.findApplicablePricePerBrand(dateTime, productId, brandIds));
+    }
+
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        return read(index -> index.findApplicablePriceBatch(queries));
+    }
+
+    @Override
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        // The whole snapshot streams from the generation current when it started
+        generations.current().getIndex().forEachApplicablePriceAt(dateTime, parallelScan, consumer);
+    }
+
+    /**
+     * @return the generation of the index currently serving the lookups and its size
+     */
+    public PriceIndexStats getIndexStats() {
+        PriceIndexGeneration generation = generations.current();
+        InMemoryPriceIndex index = generation.getIndex();
+        return new PriceIndexStats(generation.getId(), generation.getBuiltAt(), generation.getBuildTime().toMillis(),
+                index.keyCount(), index.size(), generations.liveCount(), generations.retiredCount());
+    }
+
+    /**
+     * Runs a lookup on the current generation of the index, read once so the lookup sees no other.
+     */
+    private <T> T read(Function<InMemoryPriceIndex, T> lookup) {
+        return lookup.apply(generations.current().getIndex());
+    }
+}
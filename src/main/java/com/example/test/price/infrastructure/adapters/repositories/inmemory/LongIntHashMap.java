@@ -0,0 +1,85 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to non-negative {@code int} values, filled once
+ * and then only read.
+ * <p>
+ * Keys and values live in two parallel arrays probed linearly, so a lookup neither boxes the key nor
+ * follows any reference besides the two arrays.
+ */
+final class LongIntHashMap {
+    private static final int EMPTY = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int shift;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.values, EMPTY);
+        this.mask = capacity - 1;
+        this.shift = Long.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * @param key   the key
+     * @param value the value, not negative
+     */
+    void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        int slot = slot(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size * 2 >= keys.length) {
+            throw new IllegalStateException("Map is full: " + size + " keys");
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * @param key the key
+     * @return the value of the key, or {@code -1} if it is absent
+     */
+    int get(long key) {
+        int slot = slot(key);
+        int value;
+        while ((value = values[slot]) != EMPTY) {
+            if (keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the bytes held by the arrays of the map
+     */
+    long footprint() {
+        return keys.length * 8L + values.length * 4L;
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing, keeping the well mixed high bits
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceTimeline;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * {@link PriceIndexStore} answering the lookups straight from a memory-mapped index file, without reading the
+ * prices it holds into objects: only the prices returned by a lookup are materialized.
+ * <p>
+ * The file starts with a header followed by sections of fixed-width, naturally aligned, big-endian records:
+ * <pre>
+ * header      magic, format version, row version watermark, CRC32C of the file but itself, record counts
+ * keys        long[keys]          packed keys, in ascending order
+ * segments    int[keys + 1]       first segment of every key
+ * prices      int[keys + 1]       first price row of every key
+ * starts      long[segments]      inclusive start of every segment, in epoch nanoseconds
+ * ends        long[segments]      exclusive end of every segment, in epoch nanoseconds
+ * winners     int[segments]       price row winning over every segment
+ * rows        48 bytes per price  start and end date, price list, amount, priority, currency
+ * currencies  length-prefixed UTF-8 codes referenced by the rows
+ * </pre>
+ * The file is mapped in chunks of 1 GiB, so its size is not bound by the 2 GiB of a single buffer, and only
+ * opened once its format version and checksum check out. It is written next to its final location and then
+ * moved into place, so a reader never sees a partially written file.
+ */
+public class MappedPriceIndex implements PriceIndexStore {
+    static final int MAGIC = 0x50524958;
+    static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int CHECKSUM_OFFSET = 16;
+    private static final int ROW_SIZE = 48;
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final ByteBuffer[] chunks;
+    private final long watermark;
+    private final Layout layout;
+    private final String[] currencies;
+    private final IntToLongFunction starts;
+    private final IntToLongFunction ends;
+
+    private MappedPriceIndex(ByteBuffer[] chunks, long watermark, Layout layout, String[] currencies) {
+        this.chunks = chunks;
+        this.watermark = watermark;
+        this.layout = layout;
+        this.currencies = currencies;
+        this.starts = segment -> getLong(layout.startsOffset + 8L * segment);
+        this.ends = segment -> getLong(layout.endsOffset + 8L * segment);
+    }
+
+    /**
+     * Writes an index file holding the prices of the given store, replacing the file if it exists. The prices are
+     * read from the store one key at a time.
+     *
+     * @param file      the index file
+     * @param watermark the highest row version of the price table covered by the store
+     * @param store     the store holding every price of the table
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, long watermark, PriceIndexStore store) throws IOException {
+        int keyCount = store.keyCount();
+        long[] keys = new long[keyCount];
+        for (int slot = 0; slot < keyCount; slot++) {
+            keys[slot] = store.keyInSlot(slot);
+        }
+        Arrays.sort(keys);
+        int[] slots = new int[keyCount];
+        int[] segmentCounts = new int[keyCount];
+        int[] priceCounts = new int[keyCount];
+        Map<String, Integer> currencyIds = new LinkedHashMap<>();
+        long segmentCount = 0;
+        long priceCount = 0;
+        for (int i = 0; i < keyCount; i++) {
+            slots[i] = store.slotOf(keys[i]);
+            List<Price> rows = store.intervals(slots[i]).getPrices();
+            segmentCounts[i] = store.timeline(slots[i]).segmentCount();
+            priceCounts[i] = rows.size();
+            segmentCount += segmentCounts[i];
+            priceCount += priceCounts[i];
+            for (Price price : rows) {
+                currencyIds.putIfAbsent(price.getCurrency(), currencyIds.size());
+            }
+        }
+        if (segmentCount > Integer.MAX_VALUE || priceCount > Integer.MAX_VALUE || currencyIds.size() > 0xFFFF) {
+            throw new IllegalArgumentException("Too many prices for a single index file: " + priceCount);
+        }
+        Layout layout = new Layout(keyCount, (int) segmentCount, (int) priceCount);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(watermark)
+                .putLong(0)
+                .putInt(layout.keyCount)
+                .putInt(layout.segmentCount)
+                .putInt(layout.priceCount)
+                .putInt(currencyIds.size());
+        CRC32C checksum = new CRC32C();
+        updateWithHeader(checksum, header);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+            int segment = 0;
+            for (int count : segmentCounts) {
+                out.writeInt(segment);
+                segment += count;
+            }
+            out.writeInt(segment);
+            int row = 0;
+            for (int count : priceCounts) {
+                out.writeInt(row);
+                row += count;
+            }
+            out.writeInt(row);
+            out.write(new byte[(int) (layout.startsOffset - layout.firstPricesOffset - 4L * (keyCount + 1))]);
+
+            for (int slot : slots) {
+                PriceTimeline timeline = store.timeline(slot);
+                for (int i = 0; i < timeline.segmentCount(); i++) {
+                    out.writeLong(PrimitivePriceIndex.epochNanos(timeline.segmentStart(i)));
+                }
+            }
+            for (int slot : slots) {
+                PriceTimeline timeline = store.timeline(slot);
+                for (int i = 0; i < timeline.segmentCount(); i++) {
+                    out.writeLong(PrimitivePriceIndex.epochNanos(timeline.segmentEnd(i)));
+                }
+            }
+            int firstRow = 0;
+            for (int slot : slots) {
+                // Resolved again from the rows written below, so the winners are found among them
+                List<Price> rows = store.intervals(slot).getPrices();
+                PriceTimeline timeline = PriceTimeline.of(rows);
+                Map<Price, Integer> rowIndexes = new IdentityHashMap<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    rowIndexes.put(rows.get(i), i);
+                }
+                for (int i = 0; i < timeline.segmentCount(); i++) {
+                    out.writeInt(firstRow + rowIndexes.get(timeline.winner(i)));
+                }
+                firstRow += rows.size();
+            }
+            out.write(new byte[(int) (layout.rowsOffset - layout.winnersOffset - 4L * layout.segmentCount)]);
+
+            for (int slot : slots) {
+                for (Price price : store.intervals(slot).getPrices()) {
+                    BigDecimal amount = price.getPrice();
+                    if (amount.unscaledValue().bitLength() > 63 || amount.scale() != (short) amount.scale()) {
+                        throw new IllegalArgumentException("Price amount " + amount + " does not fit an index file");
+                    }
+                    out.writeLong(price.getStartDate().toEpochSecond(ZoneOffset.UTC));
+                    out.writeLong(price.getEndDate().toEpochSecond(ZoneOffset.UTC));
+                    out.writeLong(price.getPriceList());
+                    out.writeLong(amount.unscaledValue().longValue());
+                    out.writeInt(price.getStartDate().getNano());
+                    out.writeInt(price.getEndDate().getNano());
+                    out.writeInt(price.getPriority());
+                    out.writeShort(amount.scale());
+                    out.writeShort(currencyIds.get(price.getCurrency()));
+                }
+            }
+            for (String currency : currencyIds.keySet()) {
+                byte[] code = currency.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(code.length);
+                out.write(code);
+            }
+            out.flush();
+
+            header.putLong(CHECKSUM_OFFSET, checksum.getValue());
+            header.clear();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps an index file written by {@link #write(Path, long, PriceIndexStore)}.
+     *
+     * @param file the index file
+     * @return the index answering the lookups from the file
+     * @throws IOException if the file cannot be read, was written in another format version or is corrupted
+     */
+    public static MappedPriceIndex open(Path file) throws IOException {
+        ByteBuffer[] chunks;
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Price index file " + file + " is truncated");
+            }
+            chunks = new ByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long from = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(CHUNK_MASK + 1, size - from));
+            }
+        }
+
+        ByteBuffer header = chunks[0];
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a price index file");
+        }
+        if (header.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Price index file " + file + " has format version " + header.getInt(4)
+                    + ", expected " + FORMAT_VERSION);
+        }
+        CRC32C checksum = new CRC32C();
+        updateWithHeader(checksum, header);
+        for (int i = 0; i < chunks.length; i++) {
+            ByteBuffer chunk = chunks[i].duplicate();
+            chunk.position(i == 0 ? HEADER_SIZE : 0);
+            checksum.update(chunk);
+        }
+        if (checksum.getValue() != header.getLong(CHECKSUM_OFFSET)) {
+            throw new IOException("Price index file " + file + " does not match its checksum");
+        }
+
+        long watermark = header.getLong(8);
+        int keyCount = header.getInt(24);
+        int segmentCount = header.getInt(28);
+        int priceCount = header.getInt(32);
+        int currencyCount = header.getInt(36);
+        if (keyCount < 0 || segmentCount < 0 || priceCount < 0 || currencyCount < 0) {
+            throw new IOException("Price index file " + file + " has a corrupted header");
+        }
+        Layout layout = new Layout(keyCount, segmentCount, priceCount);
+        if (layout.currenciesOffset > size) {
+            throw new IOException("Price index file " + file + " is truncated");
+        }
+
+        MappedPriceIndex index = new MappedPriceIndex(chunks, watermark, layout, new String[currencyCount]);
+        long position = layout.currenciesOffset;
+        for (int i = 0; i < currencyCount; i++) {
+            if (position + 2 > size) {
+                throw new IOException("Price index file " + file + " is truncated");
+            }
+            int length = (index.getByte(position) & 0xFF) << 8 | index.getByte(position + 1) & 0xFF;
+            position += 2;
+            if (position + length > size) {
+                throw new IOException("Price index file " + file + " is truncated");
+            }
+            byte[] code = new byte[length];
+            for (int j = 0; j < length; j++) {
+                code[j] = index.getByte(position++);
+            }
+            index.currencies[i] = new String(code, StandardCharsets.UTF_8);
+        }
+        return index;
+    }
+
+    /**
+     * @return the highest row version of the price table covered by the file
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    @Override
+    public int slotOf(long key) {
+        int low = 0;
+        int high = layout.keyCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = keyInSlot(mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long keyInSlot(int slot) {
+        return getLong(layout.keysOffset + 8L * slot);
+    }
+
+    @Override
+    public Price applicablePrice(int slot, long epochNanos) {
+        int segment = SegmentSearch.find(getInt(layout.firstSegmentsOffset + 4L * slot),
+                getInt(layout.firstSegmentsOffset + 4L * (slot + 1)), starts, ends, epochNanos);
+        return segment < 0 ? null : price(keyInSlot(slot), getInt(layout.winnersOffset + 4L * segment));
+    }
+
+    @Override
+    public PriceTimeline timeline(int slot) {
+        return PriceTimeline.of(prices(slot));
+    }
+
+    @Override
+    public PriceIntervalList intervals(int slot) {
+        return new PriceIntervalList(prices(slot));
+    }
+
+    @Override
+    public int keyCount() {
+        return layout.keyCount;
+    }
+
+    @Override
+    public long size() {
+        return layout.priceCount;
+    }
+
+    private List<Price> prices(int slot) {
+        long key = keyInSlot(slot);
+        int first = getInt(layout.firstPricesOffset + 4L * slot);
+        int last = getInt(layout.firstPricesOffset + 4L * (slot + 1));
+        List<Price> prices = new ArrayList<>(last - first);
+        for (int row = first; row < last; row++) {
+            prices.add(price(key, row));
+        }
+        return prices;
+    }
+
+    private Price price(long key, int row) {
+        long at = layout.rowsOffset + (long) row * ROW_SIZE;
+        return new Price(
+                key >>> 32,
+                LocalDateTime.ofEpochSecond(getLong(at), getInt(at + 32), ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(getLong(at + 8), getInt(at + 36), ZoneOffset.UTC),
+                getLong(at + 16),
+                key & 0xFFFFFFFFL,
+                getInt(at + 40),
+                BigDecimal.valueOf(getLong(at + 24), getShort(at + 44)),
+                currencies[getShort(at + 46) & 0xFFFF]
+        );
+    }
+
+    // Covers the whole header but the checksum, so the watermark and the record counts are checked along the sections
+    private static void updateWithHeader(CRC32C checksum, ByteBuffer header) {
+        checksum.update(header.duplicate().position(0).limit(CHECKSUM_OFFSET));
+        checksum.update(header.duplicate().position(CHECKSUM_OFFSET + 8).limit(HEADER_SIZE));
+    }
+
+    // Every record is aligned on its own size, so none of them straddles two chunks
+
+    private long getLong(long position) {
+        return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & CHUNK_MASK));
+    }
+
+    private int getInt(long position) {
+        return chunks[(int) (position >>> CHUNK_BITS)].getInt((int) (position & CHUNK_MASK));
+    }
+
+    private short getShort(long position) {
+        return chunks[(int) (position >>> CHUNK_BITS)].getShort((int) (position & CHUNK_MASK));
+    }
+
+    private byte getByte(long position) {
+        return chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Offsets of the sections of a file holding the given number of records.
+     */
+    private static class Layout {
+        final int keyCount;
+        final int segmentCount;
+        final int priceCount;
+        final long keysOffset;
+        final long firstSegmentsOffset;
+        final long firstPricesOffset;
+        final long startsOffset;
+        final long endsOffset;
+        final long winnersOffset;
+        final long rowsOffset;
+        final long currenciesOffset;
+
+        Layout(int keyCount, int segmentCount, int priceCount) {
+            this.keyCount = keyCount;
+            this.segmentCount = segmentCount;
+            this.priceCount = priceCount;
+            keysOffset = HEADER_SIZE;
+            firstSegmentsOffset = keysOffset + 8L * keyCount;
+            firstPricesOffset = firstSegmentsOffset + 4L * (keyCount + 1);
+            startsOffset = alignLong(firstPricesOffset + 4L * (keyCount + 1));
+            endsOffset = startsOffset + 8L * segmentCount;
+            winnersOffset = endsOffset + 8L * segmentCount;
+            rowsOffset = alignLong(winnersOffset + 4L * segmentCount);
+            currenciesOffset = rowsOffset + (long) ROW_SIZE * priceCount;
+        }
+
+        private static long alignLong(long offset) {
+            return (offset + 7) & ~7L;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Current prices of the product and brand keys changed since a watermark.
+ */
+public class PriceChanges {
+    private final PriceWatermark watermark;
+    private final Map<PriceKey, List<Price>> pricesByKey;
+
+    public PriceChanges(PriceWatermark watermark, Map<PriceKey, List<Price>> pricesByKey) {
+        this.watermark = watermark;
+        this.pricesByKey = pricesByKey;
+    }
+
+    /**
+     * @return the rows read once these changes are applied
+     */
+    public PriceWatermark getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return every current price of each changed key, empty for a key without prices left
+     */
+    public Map<PriceKey, List<Price>> getPricesByKey() {
+        return pricesByKey;
+    }
+
+    public boolean isEmpty() {
+        return pricesByKey.isEmpty();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import org.h2.tools.TriggerAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Records a tombstone in {@code price_deletion} for the product and brand key a row of the price table leaves, when
+ * the row is deleted or updated to another key, so the {@link PriceTableLoader} finds that key changed although no
+ * row of the key holds a new version.
+ * <p>
+ * Called by the database within the deleting transaction: the tombstone takes the next row version and becomes
+ * visible along with the deletion, like any other change.
+ */
+public class PriceDeletionTrigger extends TriggerAdapter {
+    private static final String INSERT_SQL = "INSERT INTO price_deletion (brand_id, product_id) VALUES (?, ?)";
+
+    @Override
+    public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        long brandId = oldRow.getLong("brand_id");
+        long productId = oldRow.getLong("product_id");
+        if (newRow != null && newRow.getLong("brand_id") == brandId && newRow.getLong("product_id") == productId) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            statement.setLong(1, brandId);
+            statement.setLong(2, productId);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Immutable generation of the {@link InMemoryPriceIndex}, published by {@link PriceIndexGenerations}.
+ * <p>
+ * A generation is retired as soon as a newer one replaces it. Lookups that were reading it keep doing so until they
+ * are done, and the garbage collector frees it once the last of them has dropped it.
+ */
+public final class PriceIndexGeneration {
+    private final long id;
+    private final InMemoryPriceIndex index;
+    private final Instant builtAt;
+    private final Duration buildTime;
+    private volatile boolean retired;
+
+    PriceIndexGeneration(long id, InMemoryPriceIndex index, Instant builtAt, Duration buildTime) {
+        this.id = id;
+        this.index = index;
+        this.builtAt = builtAt;
+        this.buildTime = buildTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public InMemoryPriceIndex getIndex() {
+        return index;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public Duration getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * @return whether a newer generation has replaced this one
+     */
+    public boolean isRetired() {
+        return retired;
+    }
+
+    void retire() {
+        retired = true;
+    }
+}
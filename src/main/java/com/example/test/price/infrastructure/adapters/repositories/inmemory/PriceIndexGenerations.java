@@ -0,0 +1,117 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Holder of the current {@link PriceIndexGeneration}, swapping in new generations without ever blocking the readers.
+ * <p>
+ * A new index is built off to the side and published with a single volatile write, so a reader sees either the
+ * previous generation or the new one, never a half-built index. Readers take no lock and write nothing shared: a
+ * lookup reads {@link #current()} once and works on its immutable index until done, whatever is published in the
+ * meantime. A replaced generation is retired, and handed to the retirement listener, at once; the lookups still
+ * reading it keep it reachable, and the garbage collector frees it after the last one.
+ * <p>
+ * Every generation is tracked with a phantom reference, so that {@link #liveCount()} tells how many of them are
+ * still in memory, the ones held by slow lookups included, without the lookups counting themselves in and out, and
+ * {@link #releasedCount()} how many the garbage collector has freed. Retiring a generation only replaces it; its
+ * memory is released later, once enqueued.
+ * <p>
+ * Publishing is meant for a single writer at a time; concurrent writers would only lose each other's generation.
+ */
+public class PriceIndexGenerations {
+    private volatile PriceIndexGeneration current;
+    private final AtomicLong lastId = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final ReferenceQueue<PriceIndexGeneration> collected = new ReferenceQueue<>();
+    private final Set<Reference<PriceIndexGeneration>> live = ConcurrentHashMap.newKeySet();
+    private final Consumer<PriceIndexGeneration> retirementListener;
+
+    public PriceIndexGenerations() {
+        this(generation -> { });
+    }
+
+    public PriceIndexGenerations(Consumer<PriceIndexGeneration> retirementListener) {
+        this.retirementListener = retirementListener;
+    }
+
+    /**
+     * Publishes a new generation of the index, replacing and retiring the current one.
+     *
+     * @param index     the fully built index
+     * @param buildTime the time it took to build it
+     * @return the published generation
+     */
+    public PriceIndexGeneration publish(InMemoryPriceIndex index, Duration buildTime) {
+        PriceIndexGeneration generation = new PriceIndexGeneration(lastId.incrementAndGet(), index, Instant.now(),
+                buildTime);
+        live.add(new PhantomReference<>(generation, collected));
+        PriceIndexGeneration previous = current;
+        current = generation;
+        if (previous != null) {
+            previous.retire();
+            retired.incrementAndGet();
+            retirementListener.accept(previous);
+        }
+        return generation;
+    }
+
+    /**
+     * The current generation. A lookup reads it once and uses its index throughout, so that it sees a single
+     * generation from start to end.
+     *
+     * @return the current generation
+     * @throws IllegalStateException if no generation has been published yet
+     */
+    public PriceIndexGeneration current() {
+        PriceIndexGeneration generation = current;
+        if (generation == null) {
+            throw new IllegalStateException("No price index generation has been published yet");
+        }
+        return generation;
+    }
+
+    public boolean isPublished() {
+        return current != null;
+    }
+
+    /**
+     * @return the generations published and not freed by the garbage collector yet, the current one included
+     */
+    public int liveCount() {
+        drainCollected();
+        return live.size();
+    }
+
+    /**
+     * @return the generations freed by the garbage collector since this holder was created
+     */
+    public long releasedCount() {
+        drainCollected();
+        return released.get();
+    }
+
+    private void drainCollected() {
+        Reference<? extends PriceIndexGeneration> reference;
+        while ((reference = collected.poll()) != null) {
+            if (live.remove(reference)) {
+                released.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return the generations replaced since this holder was created
+     */
+    public long retiredCount() {
+        return retired.get();
+    }
+}
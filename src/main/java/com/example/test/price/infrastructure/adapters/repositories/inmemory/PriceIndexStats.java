@@ -0,0 +1,56 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import java.time.Instant;
+
+/**
+ * Point in time view of the {@link PriceIndexGeneration} serving the lookups of the
+ * {@link InMemoryPriceRepositoryAdapter}.
+ */
+public class PriceIndexStats {
+    private final long generation;
+    private final Instant builtAt;
+    private final long buildTimeMillis;
+    private final int keyCount;
+    private final long size;
+    private final int liveGenerations;
+    private final long retiredGenerations;
+
+    public PriceIndexStats(long generation, Instant builtAt, long buildTimeMillis, int keyCount, long size,
+                           int liveGenerations, long retiredGenerations) {
+        this.generation = generation;
+        this.builtAt = builtAt;
+        this.buildTimeMillis = buildTimeMillis;
+        this.keyCount = keyCount;
+        this.size = size;
+        this.liveGenerations = liveGenerations;
+        this.retiredGenerations = retiredGenerations;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public long getBuildTimeMillis() {
+        return buildTimeMillis;
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getLiveGenerations() {
+        return liveGenerations;
+    }
+
+    public long getRetiredGenerations() {
+        return retiredGenerations;
+    }
+}
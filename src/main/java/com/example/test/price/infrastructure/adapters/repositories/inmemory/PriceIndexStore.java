@@ -0,0 +1,82 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceTimeline;
+
+import java.util.List;
+
+/**
+ * Read-only storage of the prices of every product and brand, backing an {@link InMemoryPriceIndex}.
+ * <p>
+ * Keys are packed with {@link PrimitivePriceIndex#key(long, long)} and held in slots numbered from 0 to
+ * {@link #keyCount()} exclusive; instants are expressed in epoch nanoseconds, see
+ * {@link PrimitivePriceIndex#epochNanos(java.time.LocalDateTime)}. The timeline of a key is resolved from its prices
+ * in the order of its {@link PriceIntervalList}, so every store picks the same winner.
+ */
+public interface PriceIndexStore {
+
+    /**
+     * @param key the packed product and brand key
+     * @return the slot of the key, or {@code -1} if the store holds no price for the key
+     */
+    int slotOf(long key);
+
+    /**
+     * @param slot the slot of a key
+     * @return the packed key held in the slot
+     */
+    long keyInSlot(int slot);
+
+    /**
+     * @param slot       the slot of a key
+     * @param epochNanos the application instant in epoch nanoseconds
+     * @return the highest priority price of the key applying at the given instant, or {@code null} if none applies
+     */
+    Price applicablePrice(int slot, long epochNanos);
+
+    /**
+     * @param slot the slot of a key
+     * @return the resolved timeline of the key
+     */
+    PriceTimeline timeline(int slot);
+
+    /**
+     * @param slot the slot of a key
+     * @return every price of the key
+     */
+    PriceIntervalList intervals(int slot);
+
+    /**
+     * @return the number of product and brand keys held
+     */
+    int keyCount();
+
+    /**
+     * @return the number of prices held
+     */
+    long size();
+
+    /**
+     * Accumulates the prices of a store one key at a time.
+     */
+    interface Builder {
+
+        /**
+         * Sizes the store before the first key is added, so it does not grow while being filled. Only an estimate:
+         * the store still grows past it, or keeps the unused room short of it.
+         *
+         * @param keyCount the number of keys expected
+         * @param size     the number of prices expected
+         */
+        default void expect(int keyCount, long size) {
+        }
+
+        /**
+         * @param key    the packed product and brand key, added once
+         * @param prices every price of the key, at least one
+         */
+        void add(long key, List<Price> prices);
+
+        PriceIndexStore build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable list of the price intervals of a single product and brand, sorted by start date.
+ * <p>
+ * Alongside the sorted intervals it keeps the running maximum of the end dates, so a stabbing query
+ * only has to walk back from the last interval starting at or before the requested instant until the
+ * running maximum falls behind it. Interval bounds are inclusive, like the {@code BETWEEN} used by the
+ * database queries.
+ */
+public class PriceIntervalList {
+    private final Price[] prices;
+    private final LocalDateTime[] maxEndDates;
+
+    public PriceIntervalList(Collection<Price> prices) {
+        this.prices = prices.toArray(new Price[0]);
+        Arrays.sort(this.prices, Comparator.comparing(Price::getStartDate));
+
+        this.maxEndDates = new LocalDateTime[this.prices.length];
+        LocalDateTime maxEndDate = null;
+        for (int i = 0; i < this.prices.length; i++) {
+            LocalDateTime endDate = this.prices[i].getEndDate();
+            if (maxEndDate == null || endDate.isAfter(maxEndDate)) {
+                maxEndDate = endDate;
+            }
+            this.maxEndDates[i] = maxEndDate;
+        }
+    }
+
+    /**
+     * @param dateTime the application date and time
+     * @return every price whose interval contains the given instant, empty if none
+     */
+    public List<Price> findAllAt(LocalDateTime dateTime) {
+        List<Price> result = new ArrayList<>();
+        for (int i = lastStartingAtOrBefore(dateTime); i >= 0 && !maxEndDates[i].isBefore(dateTime); i--) {
+            if (!prices[i].getEndDate().isBefore(dateTime)) {
+                result.add(prices[i]);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return prices.length;
+    }
+
+    /**
+     * @return every price of the list, sorted by start date
+     */
+    public List<Price> getPrices() {
+        return Collections.unmodifiableList(Arrays.asList(prices));
+    }
+
+    private int lastStartingAtOrBefore(LocalDateTime dateTime) {
+        int low = 0;
+        int high = prices.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid].getStartDate().isAfter(dateTime)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high;
+    }
+}
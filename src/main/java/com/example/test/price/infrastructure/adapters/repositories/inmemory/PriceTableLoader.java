@@ -0,0 +1,192 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streams the rows of the price table straight into domain objects, without going through
+ * the JPA persistence context, so the whole table can be read without holding managed entities.
+ * <p>
+ * Every inserted or updated row takes a new {@code version}, so the keys changed since a watermark are found
+ * through the version index and read again, at a cost proportional to the number of changed keys. A row deleted, or
+ * moved to another key, leaves a tombstone of its former key in {@code price_deletion} through the
+ * {@link PriceDeletionTrigger}, taking a version of the same sequence, so that key is read again as well.
+ * <p>
+ * Versions are allocated when a row is written but become visible when its transaction commits, possibly after
+ * higher versions were read. The versions of the last {@code price.refresh.version-window} are read again on every
+ * refresh, and those not read yet mark their key as changed, so a transaction is picked up as long as fewer versions
+ * than the window are allocated while it is in flight.
+ */
+@Component
+public class PriceTableLoader {
+    private static final int FETCH_SIZE = 10_000;
+    private static final int KEYS_PER_QUERY = 500;
+
+    private static final String COLUMNS =
+            "brand_id, start_date, end_date, price_list, product_id, priority, price, currency";
+
+    /**
+     * Full read of the table, in the order of the lookup index so its rows come out of it without being sorted.
+     */
+    public static final String ALL_KEYS_SQL = "SELECT " + COLUMNS + " FROM price ORDER BY product_id, brand_id";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*), COALESCE(SUM(row_count), 0) FROM "
+            + "(SELECT COUNT(*) AS row_count FROM price GROUP BY product_id, brand_id) AS k";
+
+    private static final String MAX_VERSION_SQL = "SELECT GREATEST("
+            + "(SELECT COALESCE(MAX(version), 0) FROM price), (SELECT COALESCE(MAX(version), 0) FROM price_deletion))";
+
+    /**
+     * The key and version of every row and tombstone above a version, each table read through its version index.
+     */
+    private static final String VERSIONS_SINCE_SQL =
+            "SELECT brand_id, product_id, version FROM price WHERE version > ? "
+                    + "UNION ALL SELECT brand_id, product_id, version FROM price_deletion WHERE version > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long versionWindow;
+
+    @Autowired
+    public PriceTableLoader(JdbcTemplate jdbcTemplate,
+                            @Value("${price.refresh.version-window:100000}") long versionWindow) {
+        if (versionWindow < 1) {
+            throw new IllegalArgumentException("price.refresh.version-window must be positive: " + versionWindow);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.versionWindow = versionWindow;
+    }
+
+    /**
+     * Streams the whole table one product and brand at a time, in the order of the lookup index, so only the prices
+     * of a single key are held at once. Called after {@link #currentWatermark()}, so every row the
+     * watermark counts as read is streamed.
+     *
+     * @param consumer the consumer of every price of each key, called once per key
+     */
+    public void forEachKey(Consumer<List<Price>> consumer) {
+        List<Price> keyPrices = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(ALL_KEYS_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            Price price = toPrice(resultSet);
+            if (!keyPrices.isEmpty() && !isSameKey(keyPrices.get(0), price)) {
+                consumer.accept(new ArrayList<>(keyPrices));
+                keyPrices.clear();
+            }
+            keyPrices.add(price);
+        });
+        if (!keyPrices.isEmpty()) {
+            consumer.accept(keyPrices);
+        }
+    }
+
+    /**
+     * Sizes a store for the table from a count of its keys and rows, read from the lookup index alone. Rows changed
+     * between the count and {@link #forEachKey(Consumer)} only make the estimate a little off.
+     *
+     * @param builder the builder of the store about to be filled by {@link #forEachKey(Consumer)}
+     */
+    public void expectTableSize(PriceIndexStore.Builder builder) {
+        jdbcTemplate.query(COUNT_SQL, resultSet -> {
+            builder.expect(resultSet.getInt(1), resultSet.getLong(2));
+        });
+    }
+
+    private static boolean isSameKey(Price price, Price other) {
+        return price.getBrandId().equals(other.getBrandId()) && price.getProductId().equals(other.getProductId());
+    }
+
+    /**
+     * @return the watermark of the rows visible now, to read the table after
+     */
+    public PriceWatermark currentWatermark() {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM price WHERE version > (" + MAX_VERSION_SQL + ") - ? "
+                        + "UNION ALL SELECT version FROM price_deletion WHERE version > (" + MAX_VERSION_SQL + ") - ?",
+                Long.class, versionWindow, versionWindow);
+        long[] readVersions = versions.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new PriceWatermark(readVersions.length == 0 ? 0 : readVersions[readVersions.length - 1], readVersions);
+    }
+
+    /**
+     * @param watermark the rows already read
+     * @return the current prices of every key holding a row or a tombstone not read yet, along with the watermark
+     * reached
+     */
+    public PriceChanges findChangesSince(PriceWatermark watermark) {
+        Map<Long, Set<Long>> changedProductsByBrand = new HashMap<>();
+        List<Long> windowVersions = new ArrayList<>();
+        long[] newVersion = {watermark.getVersion()};
+        long floor = watermark.getVersion() - versionWindow;
+        jdbcTemplate.query(VERSIONS_SINCE_SQL,
+                resultSet -> {
+                    long version = resultSet.getLong("version");
+                    windowVersions.add(version);
+                    newVersion[0] = Math.max(newVersion[0], version);
+                    if (!watermark.hasRead(version)) {
+                        changedProductsByBrand.computeIfAbsent(resultSet.getLong("brand_id"), brand -> new HashSet<>())
+                                .add(resultSet.getLong("product_id"));
+                    }
+                },
+                floor, floor);
+        long newFloor = newVersion[0] - versionWindow;
+        PriceWatermark newWatermark = new PriceWatermark(newVersion[0],
+                windowVersions.stream().mapToLong(Long::longValue).filter(version -> version > newFloor).sorted().toArray());
+        if (changedProductsByBrand.isEmpty()) {
+            return new PriceChanges(newWatermark, Collections.emptyMap());
+        }
+
+        Map<PriceKey, List<Price>> pricesByKey = new HashMap<>();
+        changedProductsByBrand.forEach((brandId, changedProductIds) -> {
+            List<Long> productIds = new ArrayList<>(changedProductIds);
+            productIds.forEach(productId -> pricesByKey.put(new PriceKey(brandId, productId), new ArrayList<>()));
+            for (int from = 0; from < productIds.size(); from += KEYS_PER_QUERY) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + KEYS_PER_QUERY, productIds.size()));
+                Object[] arguments = new Object[chunk.size() + 1];
+                arguments[0] = brandId;
+                for (int i = 0; i < chunk.size(); i++) {
+                    arguments[i + 1] = chunk.get(i);
+                }
+                jdbcTemplate.query(
+                        "SELECT " + COLUMNS + " FROM price WHERE brand_id = ? AND product_id IN (" +
+                                String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                        resultSet -> {
+                            Price price = toPrice(resultSet);
+                            pricesByKey.get(new PriceKey(price.getBrandId(), price.getProductId())).add(price);
+                        },
+                        arguments);
+            }
+        });
+        return new PriceChanges(newWatermark, pricesByKey);
+    }
+
+    private static Price toPrice(ResultSet resultSet) throws SQLException {
+        return new Price(
+                resultSet.getLong("brand_id"),
+                resultSet.getTimestamp("start_date").toLocalDateTime(),
+                resultSet.getTimestamp("end_date").toLocalDateTime(),
+                resultSet.getLong("price_list"),
+                resultSet.getLong("product_id"),
+                resultSet.getInt("priority"),
+                resultSet.getBigDecimal("price"),
+                resultSet.getString("currency")
+        );
+    }
+}
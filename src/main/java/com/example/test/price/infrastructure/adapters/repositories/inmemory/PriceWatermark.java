@@ -0,0 +1,47 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import java.util.Arrays;
+
+/**
+ * Position of the in-memory index in the row versions of the price table: the highest version read, along with
+ * every version already read within the window below it.
+ * <p>
+ * Versions are taken from the sequence when a row is written, not when its transaction commits, so a row can become
+ * visible after rows of higher versions have been read. Each refresh therefore reads the versions of the whole
+ * window again and picks the ones it has not read yet, whatever their order.
+ */
+public class PriceWatermark {
+    private static final long[] NO_VERSIONS = new long[0];
+
+    private final long version;
+    private final long[] readVersions;
+
+    /**
+     * @param version      the highest version read
+     * @param readVersions the versions read within the window below it, sorted
+     */
+    PriceWatermark(long version, long[] readVersions) {
+        this.version = version;
+        this.readVersions = readVersions;
+    }
+
+    /**
+     * @param version the highest version read
+     * @return a watermark knowing of no version within its window, whose next refresh reads the whole window again
+     */
+    public static PriceWatermark at(long version) {
+        return new PriceWatermark(version, NO_VERSIONS);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param version a version within the window
+     * @return whether its row has been read already
+     */
+    boolean hasRead(long version) {
+        return Arrays.binarySearch(readVersions, version) >= 0;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceTimeline;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Allocation-free lookup path over the resolved {@link PriceTimeline} of every product and brand.
+ * <p>
+ * A product and brand pair is packed into a single {@code long} key, see {@link #key(long, long)}, and instants
+ * are expressed as nanoseconds since the epoch read as UTC, see {@link #epochNanos(LocalDateTime)}. The segments
+ * of all timelines are laid out back to back in primitive arrays, those of a key being found through a
+ * {@link LongIntHashMap}, so resolving the winning price neither boxes nor allocates: the only object touched is
+ * the already existing {@link Price} returned by {@link #winner(int)}.
+ * <p>
+ * Instants are clamped to the years 1677 to 2262 representable in epoch nanoseconds; a price without end date
+ * keeps applying up to the end of that range.
+ */
+public class PrimitivePriceIndex {
+    private static final long MAX_ID = 0xFFFFFFFFL;
+    private static final long MAX_EPOCH_SECOND = Long.MAX_VALUE / 1_000_000_000L - 1;
+    private static final long MIN_EPOCH_SECOND = Long.MIN_VALUE / 1_000_000_000L + 1;
+
+    private final LongIntHashMap keySlots;
+    private final long[] slotKeys;
+    private final int[] firstSegments;
+    private final long[] segmentStarts;
+    private final long[] segmentEnds;
+    private final Price[] winners;
+    private final PriceTimeline[] timelines;
+    private final IntToLongFunction starts;
+    private final IntToLongFunction ends;
+
+    private PrimitivePriceIndex(LongIntHashMap keySlots, long[] slotKeys, int[] firstSegments, long[] segmentStarts,
+                                long[] segmentEnds, Price[] winners, PriceTimeline[] timelines) {
+        this.keySlots = keySlots;
+        this.slotKeys = slotKeys;
+        this.firstSegments = firstSegments;
+        this.segmentStarts = segmentStarts;
+        this.segmentEnds = segmentEnds;
+        this.winners = winners;
+        this.timelines = timelines;
+        this.starts = segment -> segmentStarts[segment];
+        this.ends = segment -> segmentEnds[segment];
+    }
+
+    /**
+     * @param timelines the resolved timeline of every product and brand, keyed by {@link #key(long, long)}
+     * @return the index
+     */
+    public static PrimitivePriceIndex of(Map<Long, PriceTimeline> timelines) {
+        int segmentCount = 0;
+        for (PriceTimeline timeline : timelines.values()) {
+            segmentCount += timeline.segmentCount();
+        }
+
+        LongIntHashMap keySlots = new LongIntHashMap(timelines.size());
+        long[] slotKeys = new long[timelines.size()];
+        int[] firstSegments = new int[timelines.size() + 1];
+        long[] segmentStarts = new long[segmentCount];
+        long[] segmentEnds = new long[segmentCount];
+        Price[] winners = new Price[segmentCount];
+        PriceTimeline[] slotTimelines = new PriceTimeline[timelines.size()];
+
+        int slot = 0;
+        int segment = 0;
+        for (Map.Entry<Long, PriceTimeline> entry : timelines.entrySet()) {
+            PriceTimeline timeline = entry.getValue();
+            keySlots.put(entry.getKey(), slot);
+            slotKeys[slot] = entry.getKey();
+            slotTimelines[slot] = timeline;
+            firstSegments[slot] = segment;
+            for (int i = 0; i < timeline.segmentCount(); i++, segment++) {
+                segmentStarts[segment] = epochNanos(timeline.segmentStart(i));
+                segmentEnds[segment] = epochNanos(timeline.segmentEnd(i));
+                winners[segment] = timeline.winner(i);
+            }
+            slot++;
+        }
+        firstSegments[slot] = segment;
+        return new PrimitivePriceIndex(keySlots, slotKeys, firstSegments, segmentStarts, segmentEnds, winners, slotTimelines);
+    }
+
+    /**
+     * Packs a brand and product identifier pair into a single key, the brand in the high 32 bits.
+     *
+     * @param brandId   the brand identifier, between 0 and 2<sup>32</sup> - 1
+     * @param productId the product identifier, between 0 and 2<sup>32</sup> - 1
+     * @return the packed key
+     * @throws IllegalArgumentException if an identifier does not fit in 32 bits
+     */
+    public static long key(long brandId, long productId) {
+        if (!isPackable(brandId) || !isPackable(productId)) {
+            throw new IllegalArgumentException(
+                    "Brand ID " + brandId + " and product ID " + productId + " must be between 0 and " + MAX_ID);
+        }
+        return brandId << 32 | productId;
+    }
+
+    /**
+     * @param id a brand or product identifier
+     * @return whether the identifier can be part of a {@link #key(long, long) packed key}
+     */
+    public static boolean isPackable(long id) {
+        return id >= 0 && id <= MAX_ID;
+    }
+
+    /**
+     * @param dateTime a date and time, read as UTC
+     * @return the nanoseconds since the epoch, clamped to the range of a {@code long}
+     */
+    public static long epochNanos(LocalDateTime dateTime) {
+        long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        if (epochSecond > MAX_EPOCH_SECOND) {
+            return Long.MAX_VALUE;
+        }
+        if (epochSecond < MIN_EPOCH_SECOND) {
+            return Long.MIN_VALUE;
+        }
+        return epochSecond * 1_000_000_000L + dateTime.getNano();
+    }
+
+    /**
+     * @param epochNanos nanoseconds since the epoch
+     * @return the date and time they stand for, read as UTC, the inverse of {@link #epochNanos(LocalDateTime)}
+     */
+    public static LocalDateTime dateTime(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * @param key        the packed product and brand key
+     * @param epochNanos the application instant in epoch nanoseconds
+     * @return the segment holding the winning price at the given instant, or {@code -1} if no price applies
+     */
+    public int segmentAt(long key, long epochNanos) {
+        int slot = keySlots.get(key);
+        return slot < 0 ? -1 : segmentInSlot(slot, epochNanos);
+    }
+
+    /**
+     * @param key the packed product and brand key
+     * @return the slot of the key, from 0 to {@link #keyCount()} exclusive, or {@code -1} if the index holds no
+     * timeline for the key
+     */
+    public int slotOf(long key) {
+        return keySlots.get(key);
+    }
+
+    /**
+     * @param slot       the slot of a key, from 0 to {@link #keyCount()} exclusive
+     * @param epochNanos the application instant in epoch nanoseconds
+     * @return the segment holding the winning price of the key at the given instant, or {@code -1} if no price applies
+     */
+    public int segmentInSlot(int slot, long epochNanos) {
+        return SegmentSearch.find(firstSegments[slot], firstSegments[slot + 1], starts, ends, epochNanos);
+    }
+
+    /**
+     * @param slot the slot of a key, from 0 to {@link #keyCount()} exclusive
+     * @return the packed key held in the slot
+     */
+    public long keyInSlot(int slot) {
+        return slotKeys[slot];
+    }
+
+    /**
+     * @param slot the slot of a key, from 0 to {@link #keyCount()} exclusive
+     * @return the resolved timeline of the key held in the slot
+     */
+    public PriceTimeline timelineInSlot(int slot) {
+        return timelines[slot];
+    }
+
+    /**
+     * @param segment a segment returned by {@link #segmentAt(long, long)}
+     * @return the price winning over the segment
+     */
+    public Price winner(int segment) {
+        return winners[segment];
+    }
+
+    /**
+     * @param key the packed product and brand key
+     * @return whether the index holds a timeline for the key, even an empty one
+     */
+    public boolean contains(long key) {
+        return keySlots.get(key) >= 0;
+    }
+
+    /**
+     * @param key the packed product and brand key
+     * @return the resolved timeline of the key, or {@code null} if the index holds none for the key
+     */
+    public PriceTimeline timeline(long key) {
+        int slot = keySlots.get(key);
+        return slot < 0 ? null : timelines[slot];
+    }
+
+    public int keyCount() {
+        return timelines.length;
+    }
+}
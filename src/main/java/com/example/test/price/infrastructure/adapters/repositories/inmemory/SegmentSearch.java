@@ -0,0 +1,37 @@
+package com.example.test.price.infrastructure.adapters.repositories.inmemory;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * Binary search of the segment holding an instant among the segments of a key, for the stores laying the segments
+ * of every timeline out back to back, whatever they read them from.
+ */
+final class SegmentSearch {
+
+    private SegmentSearch() {
+    }
+
+    /**
+     * @param first      the first segment of the key
+     * @param end        the segment following the last one of the key
+     * @param starts     the inclusive start of a segment, in epoch nanoseconds, ascending within the key
+     * @param ends       the exclusive end of a segment, in epoch nanoseconds
+     * @param epochNanos the instant in epoch nanoseconds
+     * @return the segment holding the instant, or {@code -1} if none of the key does
+     */
+    static int find(int first, int end, IntToLongFunction starts, IntToLongFunction ends, long epochNanos) {
+        // Open-ended segments end at Long.MAX_VALUE, so a clamped instant must stay below it
+        long instant = Math.min(epochNanos, Long.MAX_VALUE - 1);
+        int low = first;
+        int high = end - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts.applyAsLong(mid) > instant) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high >= first && ends.applyAsLong(high) > instant ? high : -1;
+    }
+}
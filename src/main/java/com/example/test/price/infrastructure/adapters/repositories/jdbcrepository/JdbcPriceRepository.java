@@ -0,0 +1,191 @@
+package com.example.test.price.infrastructure.adapters.repositories.jdbcrepository;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKeyRange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only counterpart of the price queries of the JPA repository, mapping the result sets straight into
+ * {@link Price} domain objects.
+ * <p>
+ * No entity is instantiated, registered in a persistence context or snapshotted for dirty checking, and no second
+ * copy into the domain model is made. Every query is a single read-only statement run with autocommit, outside
+ * any transaction of its own, so it costs one round trip to the database and no entity manager is opened for it.
+ */
+@Repository
+public class JdbcPriceRepository {
+    private static final String COLUMNS =
+            "brand_id, start_date, end_date, price_list, product_id, priority, price, currency";
+
+    private static final RowMapper<Price> PRICE_ROW_MAPPER = (resultSet, rowNum) -> new Price(
+            resultSet.getLong("brand_id"),
+            resultSet.getTimestamp("start_date").toLocalDateTime(),
+            resultSet.getTimestamp("end_date").toLocalDateTime(),
+            resultSet.getLong("price_list"),
+            resultSet.getLong("product_id"),
+            resultSet.getInt("priority"),
+            resultSet.getBigDecimal("price"),
+            resultSet.getString("currency")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public JdbcPriceRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Find the price with the highest priority applicable at a specific date time for a product and brand,
+     * ordered like the lookup index so the rows come out of it already sorted
+     *
+     * @param dateTime the date and time to check
+     * @param productId the product ID
+     * @param brandId the brand ID
+     * @return an Optional containing the applicable price if one exists, or an empty Optional if none is found
+     */
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        List<Price> prices = query(
+                "SELECT " + COLUMNS + " FROM price " +
+                        "WHERE product_id = :productId AND brand_id = :brandId " +
+                        "AND :dateTime BETWEEN start_date AND end_date " +
+                        "ORDER BY product_id, brand_id, priority DESC FETCH FIRST 1 ROW ONLY",
+                keyParameters(productId, brandId).addValue("dateTime", Timestamp.valueOf(dateTime)));
+        return prices.stream().findFirst();
+    }
+
+    /**
+     * Retrieves a list of prices at a specific date time for a product and brand
+     *
+     * @param dateTime the date and time to check
+     * @param productId the product ID
+     * @param brandId the brand ID
+     * @return the list of prices that are applicable, if none results an empty list
+     */
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return query(
+                "SELECT " + COLUMNS + " FROM price " +
+                        "WHERE product_id = :productId AND brand_id = :brandId " +
+                        "AND :dateTime BETWEEN start_date AND end_date",
+                keyParameters(productId, brandId).addValue("dateTime", Timestamp.valueOf(dateTime)));
+    }
+
+    /**
+     * Retrieves the prices of a product applicable at a specific date time, grouped by brand and in descending
+     * priority within a brand, so the first row of each brand is its highest priority price
+     *
+     * @param dateTime the date and time to check
+     * @param productId the product ID
+     * @param brandIds the brand IDs, every brand if empty
+     * @return the list of prices that are applicable, if none results an empty list
+     */
+    public List<Price> findApplicablePricesOfBrandsAt(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("dateTime", Timestamp.valueOf(dateTime));
+        String brandFilter = "";
+        if (!brandIds.isEmpty()) {
+            brandFilter = "AND brand_id IN (:brandIds) ";
+            parameters.addValue("brandIds", brandIds);
+        }
+        return query(
+                "SELECT " + COLUMNS + " FROM price " +
+                        "WHERE product_id = :productId " + brandFilter +
+                        "AND :dateTime BETWEEN start_date AND end_date " +
+                        "ORDER BY product_id, brand_id, priority DESC",
+                parameters);
+    }
+
+    /**
+     * Retrieves the prices of a product and brand overlapping the date range spanned by its prices applicable at a
+     * specific date time: the only rows that can bound the window over which the winner at that date time keeps
+     * winning
+     *
+     * @param dateTime the date and time to check
+     * @param productId the product ID
+     * @param brandId the brand ID
+     * @return the list of prices around the date time, empty if no price is applicable at it
+     */
+    public List<Price> findPricesAroundAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        String applicable = "FROM price WHERE product_id = :productId AND brand_id = :brandId " +
+                "AND :dateTime BETWEEN start_date AND end_date";
+        return query(
+                "SELECT " + COLUMNS + " FROM price " +
+                        "WHERE product_id = :productId AND brand_id = :brandId " +
+                        "AND end_date >= (SELECT MIN(start_date) " + applicable + ") " +
+                        "AND start_date <= (SELECT MAX(end_date) " + applicable + ")",
+                keyParameters(productId, brandId).addValue("dateTime", Timestamp.valueOf(dateTime)));
+    }
+
+    /**
+     * Retrieves every price of a product and brand overlapping a date time range
+     *
+     * @param productId the product ID
+     * @param brandId the brand ID
+     * @param from the earliest date time to check
+     * @param to the latest date time to check
+     * @return the list of prices overlapping the range, if none results an empty list
+     */
+    public List<Price> findPricesOverlapping(Long productId, Long brandId, LocalDateTime from, LocalDateTime to) {
+        return query(
+                "SELECT " + COLUMNS + " FROM price " +
+                        "WHERE product_id = :productId AND brand_id = :brandId " +
+                        "AND start_date <= :to AND end_date >= :from",
+                keyParameters(productId, brandId)
+                        .addValue("from", Timestamp.valueOf(from))
+                        .addValue("to", Timestamp.valueOf(to)));
+    }
+
+    /**
+     * Retrieves, in a single query, the prices of each given product and brand overlapping its own date time range.
+     * The ranges are joined to the table as a list of rows, so each key seeks the lookup index on its own and no
+     * other product and brand combination is read.
+     *
+     * @param ranges the product and brand ranges, not empty
+     * @return the list of prices overlapping the range of their key, if none results an empty list
+     */
+    public List<Price> findPricesOverlapping(Collection<PriceKeyRange> ranges) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder values = new StringBuilder();
+        int i = 0;
+        for (PriceKeyRange range : ranges) {
+            values.append(i == 0 ? "" : ", ")
+                    .append("(CAST(:productId").append(i).append(" AS BIGINT), ")
+                    .append("CAST(:brandId").append(i).append(" AS BIGINT), ")
+                    .append("CAST(:from").append(i).append(" AS TIMESTAMP), ")
+                    .append("CAST(:to").append(i).append(" AS TIMESTAMP))");
+            parameters.addValue("productId" + i, range.getKey().getProductId())
+                    .addValue("brandId" + i, range.getKey().getBrandId())
+                    .addValue("from" + i, Timestamp.valueOf(range.getFrom()))
+                    .addValue("to" + i, Timestamp.valueOf(range.getTo()));
+            i++;
+        }
+        return query(
+                "SELECT p.brand_id, p.start_date, p.end_date, p.price_list, p.product_id, p.priority, p.price, " +
+                        "p.currency " +
+                        "FROM price p JOIN (VALUES " + values + ") AS r (product_id, brand_id, from_date, to_date) " +
+                        "ON p.product_id = r.product_id AND p.brand_id = r.brand_id " +
+                        "AND p.start_date <= r.to_date AND p.end_date >= r.from_date",
+                parameters);
+    }
+
+    private List<Price> query(String sql, MapSqlParameterSource parameters) {
+        return jdbcTemplate.query(sql, parameters, PRICE_ROW_MAPPER);
+    }
+
+    private static MapSqlParameterSource keyParameters(Long productId, Long brandId) {
+        return new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("brandId", brandId);
+    }
+}
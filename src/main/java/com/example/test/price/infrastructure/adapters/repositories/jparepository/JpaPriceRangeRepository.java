@@ -0,0 +1,23 @@
+package com.example.test.price.infrastructure.adapters.repositories.jparepository;
+
+import com.example.test.price.domain.models.PriceKeyRange;
+import com.example.test.price.infrastructure.adapters.repositories.jparepository.entities.JpaPriceEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Price queries of the {@link JpaPriceRepository} that JPQL cannot express.
+ */
+public interface JpaPriceRangeRepository {
+
+    /**
+     * Retrieves, in a single query, the prices of each given product and brand overlapping its own date time range.
+     * The ranges are joined to the table as a list of rows, so each key seeks the lookup index on its own and no
+     * other product and brand combination is read.
+     *
+     * @param ranges the product and brand ranges, not empty
+     * @return the list of prices overlapping the range of their key, if none results an empty list
+     */
+    List<JpaPriceEntity> findPricesOverlapping(Collection<PriceKeyRange> ranges);
+}
@@ -0,0 +1,48 @@
+package com.example.test.price.infrastructure.adapters.repositories.jparepository;
+
+import com.example.test.price.domain.models.PriceKeyRange;
+import com.example.test.price.infrastructure.adapters.repositories.jparepository.entities.JpaPriceEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Native implementation of the {@link JpaPriceRangeRepository} queries, picked up by Spring Data through its name.
+ */
+public class JpaPriceRangeRepositoryImpl implements JpaPriceRangeRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<JpaPriceEntity> findPricesOverlapping(Collection<PriceKeyRange> ranges) {
+        StringBuilder values = new StringBuilder();
+        int parameter = 1;
+        for (int i = 0; i < ranges.size(); i++) {
+            values.append(i == 0 ? "" : ", ")
+                    .append("(CAST(?").append(parameter++).append(" AS BIGINT), ")
+                    .append("CAST(?").append(parameter++).append(" AS BIGINT), ")
+                    .append("CAST(?").append(parameter++).append(" AS TIMESTAMP), ")
+                    .append("CAST(?").append(parameter++).append(" AS TIMESTAMP))");
+        }
+        Query query = entityManager.createNativeQuery(
+                "SELECT p.id, p.brand_id, p.start_date, p.end_date, p.price_list, p.product_id, p.priority, " +
+                        "p.price, p.currency " +
+                        "FROM price p JOIN (VALUES " + values + ") AS r (product_id, brand_id, from_date, to_date) " +
+                        "ON p.product_id = r.product_id AND p.brand_id = r.brand_id " +
+                        "AND p.start_date <= r.to_date AND p.end_date >= r.from_date",
+                JpaPriceEntity.class);
+        parameter = 1;
+        for (PriceKeyRange range : ranges) {
+            query.setParameter(parameter++, range.getKey().getProductId());
+            query.setParameter(parameter++, range.getKey().getBrandId());
+            query.setParameter(parameter++, range.getFrom());
+            query.setParameter(parameter++, range.getTo());
+        }
+        return query.getResultList();
+    }
+}
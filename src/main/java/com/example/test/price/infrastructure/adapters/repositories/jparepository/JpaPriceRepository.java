@@ -6,13 +6,16 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface JpaPriceRepository extends JpaRepository<JpaPriceEntity, Long> {
+public interface JpaPriceRepository extends JpaRepository<JpaPriceEntity, Long>, JpaPriceRangeRepository {
 
     /**
-     * Find the price with the highest priority applicable at a specific date time for a product and brand
+     * Find the price with the highest priority applicable at a specific date time for a product and brand.
+     * The constant product and brand lead the ORDER BY so it matches the lookup index, which then returns the rows
+     * already sorted.
      *
      * @param dateTime the date and time to check
      * @param productId the product ID
@@ -23,7 +26,7 @@ public interface JpaPriceRepository extends JpaRepository<JpaPriceEntity, Long>
             "WHERE p.productId = :productId " +
             "AND p.brandId = :brandId " +
             "AND :dateTime BETWEEN p.startDate AND p.endDate " +
-            "ORDER BY p.priority DESC LIMIT 1")
+            "ORDER BY p.productId, p.brandId, p.priority DESC LIMIT 1")
     Optional<JpaPriceEntity> findApplicablePriceAt(
             @Param("dateTime") LocalDateTime dateTime,
             @Param("productId") Long productId,
@@ -45,4 +48,84 @@ public interface JpaPriceRepository extends JpaRepository<JpaPriceEntity, Long>
             @Param("dateTime") LocalDateTime dateTime,
             @Param("productId") Long productId,
             @Param("brandId") Long brandId);
+
+    /**
+     * Retrieves the prices of a product applicable at a specific date time, for every brand, grouped by brand and in
+     * descending priority within a brand, so the first row of each brand is its highest priority price. The constant
+     * product leads the ORDER BY so it matches the lookup index, which then returns the rows already sorted.
+     *
+     * @param dateTime the date and time to check
+     * @param productId the product ID
+     * @return the list of prices that are applicable, if none results an empty list
+     */
+    @Query("SELECT p FROM JpaPriceEntity p " +
+            "WHERE p.productId = :productId " +
+            "AND :dateTime BETWEEN p.startDate AND p.endDate " +
+            "ORDER BY p.productId, p.brandId, p.priority DESC")
+    List<JpaPriceEntity> findApplicablePricesOfEveryBrandAt(
+            @Param("dateTime") LocalDateTime dateTime,
+            @Param("productId") Long productId);
+
+    /**
+     * Retrieves the prices of a product applicable at a specific date time, for the given brands, grouped by brand
+     * and in descending priority within a brand, so the first row of each brand is its highest priority price
+     *
+     * @param dateTime the date and time to check
+     * @param productId the product ID
+     * @param brandIds the brand IDs, not empty
+     * @return the list of prices that are applicable, if none results an empty list
+     */
+    @Query("SELECT p FROM JpaPriceEntity p " +
+            "WHERE p.productId = :productId " +
+            "AND p.brandId IN :brandIds " +
+            "AND :dateTime BETWEEN p.startDate AND p.endDate " +
+            "ORDER BY p.productId, p.brandId, p.priority DESC")
+    List<JpaPriceEntity> findApplicablePricesOfBrandsAt(
+            @Param("dateTime") LocalDateTime dateTime,
+            @Param("productId") Long productId,
+            @Param("brandIds") Collection<Long> brandIds);
+
+    /**
+     * Retrieves the prices of a product and brand overlapping the date range spanned by its prices applicable at a
+     * specific date time. The winner at that date time only wins within its own range, so these are the only rows
+     * that can bound the window over which it keeps winning, whatever the length of the history of the key.
+     *
+     * @param dateTime the date and time to check
+     * @param productId the product ID
+     * @param brandId the brand ID
+     * @return the list of prices around the date time, empty if no price is applicable at it
+     */
+    @Query("SELECT p FROM JpaPriceEntity p " +
+            "WHERE p.productId = :productId " +
+            "AND p.brandId = :brandId " +
+            "AND p.endDate >= (SELECT MIN(a.startDate) FROM JpaPriceEntity a " +
+            "WHERE a.productId = :productId AND a.brandId = :brandId " +
+            "AND :dateTime BETWEEN a.startDate AND a.endDate) " +
+            "AND p.startDate <= (SELECT MAX(a.endDate) FROM JpaPriceEntity a " +
+            "WHERE a.productId = :productId AND a.brandId = :brandId " +
+            "AND :dateTime BETWEEN a.startDate AND a.endDate)")
+    List<JpaPriceEntity> findPricesAroundAt(
+            @Param("dateTime") LocalDateTime dateTime,
+            @Param("productId") Long productId,
+            @Param("brandId") Long brandId);
+
+    /**
+     * Retrieves every price of a product and brand overlapping a date time range
+     *
+     * @param productId the product ID
+     * @param brandId the brand ID
+     * @param from the earliest date time to check
+     * @param to the latest date time to check
+     * @return the list of prices overlapping the range, if none results an empty list
+     */
+    @Query("SELECT p FROM JpaPriceEntity p " +
+            "WHERE p.productId = :productId " +
+            "AND p.brandId = :brandId " +
+            "AND p.startDate <= :to " +
+            "AND p.endDate >= :from")
+    List<JpaPriceEntity> findPricesOverlapping(
+            @Param("productId") Long productId,
+            @Param("brandId") Long brandId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
 }
\ No newline at end of file
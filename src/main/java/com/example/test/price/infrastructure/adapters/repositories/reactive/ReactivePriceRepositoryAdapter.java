@@ -0,0 +1,101 @@
+package com.example.test.price.infrastructure.adapters.repositories.reactive;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.domain.ports.out.ReactivePriceRepositoryPort;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * {@link ReactivePriceRepositoryPort} on top of the configured {@link PriceRepositoryPort}: a blocking adapter
+ * behind a Reactor API, not a reactive driver. Enabled with {@code price.reactive.enabled=true}, for comparing it
+ * with the blocking endpoints.
+ * <p>
+ * With the {@code in-memory} repository a lookup never blocks, so it runs straight on the subscribing thread.
+ * With the {@code jpa} repository every lookup is still a blocking JDBC call, holding a thread of a bounded elastic
+ * scheduler and a database connection until it returns. The scheduler has as many threads as database connections:
+ * it frees the servlet request threads, but throughput is that of the blocking repository, and lookups beyond the
+ * pool wait in the task queue of the scheduler, failing once it is full.
+ * <p>
+ * Batches are pulled from upstream in chunks of {@code price.reactive.batch-chunk-size} lookups, one chunk at a
+ * time and only as fast as downstream consumes the results. Each chunk is materialized as a list and resolved by a
+ * single blocking batch lookup.
+ */
+@Component
+@ConditionalOnProperty(name = "price.reactive.enabled", havingValue = "true")
+public class ReactivePriceRepositoryAdapter implements ReactivePriceRepositoryPort {
+
+    private static final int MAX_QUEUED_TASKS = 10_000;
+
+    private final PriceRepositoryPort priceRepositoryPort;
+    private final Scheduler blockingScheduler;
+    private final int batchChunkSize;
+
+    @Autowired
+    public ReactivePriceRepositoryAdapter(PriceRepositoryPort priceRepositoryPort,
+                                          @Value("${price.repository.type:jpa}") String repositoryType,
+                                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                                          @Value("${price.reactive.batch-chunk-size:100}") int batchChunkSize) {
+        this(priceRepositoryPort,
+                "in-memory".equals(repositoryType)
+                        ? Schedulers.immediate()
+                        : Schedulers.newBoundedElastic(connectionPoolSize, MAX_QUEUED_TASKS, "price-jdbc"),
+                batchChunkSize);
+    }
+
+    public ReactivePriceRepositoryAdapter(PriceRepositoryPort priceRepositoryPort, Scheduler blockingScheduler,
+                                          int batchChunkSize) {
+        this.priceRepositoryPort = priceRepositoryPort;
+        this.blockingScheduler = blockingScheduler;
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        blockingScheduler.dispose();
+    }
+
+    @Override
+    public Mono<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return call(() -> priceRepositoryPort.findApplicablePriceAt(dateTime, productId, brandId).orElse(null));
+    }
+
+    @Override
+    public Flux<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return call(() -> priceRepositoryPort.findApplicablePricesAt(dateTime, productId, brandId))
+                .flatMapIterable(prices -> prices);
+    }
+
+    @Override
+    public Flux<PriceLookupResult> findApplicablePriceBatch(Flux<PriceQuery> queries) {
+        return queries
+                .buffer(batchChunkSize)
+                .concatMap(chunk -> call(() -> resolve(chunk)), 1)
+                .flatMapIterable(results -> results);
+    }
+
+    private List<PriceLookupResult> resolve(List<PriceQuery> chunk) {
+        Map<PriceQuery, Price> prices = priceRepositoryPort.findApplicablePriceBatch(chunk);
+        return chunk.stream()
+                .map(query -> new PriceLookupResult(query, prices.get(query)))
+                .toList();
+    }
+
+    private <T> Mono<T> call(Callable<T> blockingCall) {
+        return Mono.fromCallable(blockingCall).subscribeOn(blockingScheduler);
+    }
+}
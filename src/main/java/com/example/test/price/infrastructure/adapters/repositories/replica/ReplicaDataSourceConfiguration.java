@@ -0,0 +1,62 @@
+package com.example.test.price.infrastructure.adapters.repositories.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the application data source by a {@link ReplicaRoutingDataSource} over the {@code spring.datasource}
+ * primary and the replicas listed in {@code price.replicas.urls}, which share its credentials and pool settings.
+ * <p>
+ * With {@code price.replicas.migrate=true} the Flyway migrations also run on every replica at startup, so that
+ * separate local databases, such as named in-memory H2 instances, can stand in for replicas. Nothing replicates
+ * to them afterwards.
+ */
+@Configuration
+@ConditionalOnProperty(name = "price.replicas.urls")
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(HikariDataSource primaryDataSource,
+                                               DataSourceProperties dataSourceProperties,
+                                               @Value("${price.replicas.urls}") String[] replicaUrls,
+                                               @Value("${price.replicas.migrate:false}") boolean migrate,
+                                               @Value("${spring.flyway.locations:classpath:db/migration}") String[] migrationLocations) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int replica = 0; replica < replicaUrls.length; replica++) {
+            String url = replicaUrls[replica].trim();
+            if (migrate) {
+                Flyway.configure()
+                        .dataSource(url, dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())
+                        .locations(migrationLocations)
+                        .load()
+                        .migrate();
+            }
+
+            HikariDataSource replicaDataSource = new HikariDataSource();
+            primaryDataSource.copyStateTo(replicaDataSource);
+            replicaDataSource.setJdbcUrl(url);
+            replicaDataSource.setPoolName("price-replica-" + replica);
+            replicaDataSource.setReadOnly(true);
+            replicas.add(replicaDataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+}
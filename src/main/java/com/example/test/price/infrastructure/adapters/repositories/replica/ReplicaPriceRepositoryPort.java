@@ -0,0 +1,273 @@
+package com.example.test.price.infrastructure.adapters.repositories.replica;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.PriceRepositoryFutures;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link PriceRepositoryPort} sending the lookups of the underlying repository to the replicas of a
+ * {@link ReplicaRoutingDataSource}, in turn.
+ * <p>
+ * With hedging, a lookup runs on the thread of its caller. Once it has taken longer than the given percentile of the
+ * recent replica lookups, never less than a minimum delay, the same lookup is sent to a second target, the next
+ * replica or the primary when there is a single one, on a thread of a bounded pool. The first of the two attempts to
+ * answer wins and the statements of the other one are cancelled. A failure only surfaces when both attempts failed,
+ * or when the first attempt failed before the delay.
+ * <p>
+ * Hedges are capped by a budget, a share of the lookups: every lookup earns that share of a hedge, up to a burst of
+ * {@value #MAX_HEDGE_BURST} hedges, and every hedge spends a whole one. A lookup whose hedge is over the budget, or
+ * finds every hedge thread busy, waits for its first attempt alone.
+ * <p>
+ * The catalog snapshot stays on the primary: its partitions run on threads of their own.
+ */
+public class ReplicaPriceRepositoryPort implements PriceRepositoryPort {
+    private static final int LATENCY_WINDOW = 1024;
+    private static final int MAX_HEDGE_BURST = 10;
+    private static final long HEDGE_COST = 1_000_000;
+
+    private final PriceRepositoryPort delegate;
+    private final ReplicaRoutingDataSource routing;
+    private final boolean hedging;
+    private final long minHedgeDelayNanos;
+    private final RollingPercentile latencies;
+    private final long hedgeCreditsPerLookup;
+    private final long maxHedgeCredits;
+    private final AtomicLong hedgeCredits;
+    private final ScheduledExecutorService hedgeTimer;
+    private final ThreadPoolExecutor hedgeExecutor;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Timer[] readTimers;
+    private final Counter hedges;
+    private final Counter hedgeWins;
+    private final Counter skippedHedges;
+
+    /**
+     * @param hedgeBudget  the largest share of the lookups that may be hedged, from 0 to 1
+     * @param hedgeThreads the number of hedges that may run at once
+     */
+    public ReplicaPriceRepositoryPort(PriceRepositoryPort delegate, ReplicaRoutingDataSource routing, boolean hedging,
+                                      double hedgePercentile, Duration minHedgeDelay, double hedgeBudget,
+                                      int hedgeThreads, MeterRegistry meterRegistry) {
+        if (hedging && (hedgeBudget < 0 || hedgeBudget > 1 || hedgeThreads < 1)) {
+            throw new IllegalArgumentException("Invalid hedge budget " + hedgeBudget + " or thread count "
+                    + hedgeThreads);
+        }
+        this.delegate = delegate;
+        this.routing = routing;
+        this.hedging = hedging;
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+        this.latencies = new RollingPercentile(LATENCY_WINDOW, hedgePercentile);
+        this.hedgeCreditsPerLookup = Math.round(hedgeBudget * HEDGE_COST);
+        this.maxHedgeCredits = hedgeCreditsPerLookup > 0 ? MAX_HEDGE_BURST * HEDGE_COST : 0;
+        this.hedgeCredits = new AtomicLong(maxHedgeCredits);
+        if (hedging) {
+            this.hedgeTimer = Executors.newSingleThreadScheduledExecutor(daemonThreads("price-replica-hedge-timer"));
+            // No queue: a hedge either starts at once or is skipped
+            this.hedgeExecutor = new ThreadPoolExecutor(hedgeThreads, hedgeThreads, 30, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), daemonThreads("price-replica-hedge"));
+            this.hedgeExecutor.allowCoreThreadTimeOut(true);
+        } else {
+            this.hedgeTimer = null;
+            this.hedgeExecutor = null;
+        }
+
+        int replicaCount = routing.getReplicaCount();
+        this.readTimers = new Timer[replicaCount + 1];
+        for (int replica = 0; replica < replicaCount; replica++) {
+            readTimers[replica] = readTimer(meterRegistry, "replica-" + replica);
+        }
+        readTimers[replicaCount] = readTimer(meterRegistry, "primary");
+        this.hedges = Counter.builder("price.replica.hedges")
+                .description("Lookups sent to a second target after the hedge delay")
+                .register(meterRegistry);
+        this.hedgeWins = Counter.builder("price.replica.hedge.wins")
+                .description("Hedged lookups answered first by their second target")
+                .register(meterRegistry);
+        this.skippedHedges = Counter.builder("price.replica.hedges.skipped")
+                .description("Hedges skipped, over the hedge budget or with every hedge thread busy")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Timer readTimer(MeterRegistry meterRegistry, String target) {
+        return Timer.builder("price.replica.read")
+                .description("Time to run a lookup on a database target")
+                .tag("target", target)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return read(() -> delegate.findApplicablePriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return read(() -> delegate.findResolvedPriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return read(() -> delegate.findApplicablePricesAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        return read(() -> delegate.findApplicablePriceAtEach(productId, brandId, dateTimes));
+    }
+
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        return read(() -> delegate.findApplicablePricePerBrand(dateTime, productId, brandIds));
+    }
+
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        return read(() -> delegate.findApplicablePriceBatch(queries));
+    }
+
+    @Override
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        delegate.forEachApplicablePriceAt(dateTime, consumer);
+    }
+
+    private <T> T read(Supplier<T> call) {
+        int replicaCount = routing.getReplicaCount();
+        int first = Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+        if (!hedging) {
+            return attempt(first, null, call);
+        }
+
+        earnHedgeCredits();
+        HedgedRead<T> read = new HedgedRead<>();
+        int second = replicaCount > 1 ? (first + 1) % replicaCount : ReplicaRoutingDataSource.PRIMARY;
+        ScheduledFuture<?> hedge = hedgeTimer.schedule(() -> hedge(read, second, call), hedgeDelayNanos(),
+                TimeUnit.NANOSECONDS);
+        T result;
+        try {
+            result = attempt(first, read.firstStatements, call);
+        } catch (RuntimeException failure) {
+            if (hedge.cancel(false)) {
+                // Failed before the delay
+                throw failure;
+            }
+            PriceRepositoryFutures.await(read.hedgeDone);
+            if (read.winner.isDone()) {
+                return read.winner.join();
+            }
+            throw failure;
+        }
+        if (read.winner.complete(result)) {
+            hedge.cancel(false);
+            read.secondStatements.cancel();
+            return result;
+        }
+        // The hedge answered first, then cancelled this attempt
+        return read.winner.join();
+    }
+
+    private <T> void hedge(HedgedRead<T> read, int target, Supplier<T> call) {
+        if (read.winner.isDone() || !spendHedgeCredit()) {
+            skippedHedges.increment();
+            read.hedgeDone.complete(null);
+            return;
+        }
+        try {
+            hedgeExecutor.execute(() -> {
+                hedges.increment();
+                try {
+                    T result = attempt(target, read.secondStatements, call);
+                    if (read.winner.complete(result)) {
+                        hedgeWins.increment();
+                        read.firstStatements.cancel();
+                    }
+                } catch (RuntimeException e) {
+                    // The first attempt answers or fails on its own
+                } finally {
+                    read.hedgeDone.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            skippedHedges.increment();
+            read.hedgeDone.complete(null);
+        }
+    }
+
+    private void earnHedgeCredits() {
+        if (hedgeCredits.get() < maxHedgeCredits) {
+            hedgeCredits.getAndUpdate(credits -> Math.min(maxHedgeCredits, credits + hedgeCreditsPerLookup));
+        }
+    }
+
+    private boolean spendHedgeCredit() {
+        return hedgeCredits.getAndUpdate(credits -> credits >= HEDGE_COST ? credits - HEDGE_COST : credits)
+                >= HEDGE_COST;
+    }
+
+    private <T> T attempt(int target, StatementCancellation statements, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return routing.onTarget(target, statements, call);
+        } finally {
+            if (statements != null) {
+                statements.close();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (target == ReplicaRoutingDataSource.PRIMARY) {
+                readTimers[routing.getReplicaCount()].record(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                readTimers[target].record(elapsed, TimeUnit.NANOSECONDS);
+                latencies.record(elapsed);
+            }
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        return Math.max(minHedgeDelayNanos, latencies.value());
+    }
+
+    /**
+     * The two attempts of a hedged lookup, the first answer winning.
+     */
+    private static final class HedgedRead<T> {
+        private final StatementCancellation firstStatements = new StatementCancellation();
+        private final StatementCancellation secondStatements = new StatementCancellation();
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        // Completed once the hedge has answered, failed or been skipped
+        private final CompletableFuture<Void> hedgeDone = new CompletableFuture<>();
+    }
+}
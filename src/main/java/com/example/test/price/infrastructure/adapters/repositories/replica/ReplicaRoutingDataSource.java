@@ -0,0 +1,138 @@
+package com.example.test.price.infrastructure.adapters.repositories.replica;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataSource} handing out connections of the primary database, unless a replica was bound to the calling
+ * thread through {@link #onTarget}.
+ * <p>
+ * Writes, migrations, imports and every read not explicitly routed therefore stay on the primary; only the calls
+ * made inside {@link #onTarget} go to a replica. Connections are picked when a transaction or statement opens them,
+ * so the call must open its own on the thread it runs on. A call given a {@link StatementCancellation} gets
+ * connections recording the statements they open, for another thread to cancel them.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    /**
+     * Target of the primary database.
+     */
+    public static final int PRIMARY = -1;
+
+    private static final ThreadLocal<Integer> TARGET = new ThreadLocal<>();
+    private static final ThreadLocal<StatementCancellation> STATEMENTS = new ThreadLocal<>();
+
+    private final List<DataSource> dataSources;
+    private final int replicaCount;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            targets.put(replica, replicas.get(replica));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.dataSources = new ArrayList<>(replicas);
+        this.dataSources.add(primary);
+        this.replicaCount = replicas.size();
+    }
+
+    public int getReplicaCount() {
+        return replicaCount;
+    }
+
+    /**
+     * Runs a call with the connections it opens taken from a given target.
+     *
+     * @param target the index of the replica, or {@link #PRIMARY}
+     * @param call   the call, opening its own connections
+     * @return the result of the call
+     */
+    public <T> T onTarget(int target, Supplier<T> call) {
+        return onTarget(target, null, call);
+    }
+
+    /**
+     * Runs a call with the connections it opens taken from a given target, recording the statements they open.
+     *
+     * @param target     the index of the replica, or {@link #PRIMARY}
+     * @param statements where to record the statements of the call, or null not to record them
+     * @param call       the call, opening its own connections
+     * @return the result of the call
+     */
+    <T> T onTarget(int target, StatementCancellation statements, Supplier<T> call) {
+        if (target != PRIMARY && (target < 0 || target >= replicaCount)) {
+            throw new IllegalArgumentException("No replica " + target + " among " + replicaCount);
+        }
+        Integer previous = TARGET.get();
+        StatementCancellation previousStatements = STATEMENTS.get();
+        if (target == PRIMARY) {
+            TARGET.remove();
+        } else {
+            TARGET.set(target);
+        }
+        if (statements == null) {
+            STATEMENTS.remove();
+        } else {
+            STATEMENTS.set(statements);
+        }
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                TARGET.remove();
+            } else {
+                TARGET.set(previous);
+            }
+            if (previousStatements == null) {
+                STATEMENTS.remove();
+            } else {
+                STATEMENTS.set(previousStatements);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return tracked(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return tracked(super.getConnection(username, password));
+    }
+
+    private static Connection tracked(Connection connection) {
+        StatementCancellation statements = STATEMENTS.get();
+        return statements == null ? connection : statements.track(connection);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TARGET.get();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
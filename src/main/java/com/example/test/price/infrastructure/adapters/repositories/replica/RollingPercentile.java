@@ -0,0 +1,47 @@
+package com.example.test.price.infrastructure.adapters.repositories.replica;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Percentile of the last samples recorded, recomputed every {@value #REFRESH_INTERVAL} samples so that reading it
+ * costs a volatile read. Samples written concurrently may be lost or read half written, which only skews an
+ * estimate already approximate.
+ */
+class RollingPercentile {
+    private static final int REFRESH_INTERVAL = 128;
+
+    private final long[] samples;
+    private final double percentile;
+    private final AtomicLong count = new AtomicLong();
+    private volatile long value = -1;
+
+    RollingPercentile(int window, double percentile) {
+        if (window < REFRESH_INTERVAL || percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Invalid window " + window + " or percentile " + percentile);
+        }
+        this.samples = new long[window];
+        this.percentile = percentile;
+    }
+
+    void record(long sample) {
+        long index = count.getAndIncrement();
+        samples[(int) (index % samples.length)] = sample;
+        if ((index + 1) % REFRESH_INTERVAL == 0) {
+            refresh((int) Math.min(index + 1, samples.length));
+        }
+    }
+
+    /**
+     * @return the percentile of the last samples, or {@code -1} until enough samples were recorded
+     */
+    long value() {
+        return value;
+    }
+
+    private void refresh(int size) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        value = sorted[(int) Math.max(0, Math.min(size - 1, Math.ceil(percentile * size) - 1))];
+    }
+}
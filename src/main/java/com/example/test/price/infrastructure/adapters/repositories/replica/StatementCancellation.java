@@ -0,0 +1,95 @@
+package com.example.test.price.infrastructure.adapters.repositories.replica;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statements opened by one attempt of a lookup, through the connections it took from the
+ * {@link ReplicaRoutingDataSource}, so that another thread can cancel them once a concurrent attempt has answered.
+ * <p>
+ * A cancelled attempt fails with the error of its driver, or with an {@link SQLException} when it opens a statement
+ * after the cancellation. Once the attempt is over, cancelling does nothing.
+ */
+class StatementCancellation {
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean cancelled;
+    private boolean closed;
+
+    /**
+     * @param connection a connection opened by the attempt
+     * @return the connection, recording the statements it opens
+     */
+    Connection track(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "createStatement":
+                        case "prepareStatement":
+                        case "prepareCall":
+                            checkNotCancelled();
+                            break;
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement statement) {
+                        register(statement);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Cancels the statements of the attempt, if it is still running.
+     */
+    synchronized void cancel() {
+        if (cancelled || closed) {
+            return;
+        }
+        cancelled = true;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Closed or already done: nothing left to cancel
+            }
+        }
+    }
+
+    /**
+     * Ends the attempt, releasing its statements.
+     */
+    synchronized void close() {
+        closed = true;
+        statements.clear();
+    }
+
+    private synchronized void checkNotCancelled() throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Lookup cancelled, a concurrent attempt answered first");
+        }
+    }
+
+    private synchronized void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            statement.cancel();
+        }
+        if (!closed) {
+            statements.add(statement);
+        }
+    }
+}
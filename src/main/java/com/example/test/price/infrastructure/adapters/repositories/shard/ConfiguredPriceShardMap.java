@@ -0,0 +1,53 @@
+package com.example.test.price.infrastructure.adapters.repositories.shard;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link PriceShardMap} placing the brands listed in {@code price.shards.brands} on their given shard and every
+ * other brand on the shard given by its identifier modulo the shard count.
+ */
+public class ConfiguredPriceShardMap implements PriceShardMap {
+    private final int shardCount;
+    private final Map<Long, Integer> assignments;
+
+    public ConfiguredPriceShardMap(int shardCount, Map<Long, Integer> assignments) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive, got " + shardCount);
+        }
+        assignments.forEach((brandId, shard) -> {
+            if (shard < 0 || shard >= shardCount) {
+                throw new IllegalArgumentException("Brand " + brandId + " assigned to shard " + shard
+                        + " out of " + shardCount);
+            }
+        });
+        this.shardCount = shardCount;
+        this.assignments = new HashMap<>(assignments);
+    }
+
+    /**
+     * @param shardCount  the number of shards
+     * @param assignments the brand assignments, as comma-separated {@code brandId:shard} pairs, possibly blank
+     * @return the shard map
+     */
+    public static ConfiguredPriceShardMap parse(int shardCount, String assignments) {
+        Map<Long, Integer> shardsByBrand = new HashMap<>();
+        for (String assignment : assignments.split(",")) {
+            if (assignment.isBlank()) {
+                continue;
+            }
+            String[] parts = assignment.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid brand assignment '" + assignment + "', expected brandId:shard");
+            }
+            shardsByBrand.put(Long.parseLong(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return new ConfiguredPriceShardMap(shardCount, shardsByBrand);
+    }
+
+    @Override
+    public int shardOf(long brandId) {
+        Integer shard = assignments.get(brandId);
+        return shard != null ? shard : (int) Math.floorMod(brandId, (long) shardCount);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.test.price.infrastructure.adapters.repositories.shard;
+
+/**
+ * Assigns the prices of every brand to a shard. Declare a bean of this type to replace the
+ * {@link ConfiguredPriceShardMap}; every price of a brand must live on the shard it is assigned to.
+ */
+public interface PriceShardMap {
+
+    /**
+     * @param brandId the brand (store) identifier
+     * @return the index of the shard holding the prices of the brand, from zero to the shard count excluded
+     */
+    int shardOf(long brandId);
+}
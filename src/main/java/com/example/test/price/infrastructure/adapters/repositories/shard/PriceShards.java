@@ -0,0 +1,51 @@
+package com.example.test.price.infrastructure.adapters.repositories.shard;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+/**
+ * The shards of the price table and the brands they hold.
+ */
+public class PriceShards {
+    private final ShardRoutingDataSource routing;
+    private final PriceShardMap shardMap;
+
+    public PriceShards(ShardRoutingDataSource routing, PriceShardMap shardMap) {
+        this.routing = routing;
+        this.shardMap = shardMap;
+    }
+
+    public int getShardCount() {
+        return routing.getShardCount();
+    }
+
+    /**
+     * @param brandId the brand (store) identifier, possibly null
+     * @return the shard holding the prices of the brand; shard zero, holding none of its prices, for a null brand
+     */
+    public int shardOf(Long brandId) {
+        if (brandId == null) {
+            return 0;
+        }
+        int shard = shardMap.shardOf(brandId);
+        if (shard < 0 || shard >= routing.getShardCount()) {
+            throw new IllegalStateException("Brand " + brandId + " mapped to shard " + shard
+                    + " out of " + routing.getShardCount());
+        }
+        return shard;
+    }
+
+    /**
+     * @see ShardRoutingDataSource#onShard
+     */
+    public <T> T onShard(int shard, Supplier<T> call) {
+        return routing.onShard(shard, call);
+    }
+
+    /**
+     * @see ShardRoutingDataSource#getShard
+     */
+    public DataSource getDataSource(int shard) {
+        return routing.getShard(shard);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.test.price.infrastructure.adapters.repositories.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the application data source by a {@link ShardRoutingDataSource} whose shard zero is the
+ * {@code spring.datasource} database and whose next shards are the databases listed in {@code price.shards.urls},
+ * sharing its credentials and pool settings. Cannot be combined with {@code price.replicas.urls}, and requires the
+ * {@code jpa} repository: the other ones read shard zero only, so the startup fails instead.
+ * <p>
+ * The Flyway migrations run on every additional shard at startup, shard zero being migrated by Spring Boot. Brands
+ * are assigned to shards by the {@link PriceShardMap} bean if one is declared, by a {@link ConfiguredPriceShardMap}
+ * otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "price.shards.urls")
+public class ShardDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource firstShardDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(HikariDataSource firstShardDataSource,
+                                             DataSourceProperties dataSourceProperties,
+                                             @Value("${price.shards.urls}") String[] shardUrls,
+                                             @Value("${spring.flyway.locations:classpath:db/migration}") String[] migrationLocations) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(firstShardDataSource);
+        for (String shardUrl : shardUrls) {
+            String url = shardUrl.trim();
+            Flyway.configure()
+                    .dataSource(url, dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())
+                    .locations(migrationLocations)
+                    .load()
+                    .migrate();
+
+            HikariDataSource shard = new HikariDataSource();
+            firstShardDataSource.copyStateTo(shard);
+            shard.setJdbcUrl(url);
+            shard.setPoolName("price-shard-" + shards.size());
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public PriceShards priceShards(ShardRoutingDataSource dataSource, ObjectProvider<PriceShardMap> shardMap,
+                                   @Value("${price.shards.brands:}") String brandAssignments,
+                                   @Value("${price.repository.type:jpa}") String repositoryType) {
+        if (!"jpa".equals(repositoryType)) {
+            throw new IllegalStateException(String.format(
+                    "price.shards.urls requires price.repository.type=jpa, got %s", repositoryType));
+        }
+        return new PriceShards(dataSource, shardMap.getIfAvailable(
+                () -> ConfiguredPriceShardMap.parse(dataSource.getShardCount(), brandAssignments)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.test.price.infrastructure.adapters.repositories.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataSource} handing out connections of the shard bound to the calling thread through {@link #onShard},
+ * or of shard zero, the {@code spring.datasource} database, when none is bound.
+ * <p>
+ * Migrations and the JPA schema validation therefore run on shard zero, and every call reaching another shard must
+ * open its own connections inside {@link #onShard}, on the thread it runs on.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+        this.shards = List.copyOf(shards);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * @param shard the index of the shard
+     * @return the data source of the shard itself, for callers managing their own threads
+     */
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    /**
+     * Runs a call with the connections it opens taken from a given shard.
+     *
+     * @param shard the index of the shard
+     * @param call  the call, opening its own connections
+     * @return the result of the call
+     */
+    public <T> T onShard(int shard, Supplier<T> call) {
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalArgumentException("No shard " + shard + " among " + shards.size());
+        }
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return SHARD.get();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
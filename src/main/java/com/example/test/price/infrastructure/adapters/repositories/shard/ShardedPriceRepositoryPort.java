@@ -0,0 +1,172 @@
+package com.example.test.price.infrastructure.adapters.repositories.shard;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.ParallelPriceScan;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.PriceSnapshotScanner;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link PriceRepositoryPort} running the lookups of the underlying repository on the {@link PriceShards shard}
+ * holding their brand.
+ * <p>
+ * A single product and brand lookup goes to its shard alone, so its query and its answer are those of a single
+ * table. A batch, or the comparison of a product across brands, is split by shard and its parts run in parallel, one
+ * of them on the calling thread, their prices merged. The catalog snapshot scans the partitions of every shard in a single {@link ParallelPriceScan}, each shard
+ * only contributing the brands it holds, so rows left on another shard are never returned twice.
+ */
+public class ShardedPriceRepositoryPort implements PriceRepositoryPort {
+
+    private final PriceRepositoryPort delegate;
+    private final PriceShards shards;
+    private final List<PriceSnapshotScanner> snapshotScanners;
+    private final ParallelPriceScan parallelScan;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "price-shard-fanout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShardedPriceRepositoryPort(PriceRepositoryPort delegate, PriceShards shards, ParallelPriceScan parallelScan) {
+        this.delegate = delegate;
+        this.shards = shards;
+        this.parallelScan = parallelScan;
+        this.snapshotScanners = new ArrayList<>();
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            snapshotScanners.add(new PriceSnapshotScanner(new JdbcTemplate(shards.getDataSource(shard)), parallelScan));
+        }
+    }
+
+    @Override
+    public Optional<Price> findApplicablePriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return shards.onShard(shards.shardOf(brandId), () -> delegate.findApplicablePriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public Optional<ResolvedPrice> findResolvedPriceAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return shards.onShard(shards.shardOf(brandId), () -> delegate.findResolvedPriceAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<Price> findApplicablePricesAt(LocalDateTime dateTime, Long productId, Long brandId) {
+        return shards.onShard(shards.shardOf(brandId), () -> delegate.findApplicablePricesAt(dateTime, productId, brandId));
+    }
+
+    @Override
+    public List<PriceLookupResult> findApplicablePriceAtEach(Long productId, Long brandId, List<LocalDateTime> dateTimes) {
+        return shards.onShard(shards.shardOf(brandId),
+                () -> delegate.findApplicablePriceAtEach(productId, brandId, dateTimes));
+    }
+
+    /**
+     * Asks the shard holding each of the given brands for their prices; when no brand is given, asks every shard
+     * for the brands it holds.
+     */
+    @Override
+    public List<Price> findApplicablePricePerBrand(LocalDateTime dateTime, Long productId, Collection<Long> brandIds) {
+        Map<Integer, Supplier<List<Price>>> calls = new LinkedHashMap<>();
+        if (brandIds.isEmpty()) {
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                int owner = shard;
+                calls.put(shard, () -> delegate.findApplicablePricePerBrand(dateTime, productId, brandIds).stream()
+                        .filter(price -> shards.shardOf(price.getBrandId()) == owner)
+                        .toList());
+            }
+        } else {
+            Map<Integer, List<Long>> brandsByShard = new LinkedHashMap<>();
+            for (Long brandId : brandIds) {
+                brandsByShard.computeIfAbsent(shards.shardOf(brandId), shard -> new ArrayList<>()).add(brandId);
+            }
+            brandsByShard.forEach((shard, brands) ->
+                    calls.put(shard, () -> delegate.findApplicablePricePerBrand(dateTime, productId, brands)));
+        }
+
+        List<Price> prices = new ArrayList<>();
+        onShards(calls).forEach(prices::addAll);
+        prices.sort(Comparator.comparing(Price::getBrandId));
+        return prices;
+    }
+
+    @Override
+    public Map<PriceQuery, Price> findApplicablePriceBatch(Collection<PriceQuery> queries) {
+        Map<Integer, List<PriceQuery>> queriesByShard = new LinkedHashMap<>();
+        for (PriceQuery query : queries) {
+            queriesByShard.computeIfAbsent(shards.shardOf(query.getBrandId()), shard -> new ArrayList<>()).add(query);
+        }
+        Map<Integer, Supplier<Map<PriceQuery, Price>>> calls = new LinkedHashMap<>();
+        queriesByShard.forEach((shard, shardQueries) ->
+                calls.put(shard, () -> delegate.findApplicablePriceBatch(shardQueries)));
+
+        Map<PriceQuery, Price> result = new HashMap<>();
+        onShards(calls).forEach(result::putAll);
+        return result;
+    }
+
+    /**
+     * Runs each call on its shard, in parallel, the first one on the calling thread.
+     *
+     * @return the results of the calls, once all of them have completed
+     */
+    private <T> List<T> onShards(Map<Integer, Supplier<T>> callsByShard) {
+        List<T> results = new ArrayList<>();
+        if (callsByShard.isEmpty()) {
+            return results;
+        }
+        Iterator<Map.Entry<Integer, Supplier<T>>> calls = callsByShard.entrySet().iterator();
+        Map.Entry<Integer, Supplier<T>> local = calls.next();
+        List<CompletableFuture<T>> remote = new ArrayList<>();
+        while (calls.hasNext()) {
+            Map.Entry<Integer, Supplier<T>> call = calls.next();
+            remote.add(CompletableFuture.supplyAsync(() -> shards.onShard(call.getKey(), call.getValue()), executor));
+        }
+
+        results.add(shards.onShard(local.getKey(), local.getValue()));
+        try {
+            for (CompletableFuture<T> call : remote) {
+                results.add(call.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        List<ParallelPriceScan.Partition> partitions = new ArrayList<>();
+        for (int shard = 0; shard < snapshotScanners.size(); shard++) {
+            int owner = shard;
+            for (ParallelPriceScan.Partition partition : snapshotScanners.get(shard).partitions(dateTime)) {
+                partitions.add(sink -> partition.scan(price -> {
+                    if (shards.shardOf(price.getBrandId()) == owner) {
+                        sink.accept(price);
+                    }
+                }));
+            }
+        }
+        parallelScan.run(partitions, consumer);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.test.price.infrastructure.adapters.repositories.snapshot;
+
+import com.example.test.price.domain.models.Price;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Scans partitions of the prices in parallel and hands the prices they produce to a single consumer.
+ * <p>
+ * The partitions of every scan run on a single pool of {@code price.snapshot.parallelism} threads, so concurrent
+ * scans share those threads, and the database connections they hold, instead of each taking as many: partitions of
+ * a scan started while others run wait for a free thread. Each scan pushes its prices into a bounded queue of its
+ * own, drained by its calling thread. Memory therefore stays bounded by the queue whatever the number of prices, and
+ * a slow consumer slows its partitions down instead of piling prices up. Prices come out in no particular order
+ * across partitions.
+ */
+@Component
+public class ParallelPriceScan implements DisposableBean {
+    static final int QUEUE_CAPACITY = 8192;
+
+    private static final long POLL_MILLIS = 100;
+
+    private final int parallelism;
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * One partition of a scan, pushing its prices into a sink.
+     */
+    @FunctionalInterface
+    public interface Partition {
+        void scan(Consumer<Price> sink) throws Exception;
+    }
+
+    /**
+     * @param parallelism the maximum number of partitions scanned at once, across every scan
+     */
+    @Autowired
+    public ParallelPriceScan(@Value("${price.snapshot.parallelism:2}") int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("price.snapshot.parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.pool = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "price-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Runs every partition and passes their prices to the consumer, on the calling thread.
+     *
+     * @param partitions the partitions of the scan
+     * @param consumer   the consumer of the prices
+     * @throws IllegalStateException if a partition fails, once the other partitions are stopped
+     */
+    public void run(List<? extends Partition> partitions, Consumer<Price> consumer) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+
+        BlockingQueue<Price> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger running = new AtomicInteger(partitions.size());
+        List<Future<?>> tasks = new ArrayList<>(partitions.size());
+        try {
+            for (Partition partition : partitions) {
+                tasks.add(pool.submit(() -> {
+                    try {
+                        partition.scan(price -> put(queue, price, failure));
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }));
+            }
+            drain(queue, running, failure, consumer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (RuntimeException | Error e) {
+            // The consumer failed, e.g. the client went away: the partitions stop at their next price
+            failure.compareAndSet(null, e);
+            throw e;
+        } finally {
+            // Done already unless the scan failed: the partitions not started yet are dropped, the others interrupted
+            for (Future<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("Price scan failed", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static void drain(BlockingQueue<Price> queue, AtomicInteger running, AtomicReference<Throwable> failure,
+                              Consumer<Price> consumer) throws InterruptedException {
+        while (failure.get() == null) {
+            Price price = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (price != null) {
+                consumer.accept(price);
+            } else if (running.get() == 0) {
+                // Every partition queued its prices before finishing, so whatever is left is already in the queue
+                while (failure.get() == null && (price = queue.poll()) != null) {
+                    consumer.accept(price);
+                }
+                return;
+            }
+        }
+    }
+
+    private static void put(BlockingQueue<Price> queue, Price price, AtomicReference<Throwable> failure) {
+        try {
+            do {
+                if (failure.get() != null) {
+                    throw new CancellationException("Price scan cancelled");
+                }
+            } while (!queue.offer(price, POLL_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Price scan interrupted");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.test.price.infrastructure.adapters.repositories.snapshot;
+
+import com.example.test.price.domain.models.Price;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Resolves the winning price of every product and brand at an instant straight from the price table.
+ * <p>
+ * The product identifier range is split into partitions scanned in parallel by a {@link ParallelPriceScan},
+ * each one reading, once, the rows applying at the instant ordered by key and then by descending priority, so
+ * the winner of a key is the first of its rows and nothing but the previous key is kept while scanning. The
+ * partitions of every snapshot share the threads of that scan, so all the snapshots running at once hold at most
+ * {@code price.snapshot.parallelism} connections, leaving the rest of the pool to the online lookups.
+ */
+@Component
+public class PriceSnapshotScanner {
+    static final int PARTITIONS_PER_THREAD = 4;
+
+    private static final int FETCH_SIZE = 10_000;
+
+    /**
+     * Scan of a partition, in the order of the lookup index so its rows come out of it without being sorted.
+     */
+    public static final String PARTITION_SQL =
+            "SELECT brand_id, start_date, end_date, price_list, product_id, priority, price, currency " +
+                    "FROM price " +
+                    "WHERE product_id BETWEEN ? AND ? AND start_date <= ? AND end_date >= ? " +
+                    "ORDER BY product_id, brand_id, priority DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ParallelPriceScan parallelScan;
+
+    @Autowired
+    public PriceSnapshotScanner(JdbcTemplate jdbcTemplate, ParallelPriceScan parallelScan) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.parallelScan = parallelScan;
+    }
+
+    /**
+     * @param dateTime the application date and time
+     * @param consumer the consumer of the winning price of each product and brand, called from the calling thread
+     */
+    public void forEachApplicablePriceAt(LocalDateTime dateTime, Consumer<Price> consumer) {
+        parallelScan.run(partitions(dateTime), consumer);
+    }
+
+    /**
+     * Splits the scan at an instant into partitions of the product identifier range, for callers running the
+     * partitions of several tables in a single {@link ParallelPriceScan}.
+     *
+     * @param dateTime the application date and time
+     * @return the partitions of the scan, none if the table is empty
+     */
+    public List<ParallelPriceScan.Partition> partitions(LocalDateTime dateTime) {
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT MIN(product_id) AS low, MAX(product_id) AS high FROM price");
+        if (range.get("low") == null) {
+            return List.of();
+        }
+        long low = ((Number) range.get("low")).longValue();
+        long high = ((Number) range.get("high")).longValue();
+
+        // The span is read unsigned: between identifiers of opposite signs it can exceed Long.MAX_VALUE, up to
+        // 2^64 - 1, and overflow a signed subtraction
+        long span = high - low;
+        int partitionCount = parallelScan.getParallelism() * PARTITIONS_PER_THREAD;
+        if (Long.compareUnsigned(span, partitionCount - 1) < 0) {
+            partitionCount = (int) span + 1;
+        }
+        long width = Long.divideUnsigned(span, partitionCount) + 1;
+        List<ParallelPriceScan.Partition> partitions = new ArrayList<>(partitionCount);
+        long from = low;
+        while (true) {
+            long to = Long.compareUnsigned(high - from, width - 1) <= 0 ? high : from + width - 1;
+            long fromProduct = from;
+            partitions.add(sink -> scan(dateTime, fromProduct, to, sink));
+            if (to == high) {
+                return partitions;
+            }
+            from = to + 1;
+        }
+    }
+
+    private void scan(LocalDateTime dateTime, long fromProduct, long toProduct, Consumer<Price> sink) {
+        Timestamp instant = Timestamp.valueOf(dateTime);
+        long[] previousKey = {Long.MIN_VALUE, Long.MIN_VALUE};
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(PARTITION_SQL);
+            statement.setLong(1, fromProduct);
+            statement.setLong(2, toProduct);
+            statement.setTimestamp(3, instant);
+            statement.setTimestamp(4, instant);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            long brandId = resultSet.getLong("brand_id");
+            long productId = resultSet.getLong("product_id");
+            if (brandId == previousKey[0] && productId == previousKey[1]) {
+                return;
+            }
+            previousKey[0] = brandId;
+            previousKey[1] = productId;
+            sink.accept(new Price(
+                    brandId,
+                    resultSet.getTimestamp("start_date").toLocalDateTime(),
+                    resultSet.getTimestamp("end_date").toLocalDateTime(),
+                    resultSet.getLong("price_list"),
+                    productId,
+                    resultSet.getInt("priority"),
+                    resultSet.getBigDecimal("price"),
+                    resultSet.getString("currency")
+            ));
+        });
+    }
+}
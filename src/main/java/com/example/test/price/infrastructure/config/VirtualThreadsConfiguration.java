@@ -0,0 +1,29 @@
+package com.example.test.price.infrastructure.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Virtual-thread serving mode, enabled with {@code spring.threads.virtual.enabled=true}.
+ * <p>
+ * Spring Boot then runs every request, and so every repository call made while serving it, on its own virtual
+ * thread. Boot silently keeps platform threads on JDKs without virtual threads, so this fails the startup instead
+ * of letting the application run in a mode other than the configured one.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfiguration implements InitializingBean {
+
+    private static final int MINIMUM_JAVA_VERSION = 21;
+
+    @Override
+    public void afterPropertiesSet() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < MINIMUM_JAVA_VERSION) {
+            throw new IllegalStateException(String.format(
+                    "spring.threads.virtual.enabled requires Java %d or later, running on Java %d",
+                    MINIMUM_JAVA_VERSION, javaVersion));
+        }
+    }
+}
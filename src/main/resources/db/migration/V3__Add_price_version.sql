@@ -0,0 +1,10 @@
+-- Change watermark: every inserted or updated row takes the next value of the sequence
+CREATE SEQUENCE price_version_seq;
+
+ALTER TABLE price ADD COLUMN version BIGINT
+    DEFAULT NEXT VALUE FOR price_version_seq
+    ON UPDATE NEXT VALUE FOR price_version_seq
+    NOT NULL;
+
+-- Index to find the rows changed since a watermark
+CREATE INDEX idx_price_version ON price (version);
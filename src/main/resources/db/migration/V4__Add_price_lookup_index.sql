@@ -0,0 +1,10 @@
+-- Lookup index: the rows of a product and brand in descending priority, so the V1 query reads them in the order of
+-- its ORDER BY and stops at the first one applying at the instant, without sorting the candidates. The date range
+-- and the remaining columns follow, so the date filter and the selected columns are answered from the index entry.
+CREATE INDEX idx_price_lookup ON price (
+    brand_id, product_id, priority DESC, start_date, end_date, price_list, price, currency
+);
+
+-- Superseded by the lookup index, which has the same leading columns; the start date range it added only narrowed
+-- the few rows of a single product and brand
+DROP INDEX idx_price_datetime_product_brand;
@@ -0,0 +1,9 @@
+-- Lookup index led by the product: the rows of a product grouped by brand, each brand in descending priority. A
+-- single product and brand lookup still seeks the rows of its key, in the order of its ORDER BY, while the
+-- comparison of a product across brands reads one range of the index, already grouped by brand, and keeps the first
+-- row of each brand applying at the instant. A single index serves both, so writes maintain no extra one.
+DROP INDEX idx_price_lookup;
+
+CREATE INDEX idx_price_lookup ON price (
+    product_id, brand_id, priority DESC, start_date, end_date, price_list, price, currency
+);
@@ -0,0 +1,10 @@
+-- Tombstones of the product and brand keys rows left, by deletion or by an update to another key. Each one takes the
+-- next row version, so the changes since a watermark include the keys whose rows are gone.
+CREATE TABLE price_deletion (
+    version BIGINT DEFAULT NEXT VALUE FOR price_version_seq NOT NULL PRIMARY KEY,
+    brand_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL
+);
+
+CREATE TRIGGER price_deletion_trigger AFTER DELETE, UPDATE ON price FOR EACH ROW
+    CALL 'com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceDeletionTrigger';
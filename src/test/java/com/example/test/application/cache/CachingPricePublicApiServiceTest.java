@@ -0,0 +1,77 @@
+package com.example.test.application.cache;
+
+import com.example.test.price.application.cache.CachingPricePublicApiService;
+import com.example.test.price.application.cache.PriceWindowCache;
+import com.example.test.price.domain.events.PricesChangedEvent;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.domain.ports.in.PricePublicApiPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingPricePublicApiServiceTest {
+
+    private static final LocalDateTime LOOKUP = LocalDateTime.of(2020, 6, 14, 16, 0, 0);
+
+    @Mock
+    private PricePublicApiPort delegate;
+
+    private MeterRegistry meterRegistry;
+    private CachingPricePublicApiService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CachingPricePublicApiService(delegate, new PriceWindowCache(1000, Duration.ofMinutes(10)),
+                meterRegistry);
+        Price price = new Price(1L, LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0),
+                2L, 35455L, 1, new BigDecimal("25.45"), "EUR");
+        when(delegate.resolveApplicablePriceAt(LOOKUP, 35455L, 1L)).thenReturn(new ResolvedPrice(price,
+                LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0, 1)));
+    }
+
+    @Test
+    void resolveApplicablePriceAt_ShouldRecordHitsAndMissesAsMeters() {
+        service.resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+        service.resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+
+        assertEquals(1.0, meterRegistry.get("price.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("price.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("price.cache.evictions").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("price.cache.size").gauge().value());
+    }
+
+    @Test
+    void onPricesChanged_ShouldResolveTheChangedKeysAgain() {
+        service.resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+
+        service.onPricesChanged(PricesChangedEvent.of(List.of(new PriceKey(2L, 35455L))));
+        service.resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+        verify(delegate, times(1)).resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+
+        service.onPricesChanged(PricesChangedEvent.of(List.of(new PriceKey(1L, 35455L))));
+        service.resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+        verify(delegate, times(2)).resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+
+        service.onPricesChanged(PricesChangedEvent.allKeys());
+        service.resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+        verify(delegate, times(3)).resolveApplicablePriceAt(LOOKUP, 35455L, 1L);
+    }
+}
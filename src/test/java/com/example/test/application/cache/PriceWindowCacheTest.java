@@ -0,0 +1,97 @@
+package com.example.test.application.cache;
+
+import com.example.test.price.application.cache.PriceCacheStats;
+import com.example.test.price.application.cache.PriceWindowCache;
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.ResolvedPrice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceWindowCacheTest {
+
+    private final PriceKey key = new PriceKey(1L, 35455L);
+    private AtomicLong clock;
+    private PriceWindowCache cache;
+    private ResolvedPrice resolvedPrice;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        cache = new PriceWindowCache(1000, Duration.ofMinutes(1), clock::get);
+        Price price = new Price(1L, LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0),
+                2L, 35455L, 1, new BigDecimal("25.45"), "EUR");
+        resolvedPrice = new ResolvedPrice(price, LocalDateTime.of(2020, 6, 14, 15, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 18, 30, 0, 1));
+    }
+
+    @Test
+    void get_ShouldHit_ForAnyInstantInsideTheCachedWindow() {
+        cache.put(key, resolvedPrice);
+
+        assertEquals(Optional.of(resolvedPrice), cache.get(key, LocalDateTime.of(2020, 6, 14, 15, 0, 0)));
+        assertEquals(Optional.of(resolvedPrice), cache.get(key, LocalDateTime.of(2020, 6, 14, 16, 45, 0)));
+        assertEquals(Optional.of(resolvedPrice), cache.get(key, LocalDateTime.of(2020, 6, 14, 18, 30, 0)));
+
+        PriceCacheStats stats = cache.stats();
+        assertEquals(3, stats.getHits());
+        assertEquals(0, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void get_ShouldMiss_OutsideTheCachedWindowAndForOtherKeys() {
+        cache.put(key, resolvedPrice);
+
+        assertTrue(cache.get(key, LocalDateTime.of(2020, 6, 14, 18, 30, 1)).isEmpty());
+        assertTrue(cache.get(key, LocalDateTime.of(2020, 6, 14, 14, 59, 59)).isEmpty());
+        assertTrue(cache.get(new PriceKey(2L, 35455L), LocalDateTime.of(2020, 6, 14, 16, 0, 0)).isEmpty());
+        assertEquals(3, cache.stats().getMisses());
+    }
+
+    @Test
+    void get_ShouldMissAndEvict_WhenTheWindowHasExpired() {
+        cache.put(key, resolvedPrice);
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertTrue(cache.get(key, LocalDateTime.of(2020, 6, 14, 16, 0, 0)).isEmpty());
+
+        PriceCacheStats stats = cache.stats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(0, stats.getSize());
+    }
+
+    @Test
+    void evict_ShouldDropEveryWindowOfTheGivenKeysOnly() {
+        PriceKey otherKey = new PriceKey(2L, 35455L);
+        cache.put(key, resolvedPrice);
+        cache.put(otherKey, resolvedPrice);
+
+        cache.evict(List.of(key));
+
+        assertTrue(cache.get(key, LocalDateTime.of(2020, 6, 14, 16, 0, 0)).isEmpty());
+        assertEquals(Optional.of(resolvedPrice), cache.get(otherKey, LocalDateTime.of(2020, 6, 14, 16, 0, 0)));
+        assertEquals(1, cache.stats().getSize());
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedKeys_WhenFull() {
+        PriceWindowCache smallCache = new PriceWindowCache(16, Duration.ofMinutes(1), clock::get);
+        for (long productId = 0; productId < 1000; productId++) {
+            smallCache.put(new PriceKey(1L, productId), resolvedPrice);
+        }
+
+        PriceCacheStats stats = smallCache.stats();
+        assertTrue(stats.getSize() <= 16);
+        assertEquals(1000 - stats.getSize(), stats.getEvictions());
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.test.application.services;
 
 import com.example.test.price.application.services.PricePubicApiService;
+import com.example.test.price.domain.exceptions.InvalidPriceBatchException;
 import com.example.test.price.domain.exceptions.PriceNotFoundException;
 import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
 import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -15,10 +20,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,7 +40,7 @@ public class PricePubicApiServiceTest {
     @Mock
     private PriceRepositoryPort priceRepositoryPort;
 
-    @InjectMocks
+    private MeterRegistry meterRegistry;
     private PricePubicApiService pricePubicApiService;
 
     private LocalDateTime testDateTime;
@@ -38,6 +51,11 @@ public class PricePubicApiServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pricePubicApiService = new PricePubicApiService(priceRepositoryPort, meterRegistry);
+        // V1 goes through the primitive lookup, whose default answers from findApplicablePriceAt
+        lenient().when(priceRepositoryPort.findApplicablePrice(any(), anyLong(), anyLong())).thenCallRealMethod();
+
         testDateTime = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
         testProductId = 35455L;
         testBrandId = 1L;
@@ -123,6 +141,22 @@ public class PricePubicApiServiceTest {
         assertTrue(exception.getMessage().contains("brand ID " + testBrandId));
     }
 
+    @Test
+    void findApplicablePriceAtV1_ShouldRecordLookupTimeAndNotFoundCount() {
+        when(priceRepositoryPort.findApplicablePriceAt(eq(testDateTime), eq(testProductId), eq(testBrandId)))
+                .thenReturn(Optional.of(testPrice))
+                .thenReturn(Optional.empty());
+
+        pricePubicApiService.findApplicablePriceAtV1(testDateTime, testProductId, testBrandId);
+        assertThrows(PriceNotFoundException.class,
+                () -> pricePubicApiService.findApplicablePriceAtV1(testDateTime, testProductId, testBrandId));
+
+        assertEquals(2, meterRegistry.get("price.lookup").tag("strategy", "v1").timer().count());
+        assertEquals(0, meterRegistry.get("price.lookup").tag("strategy", "v2").timer().count());
+        assertEquals(1.0, meterRegistry.get("price.lookup.not.found").tag("strategy", "v1").counter().count());
+        assertEquals(0.0, meterRegistry.get("price.lookup.not.found").tag("strategy", "v2").counter().count());
+    }
+
     @Test
     void findApplicablePriceAtV2_ShouldReturnSinglePrice_WhenOnlyOnePriceExists() {
 
@@ -139,4 +173,96 @@ public class PricePubicApiServiceTest {
         assertEquals(testPrice.getPriceList(), result.getPriceList());
         assertEquals(testPrice.getPrice(), result.getPrice());
     }
-}
\ No newline at end of file
+
+    @Test
+    void resolveApplicablePriceAt_ShouldReturnPriceAndValidityWindow_WhenPriceExists() {
+        ResolvedPrice resolvedPrice = new ResolvedPrice(testPrice, testPrice.getStartDate(), LocalDateTime.of(2020, 6, 14, 15, 0, 0));
+        when(priceRepositoryPort.findResolvedPriceAt(eq(testDateTime), eq(testProductId), eq(testBrandId)))
+                .thenReturn(Optional.of(resolvedPrice));
+
+        ResolvedPrice result = pricePubicApiService.resolveApplicablePriceAt(testDateTime, testProductId, testBrandId);
+
+        assertEquals(testPrice, result.getPrice());
+        assertEquals(LocalDateTime.of(2020, 6, 14, 15, 0, 0), result.getValidUntil());
+    }
+
+    @Test
+    void resolveApplicablePriceAt_ShouldThrowException_WhenNoPriceExists() {
+        when(priceRepositoryPort.findResolvedPriceAt(eq(testDateTime), eq(testProductId), eq(testBrandId)))
+                .thenReturn(Optional.empty());
+
+        assertThrows(PriceNotFoundException.class,
+                () -> pricePubicApiService.resolveApplicablePriceAt(testDateTime, testProductId, testBrandId));
+    }
+
+    @Test
+    void findApplicablePriceBatch_ShouldReturnPricesFoundByRepository() {
+        PriceQuery found = new PriceQuery(testDateTime, testProductId, testBrandId);
+        PriceQuery notFound = new PriceQuery(testDateTime, 99999L, testBrandId);
+        List<PriceQuery> queries = List.of(found, notFound);
+
+        when(priceRepositoryPort.findApplicablePriceBatch(eq(queries))).thenReturn(Map.of(found, testPrice));
+
+        Map<PriceQuery, Price> result = pricePubicApiService.findApplicablePriceBatch(queries);
+
+        assertEquals(1, result.size());
+        assertEquals(testPrice, result.get(found));
+        assertFalse(result.containsKey(notFound));
+    }
+
+    @Test
+    void findApplicablePriceBatch_ShouldThrowException_WhenQueryIsIncomplete() {
+        List<PriceQuery> queries = List.of(new PriceQuery(testDateTime, null, testBrandId));
+
+        assertThrows(InvalidPriceBatchException.class, () -> pricePubicApiService.findApplicablePriceBatch(queries));
+        verify(priceRepositoryPort, never()).findApplicablePriceBatch(any());
+    }
+
+    @Test
+    void findApplicablePricePerBrand_ShouldCompareEveryBrand_WhenNoBrandIsGiven() {
+        when(priceRepositoryPort.findApplicablePricePerBrand(testDateTime, testProductId, List.of()))
+                .thenReturn(List.of(testPrice));
+
+        List<Price> result = pricePubicApiService.findApplicablePricePerBrand(testDateTime, testProductId, null);
+
+        assertEquals(List.of(testPrice), result);
+        assertEquals(1, meterRegistry.get("price.lookup").tag("strategy", "per-brand").timer().count());
+    }
+
+    @Test
+    void findApplicablePriceAtEach_ShouldReturnTheResultsFoundByRepository() {
+        List<LocalDateTime> dateTimes = List.of(testDateTime, LocalDateTime.of(2019, 1, 1, 0, 0, 0));
+        List<PriceLookupResult> results = List.of(
+                new PriceLookupResult(new PriceQuery(dateTimes.get(0), testProductId, testBrandId), testPrice),
+                new PriceLookupResult(new PriceQuery(dateTimes.get(1), testProductId, testBrandId), null));
+        when(priceRepositoryPort.findApplicablePriceAtEach(testProductId, testBrandId, dateTimes)).thenReturn(results);
+
+        assertEquals(results, pricePubicApiService.findApplicablePriceAtEach(testProductId, testBrandId, dateTimes));
+    }
+
+    @Test
+    void findApplicablePriceAtEach_ShouldThrowException_WhenADateTimeIsMissing() {
+        List<LocalDateTime> dateTimes = new ArrayList<>();
+        dateTimes.add(testDateTime);
+        dateTimes.add(null);
+
+        assertThrows(InvalidPriceBatchException.class,
+                () -> pricePubicApiService.findApplicablePriceAtEach(testProductId, testBrandId, dateTimes));
+        verify(priceRepositoryPort, never()).findApplicablePriceAtEach(any(), any(), any());
+    }
+
+    @Test
+    void snapshotApplicablePricesAt_ShouldStreamThePricesFoundByRepository() {
+        doAnswer(invocation -> {
+            Consumer<Price> consumer = invocation.getArgument(1);
+            testPrices.forEach(consumer);
+            return null;
+        }).when(priceRepositoryPort).forEachApplicablePriceAt(eq(testDateTime), any());
+        List<Price> snapshot = new ArrayList<>();
+
+        pricePubicApiService.snapshotApplicablePricesAt(testDateTime, snapshot::add);
+
+        assertEquals(testPrices, snapshot);
+        assertEquals(1, meterRegistry.get("price.snapshot").timer().count());
+    }
+}
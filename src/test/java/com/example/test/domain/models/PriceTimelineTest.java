@@ -0,0 +1,103 @@
+package com.example.test.domain.models;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceTimeline;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceTimelineTest {
+
+    private Price price(LocalDateTime startDate, LocalDateTime endDate, Long priceList, Integer priority) {
+        return new Price(1L, startDate, endDate, priceList, 35455L, priority, new BigDecimal("10.00"), "EUR");
+    }
+
+    @Test
+    void priceAt_ShouldResolveHighestPriorityPrice_ForInitialData() {
+        PriceTimeline timeline = PriceTimeline.of(List.of(
+                price(LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 0),
+                price(LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, 1),
+                price(LocalDateTime.of(2020, 6, 15, 0, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0, 0), 3L, 1),
+                price(LocalDateTime.of(2020, 6, 15, 16, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4L, 1)
+        ));
+
+        assertEquals(6, timeline.segmentCount());
+        assertEquals(1L, timeline.priceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0)).get().getPriceList());
+        assertEquals(2L, timeline.priceAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0)).get().getPriceList());
+        assertEquals(2L, timeline.priceAt(LocalDateTime.of(2020, 6, 14, 18, 30, 0)).get().getPriceList());
+        assertEquals(1L, timeline.priceAt(LocalDateTime.of(2020, 6, 14, 18, 30, 1)).get().getPriceList());
+        assertEquals(3L, timeline.priceAt(LocalDateTime.of(2020, 6, 15, 10, 0, 0)).get().getPriceList());
+        assertEquals(4L, timeline.priceAt(LocalDateTime.of(2020, 6, 16, 21, 0, 0)).get().getPriceList());
+        assertEquals(4L, timeline.priceAt(LocalDateTime.of(2020, 12, 31, 23, 59, 59)).get().getPriceList());
+    }
+
+    @Test
+    void pricesAt_ShouldResolveEveryInstantLikePriceAt_InTheOrderOfTheInstants() {
+        PriceTimeline timeline = PriceTimeline.of(List.of(
+                price(LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 0),
+                price(LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, 1),
+                price(LocalDateTime.of(2020, 6, 15, 0, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0, 0), 3L, 1),
+                price(LocalDateTime.of(2020, 6, 15, 16, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4L, 1)
+        ));
+        List<LocalDateTime> dateTimes = new ArrayList<>();
+        for (LocalDateTime dateTime = LocalDateTime.of(2020, 6, 13, 0, 0, 0);
+             dateTime.isBefore(LocalDateTime.of(2021, 1, 2, 0, 0, 0));
+             dateTime = dateTime.plusMinutes(90)) {
+            dateTimes.add(dateTime);
+        }
+        dateTimes.add(LocalDateTime.of(2020, 6, 14, 18, 30, 0));
+        dateTimes.add(LocalDateTime.of(2020, 12, 31, 23, 59, 59));
+        Collections.shuffle(dateTimes, new Random(7));
+        // Repeated instants resolve alike
+        dateTimes.add(dateTimes.get(0));
+
+        Price[] prices = timeline.pricesAt(dateTimes);
+
+        assertEquals(dateTimes.size(), prices.length);
+        for (int i = 0; i < prices.length; i++) {
+            assertEquals(timeline.priceAt(dateTimes.get(i)).orElse(null), prices[i], "At " + dateTimes.get(i));
+        }
+        assertTrue(Arrays.stream(PriceTimeline.of(List.of()).pricesAt(dateTimes)).allMatch(Objects::isNull));
+    }
+
+    @Test
+    void priceAt_ShouldReturnEmpty_OutsideEveryPriceAndInGaps() {
+        PriceTimeline timeline = PriceTimeline.of(List.of(
+                price(LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 1, 31, 23, 59, 59), 1L, 0),
+                price(LocalDateTime.of(2020, 3, 1, 0, 0, 0), LocalDateTime.of(2020, 3, 31, 23, 59, 59), 2L, 0)
+        ));
+
+        assertTrue(timeline.priceAt(LocalDateTime.of(2019, 12, 31, 23, 59, 59)).isEmpty());
+        assertTrue(timeline.priceAt(LocalDateTime.of(2020, 2, 15, 0, 0, 0)).isEmpty());
+        assertTrue(timeline.priceAt(LocalDateTime.of(2020, 4, 1, 0, 0, 0)).isEmpty());
+        assertEquals(2L, timeline.priceAt(LocalDateTime.of(2020, 3, 1, 0, 0, 0)).get().getPriceList());
+    }
+
+    @Test
+    void priceAt_ShouldKeepFirstPrice_WhenPrioritiesTie() {
+        PriceTimeline timeline = PriceTimeline.of(List.of(
+                price(LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 1),
+                price(LocalDateTime.of(2020, 6, 1, 0, 0, 0), LocalDateTime.of(2020, 6, 30, 23, 59, 59), 2L, 1)
+        ));
+
+        assertEquals(1L, timeline.priceAt(LocalDateTime.of(2020, 6, 15, 0, 0, 0)).get().getPriceList());
+        assertEquals(1, timeline.segmentCount());
+    }
+
+    @Test
+    void priceAt_ShouldReturnEmpty_WhenTimelineHasNoPrices() {
+        PriceTimeline timeline = PriceTimeline.of(List.of());
+
+        assertEquals(0, timeline.segmentCount());
+        assertTrue(timeline.priceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0)).isEmpty());
+    }
+}
@@ -1,17 +1,28 @@
 package com.example.test.infrastructure.adapters.httapi;
 
 import com.example.test.price.infrastructure.adapters.httpapi.dtos.ErrorResponse;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceBatchItemResponse;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceBatchRequestItem;
 import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceResponse;
+import com.example.test.price.infrastructure.adapters.httpapi.dtos.PriceSeriesRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -31,6 +42,12 @@ public class PriceControllerIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private String formatDateTime(LocalDateTime dateTime) {
         return dateTime.format(DateTimeFormatter.ISO_DATE_TIME);
     }
@@ -310,4 +327,235 @@ public class PriceControllerIntegrationTest {
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().getMessage()).contains("Required parameter");
     }
-}
\ No newline at end of file
+
+    // Tests for v3 endpoint
+    @Test
+    public void testGetApplicablePriceV3_CacheableForRowChurnOnly_AtAGivenInstant() {
+        // Price List 2 stops winning 30 seconds after the requested instant, which the response does not depend on
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 18, 29, 30);
+        String url = buildUrl("v3", dateTime, 35455L, 1L);
+
+        ResponseEntity<PriceResponse> response = restTemplate.getForEntity(url, PriceResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getPriceList()).isEqualTo(2L);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=60, public");
+        assertThat(response.getHeaders().getExpires()).isPositive();
+        assertThat(response.getHeaders().getETag())
+                .isEqualTo("\"2-1-1-35455-2020-06-14T15:00-2020-06-14T18:30-25.45-EUR\"");
+    }
+
+    @Test
+    public void testGetApplicablePriceV3_CacheableUntilTheWinnerChanges_AtTheServerTime() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, ?, ?, 21, 91010, 0, 3.00, 'EUR')", now.minusHours(1), now.plusSeconds(30));
+        String url = "http://localhost:" + port + "/api/prices/v3?productId=91010&brandId=1";
+
+        ResponseEntity<PriceResponse> response = restTemplate.getForEntity(url, PriceResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getPriceList()).isEqualTo(21L);
+        assertThat(response.getHeaders().getCacheControl()).matches("max-age=(\\d+), public");
+        long maxAge = Long.parseLong(response.getHeaders().getCacheControl().replaceAll("\\D", ""));
+        assertThat(maxAge).isBetween(1L, 30L);
+    }
+
+    @Test
+    public void testGetApplicablePriceV3_MaxAgeIsCapped() {
+        // Price List 1 wins until 2020-06-14 15:00:00, longer than price.http.max-age
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+        String url = buildUrl("v3", dateTime, 35455L, 1L);
+
+        ResponseEntity<PriceResponse> response = restTemplate.getForEntity(url, PriceResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getPriceList()).isEqualTo(1L);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=60, public");
+    }
+
+    @Test
+    public void testGetApplicablePriceV3_NotModified() {
+        String url = buildUrl("v3", LocalDateTime.of(2020, 6, 14, 16, 0, 0), 35455L, 1L);
+        String etag = restTemplate.getForEntity(url, PriceResponse.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+    }
+
+    @Test
+    public void testGetApplicablePriceV3_ModifiedWhenTheWinnerChanged() {
+        String etag = restTemplate.getForEntity(buildUrl("v3", LocalDateTime.of(2020, 6, 14, 16, 0, 0), 35455L, 1L),
+                PriceResponse.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+
+        ResponseEntity<PriceResponse> response = restTemplate.exchange(
+                buildUrl("v3", LocalDateTime.of(2020, 6, 14, 21, 0, 0), 35455L, 1L),
+                HttpMethod.GET, new HttpEntity<>(headers), PriceResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getPriceList()).isEqualTo(1L);
+    }
+
+    // Tests for brands endpoint
+
+    @Test
+    public void testGetApplicablePricePerBrand_ReturnsTheWinnerOfEveryBrand() {
+        String url = "http://localhost:" + port + "/api/prices/brands?dateTime=" +
+                formatDateTime(LocalDateTime.of(2020, 6, 14, 16, 0, 0)) + "&productId=35455";
+
+        ResponseEntity<PriceResponse[]> response = restTemplate.getForEntity(url, PriceResponse[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        assertThat(response.getBody()[0].getBrandId()).isEqualTo(1L);
+        assertThat(response.getBody()[0].getPriceList()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testGetApplicablePricePerBrand_LeavesOutBrandsWithoutPrice() {
+        String url = "http://localhost:" + port + "/api/prices/brands?dateTime=" +
+                formatDateTime(LocalDateTime.of(2020, 6, 16, 21, 0, 0)) + "&productId=35455&brandIds=2,1";
+
+        ResponseEntity<PriceResponse[]> response = restTemplate.getForEntity(url, PriceResponse[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(PriceResponse::getPriceList).containsExactly(4L);
+    }
+
+    // Tests for batch endpoint
+
+    @Test
+    public void testGetApplicablePriceBatch_ReturnsResultPerItemInRequestOrder() {
+        String url = "http://localhost:" + port + "/api/prices/batch";
+        List<PriceBatchRequestItem> items = List.of(
+                new PriceBatchRequestItem(LocalDateTime.of(2020, 6, 14, 16, 0, 0), 35455L, 1L),
+                new PriceBatchRequestItem(LocalDateTime.of(2020, 6, 14, 10, 0, 0), 99999L, 1L),
+                new PriceBatchRequestItem(LocalDateTime.of(2020, 6, 16, 21, 0, 0), 35455L, 1L)
+        );
+
+        ResponseEntity<PriceBatchItemResponse[]> response = restTemplate.postForEntity(url, items, PriceBatchItemResponse[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(3);
+        assertThat(response.getBody()[0].getStatus()).isEqualTo(PriceBatchItemResponse.FOUND);
+        assertThat(response.getBody()[0].getPrice().getPriceList()).isEqualTo(2L);
+        assertThat(response.getBody()[1].getStatus()).isEqualTo(PriceBatchItemResponse.NOT_FOUND);
+        assertThat(response.getBody()[1].getPrice()).isNull();
+        assertThat(response.getBody()[1].getMessage()).contains("No applicable price found for product ID 99999");
+        assertThat(response.getBody()[2].getStatus()).isEqualTo(PriceBatchItemResponse.FOUND);
+        assertThat(response.getBody()[2].getPrice().getPriceList()).isEqualTo(4L);
+    }
+
+    @Test
+    public void testGetApplicablePriceBatch_IncompleteItem() {
+        String url = "http://localhost:" + port + "/api/prices/batch";
+        List<PriceBatchRequestItem> items = List.of(
+                new PriceBatchRequestItem(LocalDateTime.of(2020, 6, 14, 16, 0, 0), null, 1L)
+        );
+
+        ResponseEntity<ErrorResponse> response = restTemplate.postForEntity(url, items, ErrorResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getMessage()).contains("requires dateTime, productId and brandId");
+    }
+
+    @Test
+    public void testGetApplicablePriceBatch_NullOrEmptyItem() {
+        String url = "http://localhost:" + port + "/api/prices/batch";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        for (String body : List.of("[null]", "[{}]", "[{\"productId\": 35455, \"brandId\": 1}]")) {
+            ResponseEntity<ErrorResponse> response = restTemplate.postForEntity(url, new HttpEntity<>(body, headers),
+                    ErrorResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(response.getBody().getMessage()).contains("requires dateTime, productId and brandId");
+        }
+    }
+
+    // Tests for series endpoint
+
+    @Test
+    public void testGetApplicablePriceSeries_ReturnsResultPerDateTimeInRequestOrder() {
+        String url = "http://localhost:" + port + "/api/prices/series";
+        PriceSeriesRequest request = new PriceSeriesRequest(35455L, 1L, List.of(
+                LocalDateTime.of(2020, 6, 16, 21, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 10, 0, 0),
+                LocalDateTime.of(2019, 6, 14, 10, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 16, 0, 0)
+        ));
+
+        ResponseEntity<PriceBatchItemResponse[]> response = restTemplate.postForEntity(url, request, PriceBatchItemResponse[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(4);
+        assertThat(response.getBody()[0].getPrice().getPriceList()).isEqualTo(4L);
+        assertThat(response.getBody()[1].getPrice().getPriceList()).isEqualTo(1L);
+        assertThat(response.getBody()[2].getStatus()).isEqualTo(PriceBatchItemResponse.NOT_FOUND);
+        assertThat(response.getBody()[2].getDateTime()).isEqualTo(LocalDateTime.of(2019, 6, 14, 10, 0, 0));
+        assertThat(response.getBody()[3].getPrice().getPriceList()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testGetApplicablePriceSeries_MissingBrand() {
+        String url = "http://localhost:" + port + "/api/prices/series";
+        PriceSeriesRequest request = new PriceSeriesRequest(35455L, null, List.of(LocalDateTime.of(2020, 6, 14, 10, 0, 0)));
+
+        ResponseEntity<ErrorResponse> response = restTemplate.postForEntity(url, request, ErrorResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getMessage()).contains("requires productId, brandId");
+    }
+
+    // Tests for snapshot endpoint
+
+    @Test
+    public void testGetApplicablePriceSnapshot_StreamsOneLinePerProductAndBrand() throws Exception {
+        String url = "http://localhost:" + port + "/api/prices/snapshot?dateTime=" +
+                formatDateTime(LocalDateTime.of(2020, 6, 14, 16, 0, 0));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        List<PriceResponse> prices = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            prices.add(objectMapper.readValue(line, PriceResponse.class));
+        }
+        assertThat(prices).filteredOn(price -> price.getProductId() == 35455L && price.getBrandId() == 1L)
+                .singleElement()
+                .satisfies(price -> assertThat(price.getPriceList()).isEqualTo(2L));
+    }
+
+    @Test
+    void importPrices_ShouldNotBeExposed_UnlessEnabled() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        String feed = "brand_id,start_date,end_date,price_list,product_id,priority,price,currency\n"
+                + "1,2021-01-01 00:00:00,2021-12-31 23:59:59,1,91005,0,10.50,EUR\n";
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                "http://localhost:" + port + "/api/admin/prices/import", HttpMethod.POST,
+                new HttpEntity<>(feed, headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void reactiveEndpoints_ShouldNotBeExposed_UnlessEnabled() {
+        String url = "http://localhost:" + port + "/api/reactive/prices/v1?dateTime=2020-06-14T10:00:00&productId=35455&brandId=1";
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
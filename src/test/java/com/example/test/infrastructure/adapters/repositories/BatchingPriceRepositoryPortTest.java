@@ -0,0 +1,131 @@
+package com.example.test.infrastructure.adapters.repositories;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.BatchingPriceRepositoryPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchingPriceRepositoryPortTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+    private static final int CALLERS = 8;
+
+    @Mock
+    private PriceRepositoryPort delegate;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private static Price price(Long productId) {
+        return new Price(1L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                1L, productId, 0, new BigDecimal("35.50"), "EUR");
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldMergeConcurrentLookupsIntoASingleBatch() throws Exception {
+        // A window long enough for the batch to be dispatched by reaching its size
+        BatchingPriceRepositoryPort port = new BatchingPriceRepositoryPort(delegate, Duration.ofSeconds(10), CALLERS,
+                meterRegistry);
+        when(delegate.findApplicablePriceBatch(any())).thenAnswer(invocation -> {
+            Map<PriceQuery, Price> prices = new HashMap<>();
+            for (PriceQuery query : invocation.<Collection<PriceQuery>>getArgument(0)) {
+                if (query.getProductId() % 2 == 0) {
+                    prices.put(query, price(query.getProductId()));
+                }
+            }
+            return prices;
+        });
+
+        List<Future<Optional<Price>>> results = callConcurrently(port);
+
+        for (int i = 0; i < CALLERS; i++) {
+            Optional<Price> result = results.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals(i % 2 == 0, result.isPresent());
+            if (result.isPresent()) {
+                assertEquals(i, result.get().getProductId());
+            }
+        }
+        verify(delegate, times(1)).findApplicablePriceBatch(any());
+        verify(delegate, never()).findApplicablePriceAt(any(), any(), any());
+        assertEquals(CALLERS, meterRegistry.get("price.repository.batch.size").summary().totalAmount());
+        assertEquals(CALLERS, meterRegistry.get("price.repository.batch.wait").timer().count());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldPropagateTheBatchFailureToEveryCaller() throws Exception {
+        BatchingPriceRepositoryPort port = new BatchingPriceRepositoryPort(delegate, Duration.ofSeconds(10), CALLERS,
+                meterRegistry);
+        IllegalStateException failure = new IllegalStateException("Connection refused");
+        when(delegate.findApplicablePriceBatch(any())).thenThrow(failure);
+
+        for (Future<Optional<Price>> result : callConcurrently(port)) {
+            Exception exception = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertSame(failure, exception.getCause());
+        }
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldRunALoneLookupAsSuch_OnceTheWindowHasElapsed() {
+        BatchingPriceRepositoryPort port = new BatchingPriceRepositoryPort(delegate, Duration.ofMillis(1), CALLERS,
+                meterRegistry);
+        when(delegate.findApplicablePriceAt(DATE_TIME, 35455L, 1L)).thenReturn(Optional.of(price(35455L)));
+
+        Optional<Price> result = port.findApplicablePriceAt(DATE_TIME, 35455L, 1L);
+
+        assertEquals(35455L, result.get().getProductId());
+        verify(delegate, never()).findApplicablePriceBatch(any());
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchingPriceRepositoryPort(delegate, Duration.ofMillis(1), 0, meterRegistry));
+    }
+
+    /**
+     * Looks up product {@code i} from caller {@code i}, all at once.
+     */
+    private static List<Future<Optional<Price>>> callConcurrently(BatchingPriceRepositoryPort port) {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Optional<Price>>> results = new ArrayList<>();
+        for (long productId = 0; productId < CALLERS; productId++) {
+            Long product = productId;
+            results.add(executor.submit(() -> port.findApplicablePriceAt(DATE_TIME, product, 1L)));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.test.infrastructure.adapters.repositories;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.CoalescingPriceRepositoryPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingPriceRepositoryPortTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+    private static final int CALLERS = 20;
+
+    @Mock
+    private PriceRepositoryPort delegate;
+
+    private MeterRegistry meterRegistry;
+    private CoalescingPriceRepositoryPort port;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        port = new CoalescingPriceRepositoryPort(delegate, meterRegistry);
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldRunASingleQuery_ForIdenticalConcurrentLookups() throws Exception {
+        Price price = new Price(1L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                1L, 35455L, 0, new BigDecimal("35.50"), "EUR");
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findApplicablePriceAt(DATE_TIME, 35455L, 1L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(price);
+        });
+
+        List<Future<Optional<Price>>> results = callConcurrently();
+        release.countDown();
+
+        for (Future<Optional<Price>> result : results) {
+            assertSame(price, result.get(10, TimeUnit.SECONDS).get());
+        }
+        verify(delegate, times(1)).findApplicablePriceAt(any(), any(), any());
+        assertEquals(CALLERS - 1, coalescedCount());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldPropagateTheFailureToEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Connection refused");
+        when(delegate.findApplicablePriceAt(DATE_TIME, 35455L, 1L)).thenAnswer(invocation -> {
+            release.await();
+            throw failure;
+        });
+
+        List<Future<Optional<Price>>> results = callConcurrently();
+        release.countDown();
+
+        for (Future<Optional<Price>> result : results) {
+            Exception exception = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertSame(failure, exception.getCause());
+        }
+        verify(delegate, times(1)).findApplicablePriceAt(any(), any(), any());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldQueryAgain_OnceTheLookupInFlightHasCompleted() {
+        when(delegate.findApplicablePriceAt(DATE_TIME, 35455L, 1L)).thenReturn(Optional.empty());
+
+        assertTrue(port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).isEmpty());
+        assertTrue(port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).isEmpty());
+
+        verify(delegate, times(2)).findApplicablePriceAt(any(), any(), any());
+        assertEquals(0, coalescedCount());
+    }
+
+    /**
+     * Starts every caller on the same lookup and returns once all but the first are waiting on it.
+     */
+    private List<Future<Optional<Price>>> callConcurrently() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Optional<Price>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> port.findApplicablePriceAt(DATE_TIME, 35455L, 1L)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalescedCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("price.repository.coalesced").tag("query", "applicable-price").counter().count();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.test.infrastructure.adapters.repositories;
+
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.ConcurrencyLimitedPriceRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ConcurrencyLimitedPriceRepositoryPortTest {
+
+    @Mock
+    private PriceRepositoryPort delegate;
+
+    @Test
+    void virtualThreadLimit_ShouldStayBelowTheCarriersAndTheConnections() {
+        int carriers = Runtime.getRuntime().availableProcessors();
+
+        assertEquals(Math.max(1, Math.min(10, carriers - 1)), ConcurrencyLimitedPriceRepositoryPort.virtualThreadLimit(10));
+        assertEquals(1, ConcurrencyLimitedPriceRepositoryPort.virtualThreadLimit(1));
+        assertTrue(ConcurrencyLimitedPriceRepositoryPort.virtualThreadLimit(1000) < Math.max(2, carriers));
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldNeverLetMoreCallersInThanTheLimit() throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(delegate.findApplicablePriceAt(any(), any(), any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            return Optional.empty();
+        });
+        ConcurrencyLimitedPriceRepositoryPort port = new ConcurrencyLimitedPriceRepositoryPort(delegate, 3);
+
+        int callers = 40;
+        CountDownLatch done = new CountDownLatch(callers);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        for (int i = 0; i < callers; i++) {
+            executor.execute(() -> {
+                port.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0), 35455L, 1L);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(maxInFlight.get() <= 3);
+        verify(delegate, times(callers)).findApplicablePriceAt(any(), any(), any());
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimitedPriceRepositoryPort(delegate, 0));
+    }
+}
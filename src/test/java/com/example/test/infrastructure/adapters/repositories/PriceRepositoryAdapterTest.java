@@ -1,13 +1,22 @@
 package com.example.test.infrastructure.adapters.repositories;
 
 import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.PriceKeyRange;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.models.ResolvedPrice;
 import com.example.test.price.infrastructure.adapters.repositories.PriceRepositoryAdapter;
+import com.example.test.price.infrastructure.adapters.repositories.jdbcrepository.JdbcPriceRepository;
 import com.example.test.price.infrastructure.adapters.repositories.jparepository.JpaPriceRepository;
 import com.example.test.price.infrastructure.adapters.repositories.jparepository.entities.JpaPriceEntity;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.PriceSnapshotScanner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -15,11 +24,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,7 +42,13 @@ public class PriceRepositoryAdapterTest {
     @Mock
     private JpaPriceRepository jpaPriceRepository;
 
-    @InjectMocks
+    @Mock
+    private JdbcPriceRepository jdbcPriceRepository;
+
+    @Mock
+    private PriceSnapshotScanner priceSnapshotScanner;
+
+    private MeterRegistry meterRegistry;
     private PriceRepositoryAdapter priceRepositoryAdapter;
 
     private LocalDateTime testDateTime;
@@ -39,6 +59,10 @@ public class PriceRepositoryAdapterTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        priceRepositoryAdapter = new PriceRepositoryAdapter(jpaPriceRepository, jdbcPriceRepository, priceSnapshotScanner,
+                meterRegistry, PriceRepositoryAdapter.ENTITY_READ_PATH);
+
         testDateTime = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
         testProductId = 35455L;
         testBrandId = 1L;
@@ -126,6 +150,10 @@ public class PriceRepositoryAdapterTest {
         assertEquals(1L, price.getPriceList());
         assertEquals(new BigDecimal("35.50"), price.getPrice());
         assertEquals("EUR", price.getCurrency());
+
+        assertEquals(1, meterRegistry.get("price.repository.query").tag("query", "applicable-prices").timer().count());
+        assertEquals(1, meterRegistry.get("price.repository.mapping").timer().count());
+        assertEquals(1.0, meterRegistry.get("price.repository.candidates").summary().totalAmount());
     }
 
     @Test
@@ -138,4 +166,155 @@ public class PriceRepositoryAdapterTest {
 
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findApplicablePriceBatch_ShouldResolveHighestPriorityPricePerQuery() {
+        Price basePrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, testProductId, 0, new BigDecimal("35.50"), "EUR");
+        Price promotionPrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 15, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, testProductId, 1, new BigDecimal("25.45"), "EUR");
+        JpaPriceEntity promotionEntity = Mockito.mock(JpaPriceEntity.class);
+
+        when(testPriceEntity.toDomainModel()).thenReturn(basePrice);
+        when(promotionEntity.toDomainModel()).thenReturn(promotionPrice);
+        when(jpaPriceRepository.findPricesOverlapping(anyCollection()))
+                .thenReturn(List.of(testPriceEntity, promotionEntity));
+
+        PriceQuery morning = new PriceQuery(testDateTime, testProductId, testBrandId);
+        PriceQuery afternoon = new PriceQuery(LocalDateTime.of(2020, 6, 14, 16, 0, 0), testProductId, testBrandId);
+        PriceQuery otherBrand = new PriceQuery(testDateTime, testProductId, 2L);
+
+        Map<PriceQuery, Price> result = priceRepositoryAdapter.findApplicablePriceBatch(List.of(morning, afternoon, otherBrand));
+
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(morning).getPriceList());
+        assertEquals(2L, result.get(afternoon).getPriceList());
+        assertFalse(result.containsKey(otherBrand));
+    }
+
+    @Test
+    void findApplicablePriceBatch_ShouldQueryEachKeyOverItsOwnDateTimesOnly() {
+        PriceQuery morning = new PriceQuery(testDateTime, testProductId, testBrandId);
+        PriceQuery afternoon = new PriceQuery(LocalDateTime.of(2020, 6, 14, 16, 0, 0), testProductId, testBrandId);
+        PriceQuery otherProduct = new PriceQuery(LocalDateTime.of(2020, 6, 20, 0, 0, 0), 35456L, 2L);
+        when(jpaPriceRepository.findPricesOverlapping(anyCollection())).thenReturn(List.of());
+
+        priceRepositoryAdapter.findApplicablePriceBatch(List.of(morning, afternoon, otherProduct));
+
+        ArgumentCaptor<Collection<PriceKeyRange>> ranges = ArgumentCaptor.captor();
+        Mockito.verify(jpaPriceRepository).findPricesOverlapping(ranges.capture());
+        Map<PriceKey, PriceKeyRange> rangesByKey = ranges.getValue().stream()
+                .collect(Collectors.toMap(PriceKeyRange::getKey, range -> range));
+        assertEquals(2, rangesByKey.size());
+        PriceKeyRange key = rangesByKey.get(new PriceKey(testBrandId, testProductId));
+        assertEquals(testDateTime, key.getFrom());
+        assertEquals(afternoon.getDateTime(), key.getTo());
+        PriceKeyRange otherKey = rangesByKey.get(new PriceKey(2L, 35456L));
+        assertEquals(otherProduct.getDateTime(), otherKey.getFrom());
+        assertEquals(otherProduct.getDateTime(), otherKey.getTo());
+    }
+
+    @Test
+    void findApplicablePriceBatch_ShouldReturnEmptyMap_WhenBatchIsEmpty() {
+        Map<PriceQuery, Price> result = priceRepositoryAdapter.findApplicablePriceBatch(List.of());
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void findApplicablePricePerBrand_ShouldMapTheFirstRowOfEachBrandOnly() {
+        Price otherBrandPrice = new Price(2L, LocalDateTime.of(2020, 6, 1, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 7L, testProductId, 0, new BigDecimal("33.00"), "EUR");
+        Price promotionPrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, testProductId, 1, new BigDecimal("25.45"), "EUR");
+        JpaPriceEntity promotionEntity = Mockito.mock(JpaPriceEntity.class);
+        JpaPriceEntity otherBrandEntity = Mockito.mock(JpaPriceEntity.class);
+
+        when(promotionEntity.getBrandId()).thenReturn(testBrandId);
+        when(testPriceEntity.getBrandId()).thenReturn(testBrandId);
+        when(otherBrandEntity.getBrandId()).thenReturn(2L);
+        when(promotionEntity.toDomainModel()).thenReturn(promotionPrice);
+        when(otherBrandEntity.toDomainModel()).thenReturn(otherBrandPrice);
+        // Grouped by brand, in descending priority within a brand
+        when(jpaPriceRepository.findApplicablePricesOfEveryBrandAt(eq(testDateTime), eq(testProductId)))
+                .thenReturn(List.of(promotionEntity, testPriceEntity, otherBrandEntity));
+
+        List<Price> result = priceRepositoryAdapter.findApplicablePricePerBrand(testDateTime, testProductId, List.of());
+
+        assertEquals(List.of(promotionPrice, otherBrandPrice), result);
+        Mockito.verify(testPriceEntity, Mockito.never()).toDomainModel();
+        assertEquals(3.0, meterRegistry.get("price.repository.candidates").summary().totalAmount());
+    }
+
+    @Test
+    void findApplicablePriceAtEach_ShouldReadTheKeyOnce_AndAnswerInTheOrderOfTheDateTimes() {
+        Price basePrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, testProductId, 0, new BigDecimal("35.50"), "EUR");
+        Price promotionPrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 15, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, testProductId, 1, new BigDecimal("25.45"), "EUR");
+        JpaPriceEntity promotionEntity = Mockito.mock(JpaPriceEntity.class);
+        LocalDateTime afternoon = LocalDateTime.of(2020, 6, 14, 16, 0, 0);
+        LocalDateTime before = LocalDateTime.of(2020, 6, 13, 10, 0, 0);
+
+        when(testPriceEntity.toDomainModel()).thenReturn(basePrice);
+        when(promotionEntity.toDomainModel()).thenReturn(promotionPrice);
+        when(jpaPriceRepository.findPricesOverlapping(testProductId, testBrandId, before, afternoon))
+                .thenReturn(List.of(testPriceEntity, promotionEntity));
+
+        List<PriceLookupResult> results = priceRepositoryAdapter.findApplicablePriceAtEach(testProductId, testBrandId,
+                List.of(afternoon, testDateTime, before));
+
+        assertEquals(List.of(afternoon, testDateTime, before),
+                results.stream().map(result -> result.getQuery().getDateTime()).toList());
+        assertEquals(promotionPrice, results.get(0).getPrice());
+        assertEquals(basePrice, results.get(1).getPrice());
+        assertFalse(results.get(2).isFound());
+        assertEquals(1, meterRegistry.get("price.repository.query").tag("query", "at-each").timer().count());
+    }
+
+    @Test
+    void findResolvedPriceAt_ShouldReadThePricesAroundTheDateTimeOnly_AndResolveTheirWindow() {
+        Price basePrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, testProductId, 0, new BigDecimal("35.50"), "EUR");
+        Price promotionPrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 15, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, testProductId, 1, new BigDecimal("25.45"), "EUR");
+        JpaPriceEntity promotionEntity = Mockito.mock(JpaPriceEntity.class);
+
+        when(testPriceEntity.toDomainModel()).thenReturn(basePrice);
+        when(promotionEntity.toDomainModel()).thenReturn(promotionPrice);
+        when(jpaPriceRepository.findPricesAroundAt(testDateTime, testProductId, testBrandId))
+                .thenReturn(List.of(testPriceEntity, promotionEntity));
+
+        ResolvedPrice result = priceRepositoryAdapter.findResolvedPriceAt(testDateTime, testProductId, testBrandId).get();
+
+        assertEquals(basePrice, result.getPrice());
+        assertEquals(LocalDateTime.of(2020, 6, 14, 0, 0, 0), result.getValidFrom());
+        assertEquals(LocalDateTime.of(2020, 6, 14, 15, 0, 0), result.getValidUntil());
+        assertEquals(1, meterRegistry.get("price.repository.query").tag("query", "resolved-price").timer().count());
+    }
+
+    @Test
+    void findApplicablePricesAt_ShouldReadPricesWithoutEntities_WhenJdbcReadPathIsSelected() {
+        PriceRepositoryAdapter jdbcAdapter = new PriceRepositoryAdapter(jpaPriceRepository, jdbcPriceRepository,
+                priceSnapshotScanner, meterRegistry, PriceRepositoryAdapter.JDBC_READ_PATH);
+        Price expectedPrice = new Price(testBrandId, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, testProductId, 0, new BigDecimal("35.50"), "EUR");
+
+        when(jdbcPriceRepository.findApplicablePricesAt(eq(testDateTime), eq(testProductId), eq(testBrandId)))
+                .thenReturn(List.of(expectedPrice));
+
+        List<Price> result = jdbcAdapter.findApplicablePricesAt(testDateTime, testProductId, testBrandId);
+
+        assertEquals(List.of(expectedPrice), result);
+        verifyNoInteractions(jpaPriceRepository);
+        assertEquals(1, meterRegistry.get("price.repository.query").tag("query", "applicable-prices").timer().count());
+        assertEquals(0, meterRegistry.get("price.repository.mapping").timer().count());
+        assertEquals(1.0, meterRegistry.get("price.repository.candidates").summary().totalAmount());
+    }
+
+    @Test
+    void constructor_ShouldFail_WhenReadPathIsUnknown() {
+        assertThrows(IllegalArgumentException.class, () -> new PriceRepositoryAdapter(jpaPriceRepository,
+                jdbcPriceRepository, priceSnapshotScanner, meterRegistry, "hibernate"));
+    }
+}
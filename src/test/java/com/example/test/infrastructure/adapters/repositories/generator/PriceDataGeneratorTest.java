@@ -0,0 +1,61 @@
+package com.example.test.infrastructure.adapters.repositories.generator;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.ports.in.PricePublicApiPort;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDataGenerator;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetProfile;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetSpec;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriorityDistribution;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:generator;DB_CLOSE_DELAY=-1"
+})
+public class PriceDataGeneratorTest {
+
+    @Autowired
+    private PriceDataGenerator priceDataGenerator;
+
+    @Autowired
+    private PricePublicApiPort pricePublicApiPort;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generate_ShouldWriteEveryRowOfTheSpec_AndCoverEverySampledLookup() {
+        PriceDatasetSpec spec = new PriceDatasetSpec(3, 50, 7, 3, 2, PriorityDistribution.UNIFORM,
+                LocalDateTime.of(2020, 1, 1, 0, 0, 0), 30, 1L);
+        long before = countRows();
+
+        long written = priceDataGenerator.generate(spec);
+
+        assertEquals(spec.getRowCount(), written);
+        assertEquals(before + written, countRows());
+        for (PriceQuery query : spec.sampleQueries(200)) {
+            Price v1 = pricePublicApiPort.findApplicablePriceAtV1(query.getDateTime(), query.getProductId(), query.getBrandId());
+            Price v2 = pricePublicApiPort.findApplicablePriceAtV2(query.getDateTime(), query.getProductId(), query.getBrandId());
+            assertEquals(v1.getPriority(), v2.getPriority());
+        }
+    }
+
+    @Test
+    void profiles_ShouldDescribeGrowingCatalogs() {
+        assertTrue(PriceDatasetProfile.SMALL.spec().getRowCount() < PriceDatasetProfile.MEDIUM.spec().getRowCount());
+        assertTrue(PriceDatasetProfile.MEDIUM.spec().getRowCount() < PriceDatasetProfile.HUGE.spec().getRowCount());
+        assertTrue(PriceDatasetProfile.HUGE.spec().getRowCount() >= 10_000_000L);
+    }
+
+    private long countRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price", Long.class);
+    }
+}
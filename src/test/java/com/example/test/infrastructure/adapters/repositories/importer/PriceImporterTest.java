@@ -0,0 +1,103 @@
+package com.example.test.infrastructure.adapters.repositories.importer;
+
+import com.example.test.price.infrastructure.adapters.repositories.importer.InvalidPriceFeedException;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceFeedFormat;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceImportReport;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceImporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:importer;DB_CLOSE_DELAY=-1",
+        "price.import.chunk-size=2"
+})
+public class PriceImporterTest {
+
+    @Autowired
+    private PriceImporter priceImporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importFeed_ShouldWriteValidCsvRows_AndRejectInvalidOnes() throws Exception {
+        String feed = """
+                product_id,brand_id,price_list,start_date,end_date,priority,price,currency
+                91001,1,1,2021-01-01 00:00:00,2021-12-31 23:59:59,0,10.50,EUR
+                91001,1,2,2021-03-01T00:00:00,2021-03-31T23:59:59,1,9.99,EUR
+
+                91001,1,3,2021-05-01 00:00:00,2021-04-01 00:00:00,1,9.99,EUR
+                91001,1,4,yesterday,2021-04-01 00:00:00,1,9.99,EUR
+                91001,1,5,2021-06-01 00:00:00,2021-06-30 23:59:59,1,9.99,eur
+                91001,1,6,2021-07-01 00:00:00,2021-07-31 23:59:59,1,8.75,USD
+                """;
+
+        PriceImportReport report = priceImporter.importFeed(new StringReader(feed), PriceFeedFormat.CSV);
+
+        assertEquals(6, report.getRowsRead());
+        assertEquals(3, report.getRowsImported());
+        assertEquals(List.of(3L), report.getRowsImportedPerShard());
+        assertEquals(3, report.getRowsRejected());
+        assertEquals(3, report.getRejections().size());
+        assertTrue(report.getRejections().get(0).startsWith("line 5: "));
+        assertEquals(3, countRows(91001L));
+        assertEquals(new BigDecimal("9.99"), jdbcTemplate.queryForObject(
+                "SELECT price FROM price WHERE product_id = 91001 AND price_list = 2", BigDecimal.class));
+    }
+
+    @Test
+    void importFeed_ShouldWriteValidNdjsonRows_AndRejectInvalidOnes() throws Exception {
+        String feed = """
+                {"brand_id":1,"start_date":"2021-01-01T00:00:00","end_date":"2021-12-31T23:59:59","price_list":1,"product_id":91002,"priority":0,"price":10.50,"currency":"EUR"}
+                {"brand_id":1,"start_date":"2021-01-01T00:00:00","end_date":"2021-12-31T23:59:59","price_list":2,"product_id":91002,"priority":0,"currency":"EUR"}
+                {"brand_id":1,
+                {"brand_id":1,"start_date":"2021-02-01T00:00:00","end_date":"2021-02-28T23:59:59","price_list":3,"product_id":91002,"priority":2,"price":7,"currency":"EUR"}
+                """;
+
+        PriceImportReport report = priceImporter.importFeed(new StringReader(feed), PriceFeedFormat.NDJSON);
+
+        assertEquals(4, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(2, report.getRowsRejected());
+        assertEquals(2, countRows(91002L));
+    }
+
+    @Test
+    void importFeed_ShouldSkipAByteOrderMark_AndRejectQuotedFields() throws Exception {
+        String feed = "\uFEFFbrand_id,start_date,end_date,price_list,product_id,priority,price,currency\n"
+                + "1,2021-01-01 00:00:00,2021-12-31 23:59:59,1,91004,0,10.50,EUR\n"
+                + "1,2021-01-01 00:00:00,2021-12-31 23:59:59,2,91004,0,\"1,050.00\",EUR\n";
+
+        PriceImportReport report = priceImporter.importFeed(new StringReader(feed), PriceFeedFormat.CSV);
+
+        assertEquals(2, report.getRowsRead());
+        assertEquals(1, report.getRowsImported());
+        assertEquals(List.of("line 3: quoted fields are not supported"), report.getRejections());
+        assertEquals(1, countRows(91004L));
+    }
+
+    @Test
+    void importFeed_ShouldFail_WhenCsvHeaderMissesAColumn() {
+        String feed = """
+                product_id,brand_id,start_date,end_date,priority,price,currency
+                91003,1,2021-01-01 00:00:00,2021-12-31 23:59:59,0,10.50,EUR
+                """;
+
+        assertThrows(InvalidPriceFeedException.class,
+                () -> priceImporter.importFeed(new StringReader(feed), PriceFeedFormat.CSV));
+        assertEquals(0, countRows(91003L));
+    }
+
+    private long countRows(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price WHERE product_id = ?", Long.class, productId);
+    }
+}
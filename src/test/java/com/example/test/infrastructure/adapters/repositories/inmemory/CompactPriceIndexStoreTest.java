@@ -0,0 +1,148 @@
+package com.example.test.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.CompactPriceIndexStore;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceIndex;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceIndexStore;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PrimitivePriceIndex;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactPriceIndexStoreTest {
+
+    private static final Long PRODUCT_ID = 35455L;
+    private static final Long BRAND_ID = 1L;
+
+    private static final List<Price> PRICES = List.of(
+            // Same rows as V2__Insert_initial_data.sql
+            price(BRAND_ID, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 0, "35.50", "EUR"),
+            price(BRAND_ID, LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, 1, "25.45", "EUR"),
+            price(BRAND_ID, LocalDateTime.of(2020, 6, 15, 0, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0, 0), 3L, 1, "30.50", "EUR"),
+            price(BRAND_ID, LocalDateTime.of(2020, 6, 15, 16, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4L, 1, "38.95", "EUR"),
+            // Sub-second dates, an open end, another scale and another currency
+            price(2L, LocalDateTime.of(2020, 1, 1, 0, 0, 0, 500), LocalDateTime.MAX, 5L, 0, "1234.5678", "USD"),
+            price(2L, LocalDateTime.of(2020, 6, 1, 0, 0, 0), LocalDateTime.of(2020, 6, 1, 23, 59, 59, 999_999_999), 6L, 2, "-3", "JPY")
+    );
+
+    private static Price price(Long brandId, LocalDateTime startDate, LocalDateTime endDate, Long priceList,
+                               Integer priority, String amount, String currency) {
+        return new Price(brandId, startDate, endDate, priceList, PRODUCT_ID, priority, new BigDecimal(amount), currency);
+    }
+
+    @Test
+    void compactStore_ShouldAnswerLookupsLikeTheHeapStore() {
+        InMemoryPriceIndex compact = InMemoryPriceIndex.build(PRICES, CompactPriceIndexStore::builder);
+        InMemoryPriceIndex heap = InMemoryPriceIndex.build(PRICES);
+
+        assertEquals(2, compact.keyCount());
+        assertEquals(6L, compact.size());
+        for (LocalDateTime dateTime = LocalDateTime.of(2019, 12, 31, 0, 0, 0);
+             dateTime.isBefore(LocalDateTime.of(2021, 1, 2, 0, 0, 0));
+             dateTime = dateTime.plusMinutes(30)) {
+            for (Long brandId : List.of(BRAND_ID, 2L, 3L)) {
+                assertSamePrice(heap.findApplicablePriceAt(dateTime, PRODUCT_ID, brandId).orElse(null),
+                        compact.findApplicablePriceAt(dateTime, PRODUCT_ID, brandId).orElse(null));
+                assertEquals(heap.findApplicablePricesAt(dateTime, PRODUCT_ID, brandId).size(),
+                        compact.findApplicablePricesAt(dateTime, PRODUCT_ID, brandId).size());
+            }
+        }
+    }
+
+    @Test
+    void compactStore_ShouldRestoreEveryColumn() {
+        InMemoryPriceIndex index = InMemoryPriceIndex.build(PRICES, CompactPriceIndexStore::builder);
+
+        ResolvedPrice openEnded = index.findResolvedPriceAt(LocalDateTime.of(2030, 1, 1, 0, 0, 0), PRODUCT_ID, 2L).get();
+        Price subSecond = index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 1, 23, 59, 59, 999_999_999), PRODUCT_ID, 2L).get();
+
+        assertSamePrice(PRICES.get(4), openEnded.getPrice());
+        assertEquals(LocalDateTime.of(2020, 6, 2, 0, 0, 0), openEnded.getValidFrom());
+        assertSamePrice(PRICES.get(5), subSecond);
+    }
+
+    @Test
+    void withChanges_ShouldKeepAnsweringFromTheCompactStore() {
+        InMemoryPriceIndex index = InMemoryPriceIndex.build(PRICES, CompactPriceIndexStore::builder);
+
+        InMemoryPriceIndex changed = index.withChanges(Map.of(new PriceKey(2L, PRODUCT_ID), List.of()));
+
+        assertEquals(1, changed.keyCount());
+        assertEquals(4L, changed.size());
+        assertEquals(2L, changed.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertTrue(changed.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0), PRODUCT_ID, 2L).isEmpty());
+    }
+
+    @Test
+    void compactStore_ShouldHoldFiftyMillionPricesInAFewGigabytes() {
+        int keyCount = 250_000;
+        PriceIndexStore.Builder builder = CompactPriceIndexStore.builder();
+        builder.expect(keyCount, 4L * keyCount);
+        CompactPriceIndexStore store = buildCatalog(builder, keyCount);
+
+        long bytesPerPrice = store.footprint() / store.size();
+        assertEquals(4L * keyCount, store.size());
+        assertTrue(bytesPerPrice <= 96, "Compact store takes " + bytesPerPrice + " bytes per price");
+        assertTrue(bytesPerPrice * 50_000_000L < 5L << 30);
+    }
+
+    @Test
+    void compactStore_ShouldKeepAtMostAThirdOfItsArraysUnused_WhenNotSized() {
+        int keyCount = 250_000;
+        PriceIndexStore.Builder sized = CompactPriceIndexStore.builder();
+        sized.expect(keyCount, 4L * keyCount);
+
+        long expected = buildCatalog(sized, keyCount).footprint();
+        long grown = buildCatalog(CompactPriceIndexStore.builder(), keyCount).footprint();
+
+        assertTrue(grown <= expected * 3 / 2, "Grown store takes " + grown + " bytes, " + expected + " when sized");
+    }
+
+    @Test
+    void builder_ShouldRejectKeysOnceBuilt() {
+        PriceIndexStore.Builder builder = CompactPriceIndexStore.builder();
+        builder.add(PrimitivePriceIndex.key(BRAND_ID, PRODUCT_ID), PRICES.subList(0, 4));
+        PriceIndexStore store = builder.build();
+
+        assertThrows(IllegalStateException.class, () -> builder.add(PrimitivePriceIndex.key(2L, PRODUCT_ID), PRICES.subList(4, 6)));
+        assertEquals(1, store.keyCount());
+        assertEquals(4L, store.size());
+    }
+
+    private static CompactPriceIndexStore buildCatalog(PriceIndexStore.Builder builder, int keyCount) {
+        for (long productId = 0; productId < keyCount; productId++) {
+            // A regular price, two promotions and the price of the next year, open-ended
+            LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0, 0).plusDays(productId % 300);
+            List<Price> prices = new ArrayList<>();
+            prices.add(new Price(BRAND_ID, start, start.plusYears(1), 1L, productId, 0, BigDecimal.valueOf(1000 + productId % 5000, 2), "EUR"));
+            prices.add(new Price(BRAND_ID, start.plusDays(10), start.plusDays(20), 2L, productId, 1, BigDecimal.valueOf(900 + productId % 5000, 2), "EUR"));
+            prices.add(new Price(BRAND_ID, start.plusDays(40), start.plusDays(45), 3L, productId, 1, BigDecimal.valueOf(800 + productId % 5000, 2), "EUR"));
+            prices.add(new Price(BRAND_ID, start.plusYears(1).plusSeconds(1), LocalDateTime.MAX, 4L, productId, 0, BigDecimal.valueOf(1100 + productId % 5000, 2), "EUR"));
+            builder.add(PrimitivePriceIndex.key(BRAND_ID, productId), prices);
+        }
+        return (CompactPriceIndexStore) builder.build();
+    }
+
+    private static void assertSamePrice(Price expected, Price actual) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual);
+            return;
+        }
+        assertEquals(expected.getBrandId(), actual.getBrandId());
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getStartDate(), actual.getStartDate());
+        assertEquals(expected.getEndDate(), actual.getEndDate());
+        assertEquals(expected.getPriceList(), actual.getPriceList());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.test.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceIndex;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.ParallelPriceScan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryPriceIndexTest {
+
+    private static final Long PRODUCT_ID = 35455L;
+    private static final Long BRAND_ID = 1L;
+
+    private InMemoryPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Same rows as V2__Insert_initial_data.sql
+        index = InMemoryPriceIndex.build(List.of(
+                price(LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 0, "35.50"),
+                price(LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, 1, "25.45"),
+                price(LocalDateTime.of(2020, 6, 15, 0, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0, 0), 3L, 1, "30.50"),
+                price(LocalDateTime.of(2020, 6, 15, 16, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4L, 1, "38.95")
+        ));
+    }
+
+    private Price price(LocalDateTime startDate, LocalDateTime endDate, Long priceList, Integer priority, String amount) {
+        return new Price(BRAND_ID, startDate, endDate, priceList, PRODUCT_ID, priority, new BigDecimal(amount), "EUR");
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldReturnHighestPriorityPrice() {
+        assertEquals(1L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(2L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(1L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 21, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(3L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 15, 10, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(4L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 16, 21, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldIncludeIntervalBounds() {
+        assertEquals(2L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 15, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(2L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 18, 30, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(1L, index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 18, 30, 1), PRODUCT_ID, BRAND_ID).get().getPriceList());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldReturnEmpty_WhenNoPriceApplies() {
+        assertEquals(Optional.empty(), index.findApplicablePriceAt(LocalDateTime.of(2019, 6, 14, 10, 0, 0), PRODUCT_ID, BRAND_ID));
+        assertEquals(Optional.empty(), index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0), 99999L, BRAND_ID));
+        assertEquals(Optional.empty(), index.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0), PRODUCT_ID, 99L));
+    }
+
+    @Test
+    void findApplicablePricesAt_ShouldReturnEveryOverlappingPrice() {
+        List<Price> result = index.findApplicablePricesAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0), PRODUCT_ID, BRAND_ID);
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().anyMatch(price -> price.getPriceList() == 1L));
+        assertTrue(result.stream().anyMatch(price -> price.getPriceList() == 2L));
+    }
+
+    @Test
+    void findApplicablePricesAt_ShouldReturnEmptyList_WhenNoPriceApplies() {
+        assertTrue(index.findApplicablePricesAt(LocalDateTime.of(2021, 1, 1, 0, 0, 0), PRODUCT_ID, BRAND_ID).isEmpty());
+    }
+
+    @Test
+    void findApplicablePricePerBrand_ShouldReturnTheWinnerOfEachBrand_OrderedByBrand() {
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 16, 0, 0);
+        InMemoryPriceIndex changed = index.withChanges(Map.of(
+                new PriceKey(7L, PRODUCT_ID), List.of(new Price(7L, LocalDateTime.of(2020, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2020, 12, 31, 23, 59, 59), 9L, PRODUCT_ID, 0, new BigDecimal("31.00"), "EUR")),
+                new PriceKey(3L, 99999L), List.of(new Price(3L, LocalDateTime.of(2020, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2020, 12, 31, 23, 59, 59), 5L, 99999L, 0, new BigDecimal("1.00"), "EUR"))));
+
+        List<Price> everyBrand = changed.findApplicablePricePerBrand(dateTime, PRODUCT_ID, List.of());
+        List<Price> someBrands = changed.findApplicablePricePerBrand(dateTime, PRODUCT_ID, List.of(7L, 3L, 7L));
+
+        assertEquals(List.of(1L, 7L), everyBrand.stream().map(Price::getBrandId).toList());
+        assertEquals(2L, everyBrand.get(0).getPriceList());
+        assertEquals(9L, everyBrand.get(1).getPriceList());
+        assertEquals(1, someBrands.size());
+        assertEquals(9L, someBrands.get(0).getPriceList());
+        assertTrue(changed.findApplicablePricePerBrand(LocalDateTime.of(2021, 6, 14, 16, 0, 0), PRODUCT_ID, List.of()).isEmpty());
+    }
+
+    @Test
+    void withChanges_ShouldReplaceOnlyTheChangedKeys() {
+        InMemoryPriceIndex changed = index.withChanges(Map.of(
+                new PriceKey(BRAND_ID, PRODUCT_ID), List.of(
+                        price(LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 5L, 0, "31.00")),
+                new PriceKey(BRAND_ID, 35456L), List.of(
+                        new Price(BRAND_ID, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                                6L, 35456L, 0, new BigDecimal("12.00"), "EUR"))));
+
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 16, 0, 0);
+        assertEquals(5L, changed.findApplicablePriceAt(dateTime, PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(5L, changed.findResolvedPriceAt(dateTime, PRODUCT_ID, BRAND_ID).get().getPrice().getPriceList());
+        assertEquals(1, changed.findApplicablePricesAt(dateTime, PRODUCT_ID, BRAND_ID).size());
+        assertEquals(6L, changed.findApplicablePriceAt(dateTime, 35456L, BRAND_ID).get().getPriceList());
+        assertEquals(2, changed.keyCount());
+        assertEquals(2, changed.size());
+
+        // The original index is left untouched
+        assertEquals(2L, index.findApplicablePriceAt(dateTime, PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void withChanges_ShouldDropKeysWithoutPricesLeft() {
+        InMemoryPriceIndex changed = index.withChanges(Map.of(new PriceKey(BRAND_ID, PRODUCT_ID), List.of()));
+
+        assertEquals(Optional.empty(), changed.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0), PRODUCT_ID, BRAND_ID));
+        assertEquals(Optional.empty(), changed.findResolvedPriceAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0), PRODUCT_ID, BRAND_ID));
+        assertTrue(changed.findApplicablePricesAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0), PRODUCT_ID, BRAND_ID).isEmpty());
+        assertEquals(0, changed.keyCount());
+        assertEquals(0, changed.size());
+    }
+
+    @Test
+    void withChanges_ShouldCompactOnceManyKeysChanged() {
+        Map<PriceKey, List<Price>> changes = new HashMap<>();
+        for (long productId = 1; productId <= 5000; productId++) {
+            changes.put(new PriceKey(BRAND_ID, productId), List.of(new Price(BRAND_ID, LocalDateTime.of(2020, 1, 1, 0, 0, 0),
+                    LocalDateTime.of(2020, 12, 31, 23, 59, 59), productId, productId, 0, new BigDecimal("1.00"), "EUR")));
+        }
+
+        InMemoryPriceIndex changed = index.withChanges(changes);
+
+        assertEquals(0, changed.changedKeyCount());
+        assertEquals(5001, changed.keyCount());
+        assertEquals(5004, changed.size());
+        assertEquals(4000L, changed.findApplicablePriceAt(LocalDateTime.of(2020, 6, 1, 0, 0, 0), 4000L, BRAND_ID).get().getPriceList());
+        assertEquals(2L, changed.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0), PRODUCT_ID, BRAND_ID).get().getPriceList());
+    }
+
+    @Test
+    void withChanges_ShouldKeepEveryChangedKey_AsRecentKeysAreFoldedIntoSettledOnes() {
+        InMemoryPriceIndex changed = index;
+        // Enough small changes for the recent keys to be folded into the settled ones, without compacting
+        for (long productId = 1; productId <= 1500; productId++) {
+            changed = changed.withChanges(Map.of(new PriceKey(BRAND_ID, productId), List.of(new Price(BRAND_ID,
+                    LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), productId,
+                    productId, 0, new BigDecimal("1.00"), "EUR"))));
+        }
+        changed = changed.withChanges(Map.of(
+                new PriceKey(BRAND_ID, 10L), List.of(),
+                new PriceKey(BRAND_ID, 1400L), List.of(new Price(BRAND_ID, LocalDateTime.of(2020, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2020, 12, 31, 23, 59, 59), 9000L, 1400L, 0, new BigDecimal("2.00"), "EUR"))));
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 1, 0, 0, 0);
+
+        assertEquals(1500, changed.changedKeyCount());
+        assertEquals(1500, changed.keyCount());
+        assertEquals(1503, changed.size());
+        assertEquals(5L, changed.findApplicablePriceAt(dateTime, 5L, BRAND_ID).get().getPriceList());
+        assertEquals(Optional.empty(), changed.findApplicablePriceAt(dateTime, 10L, BRAND_ID));
+        assertEquals(9000L, changed.findApplicablePriceAt(dateTime, 1400L, BRAND_ID).get().getPriceList());
+        assertEquals(1499L, changed.findApplicablePriceAt(dateTime, 1499L, BRAND_ID).get().getPriceList());
+        assertEquals(2L, changed.findApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0), PRODUCT_ID, BRAND_ID)
+                .get().getPriceList());
+
+        Map<Long, Long> priceListByProduct = new HashMap<>();
+        changed.forEachApplicablePriceAt(dateTime, new ParallelPriceScan(2),
+                price -> assertNull(priceListByProduct.put(price.getProductId(), price.getPriceList())));
+        assertEquals(1499, priceListByProduct.size());
+        assertEquals(9000L, priceListByProduct.get(1400L));
+    }
+
+    @Test
+    void forEachApplicablePriceAt_ShouldStreamTheWinnerOfEveryKey_IncludingChangedKeys() {
+        InMemoryPriceIndex changed = index.withChanges(Map.of(
+                new PriceKey(BRAND_ID, 35456L), List.of(new Price(BRAND_ID, LocalDateTime.of(2020, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2020, 12, 31, 23, 59, 59), 6L, 35456L, 0, new BigDecimal("12.00"), "EUR")),
+                new PriceKey(2L, 35455L), List.of(new Price(2L, LocalDateTime.of(2021, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2021, 12, 31, 23, 59, 59), 7L, 35455L, 0, new BigDecimal("13.00"), "EUR"))));
+        Map<Long, Long> priceListByProduct = new HashMap<>();
+
+        changed.forEachApplicablePriceAt(LocalDateTime.of(2020, 6, 14, 16, 0, 0), new ParallelPriceScan(2),
+                price -> assertNull(priceListByProduct.put(price.getProductId(), price.getPriceList())));
+
+        assertEquals(Map.of(PRODUCT_ID, 2L, 35456L, 6L), priceListByProduct);
+    }
+
+    @Test
+    void build_ShouldHoldKeysWhoseIdentifiersDoNotFit32Bits() {
+        long wideProduct = 1L << 40;
+        long negativeBrand = -3L;
+        InMemoryPriceIndex wide = InMemoryPriceIndex.build(List.of(
+                price(LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 0, "35.50"),
+                new Price(BRAND_ID, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                        8L, wideProduct, 0, new BigDecimal("8.00"), "EUR"),
+                new Price(BRAND_ID, LocalDateTime.of(2020, 6, 1, 0, 0, 0), LocalDateTime.of(2020, 6, 30, 23, 59, 59),
+                        9L, wideProduct, 1, new BigDecimal("7.00"), "EUR"),
+                new Price(negativeBrand, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                        10L, PRODUCT_ID, 0, new BigDecimal("6.00"), "EUR")));
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 16, 0, 0);
+
+        assertEquals(3, wide.keyCount());
+        assertEquals(4L, wide.size());
+        assertEquals(9L, wide.findApplicablePriceAt(dateTime, wideProduct, BRAND_ID).get().getPriceList());
+        assertEquals(8L, wide.findResolvedPriceAt(LocalDateTime.of(2020, 7, 1, 0, 0, 0), wideProduct, BRAND_ID)
+                .get().getPrice().getPriceList());
+        assertEquals(2, wide.findApplicablePricesAt(dateTime, wideProduct, BRAND_ID).size());
+        assertEquals(List.of(10L, 1L), wide.findApplicablePricePerBrand(dateTime, PRODUCT_ID, List.of()).stream()
+                .map(Price::getPriceList).toList());
+
+        Map<Long, Long> priceListByProduct = new HashMap<>();
+        wide.forEachApplicablePriceAt(dateTime, new ParallelPriceScan(2),
+                price -> priceListByProduct.merge(price.getProductId(), price.getPriceList(), Long::sum));
+        assertEquals(Map.of(PRODUCT_ID, 11L, wideProduct, 9L), priceListByProduct);
+
+        InMemoryPriceIndex removed = wide.withChanges(Map.of(new PriceKey(BRAND_ID, wideProduct), List.of()));
+        assertTrue(removed.findApplicablePriceAt(dateTime, wideProduct, BRAND_ID).isEmpty());
+        assertEquals(2, removed.keyCount());
+        assertEquals(1, removed.wideKeyCount());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.test.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceRepositoryAdapter;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceIndexStats;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceIndexStore;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceTableLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:refresh;DB_CLOSE_DELAY=-1",
+        "price.repository.type=in-memory",
+        "price.refresh.interval=1h"
+})
+public class InMemoryPriceRefreshTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    @Autowired
+    private InMemoryPriceRepositoryAdapter adapter;
+
+    @Autowired
+    private PriceTableLoader priceTableLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void expectTableSize_ShouldSizeTheStoreForEveryKeyAndRowOfTheTable() {
+        long[] expected = new long[2];
+        priceTableLoader.expectTableSize(new PriceIndexStore.Builder() {
+            @Override
+            public void expect(int keyCount, long size) {
+                expected[0] = keyCount;
+                expected[1] = size;
+            }
+
+            @Override
+            public void add(long key, List<Price> prices) {
+            }
+
+            @Override
+            public PriceIndexStore build() {
+                return null;
+            }
+        });
+
+        assertEquals(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT DISTINCT product_id, brand_id FROM price)", Long.class), expected[0]);
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price", Long.class), expected[1]);
+    }
+
+    @Test
+    void findApplicablePrice_ShouldAnswerLikeTheBoxedLookup() {
+        assertSame(adapter.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get(), adapter.findApplicablePrice(DATE_TIME, 35455L, 1L));
+        assertNull(adapter.findApplicablePrice(DATE_TIME, 99999L, 1L));
+    }
+
+    @Test
+    void refresh_ShouldPickUpInsertedAndUpdatedRows() {
+        assertEquals(1L, adapter.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        assertEquals(Optional.empty(), adapter.findApplicablePriceAt(DATE_TIME, 35456L, 1L));
+
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-06-14 09:00:00', '2020-06-14 11:00:00', 7, 35455, 3, 19.99, 'EUR')");
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 8, 35456, 0, 5.00, 'EUR')");
+        adapter.refresh();
+
+        assertEquals(7L, adapter.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        assertEquals(8L, adapter.findApplicablePriceAt(DATE_TIME, 35456L, 1L).get().getPriceList());
+
+        jdbcTemplate.update("UPDATE price SET price = 4.50 WHERE price_list = 8");
+        adapter.refresh();
+
+        Price updated = adapter.findApplicablePriceAt(DATE_TIME, 35456L, 1L).get();
+        assertEquals(new BigDecimal("4.50"), updated.getPrice());
+    }
+
+    @Test
+    void refresh_ShouldStopReturningDeletedRows() {
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 15, 35462, 0, 7.00, 'EUR')");
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-06-01 00:00:00', '2020-06-30 23:59:59', 16, 35462, 1, 6.00, 'EUR')");
+        adapter.refresh();
+        assertEquals(16L, adapter.findApplicablePriceAt(DATE_TIME, 35462L, 1L).get().getPriceList());
+
+        jdbcTemplate.update("DELETE FROM price WHERE price_list = 16");
+        adapter.refresh();
+        assertEquals(15L, adapter.findApplicablePriceAt(DATE_TIME, 35462L, 1L).get().getPriceList());
+
+        jdbcTemplate.update("DELETE FROM price WHERE product_id = 35462");
+        adapter.refresh();
+        assertEquals(Optional.empty(), adapter.findApplicablePriceAt(DATE_TIME, 35462L, 1L));
+    }
+
+    @Test
+    void refresh_ShouldDropARowMovedToAnotherKey() {
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 17, 35463, 0, 8.00, 'EUR')");
+        adapter.refresh();
+
+        jdbcTemplate.update("UPDATE price SET product_id = 35464 WHERE price_list = 17");
+        adapter.refresh();
+
+        assertEquals(Optional.empty(), adapter.findApplicablePriceAt(DATE_TIME, 35463L, 1L));
+        assertEquals(17L, adapter.findApplicablePriceAt(DATE_TIME, 35464L, 1L).get().getPriceList());
+    }
+
+    @Test
+    void refresh_ShouldPublishANewGenerationOnlyWhenRowsChanged() {
+        long generation = adapter.getIndexStats().getGeneration();
+
+        adapter.refresh();
+        assertEquals(generation, adapter.getIndexStats().getGeneration());
+
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 9, 35457, 0, 6.00, 'EUR')");
+        adapter.refresh();
+
+        PriceIndexStats stats = adapter.getIndexStats();
+        assertEquals(generation + 1, stats.getGeneration());
+        assertNotNull(stats.getBuiltAt());
+        // The replaced generation retired at once, and stays live until the garbage collector frees it
+        assertTrue(stats.getLiveGenerations() >= 1);
+        assertTrue(stats.getRetiredGenerations() >= 1);
+    }
+
+    @Test
+    void load_ShouldIndexRowsWhoseIdentifiersDoNotFit32Bits() {
+        long wideProduct = 1L << 40;
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 10, ?, 0, 3.00, 'EUR')", wideProduct);
+
+        adapter.load();
+
+        assertEquals(10L, adapter.findApplicablePriceAt(DATE_TIME, wideProduct, 1L).get().getPriceList());
+        assertEquals(4L, adapter.findApplicablePriceAt(LocalDateTime.of(2020, 6, 16, 21, 0, 0), 35455L, 1L)
+                .get().getPriceList());
+    }
+
+    @Test
+    void refresh_ShouldPickUpARowCommittedAfterHigherVersionsWereRead() {
+        // A transaction takes a version, then commits after another one has been refreshed
+        long lateVersion = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR price_version_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 11, 35458, 0, 2.00, 'EUR')");
+        adapter.refresh();
+        assertEquals(11L, adapter.findApplicablePriceAt(DATE_TIME, 35458L, 1L).get().getPriceList());
+
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency, version) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 12, 35459, 0, 2.50, 'EUR', ?)", lateVersion);
+        adapter.refresh();
+
+        assertEquals(12L, adapter.findApplicablePriceAt(DATE_TIME, 35459L, 1L).get().getPriceList());
+    }
+
+    @Test
+    void load_ShouldBeFollowedByRowsCommittedAfterItWithLowerVersions() {
+        long lateVersion = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR price_version_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 13, 35460, 0, 3.00, 'EUR')");
+        adapter.load();
+
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency, version) " +
+                "VALUES (1, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 14, 35461, 0, 3.50, 'EUR', ?)", lateVersion);
+        adapter.refresh();
+
+        assertEquals(13L, adapter.findApplicablePriceAt(DATE_TIME, 35460L, 1L).get().getPriceList());
+        assertEquals(14L, adapter.findApplicablePriceAt(DATE_TIME, 35461L, 1L).get().getPriceList());
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.test.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.ResolvedPrice;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.HeapPriceIndexStore;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceIndex;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.MappedPriceIndex;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceIndexStore;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PrimitivePriceIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedPriceIndexTest {
+
+    private static final Long PRODUCT_ID = 35455L;
+    private static final Long BRAND_ID = 1L;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private List<Price> prices;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = directory.resolve("prices.idx");
+        // Same rows as V2__Insert_initial_data.sql, plus an open-ended price of another brand
+        prices = List.of(
+                price(BRAND_ID, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 0, "35.50", "EUR"),
+                price(BRAND_ID, LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, 1, "25.45", "EUR"),
+                price(BRAND_ID, LocalDateTime.of(2020, 6, 15, 0, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0, 0), 3L, 1, "30.50", "EUR"),
+                price(BRAND_ID, LocalDateTime.of(2020, 6, 15, 16, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4L, 1, "38.95", "EUR"),
+                price(2L, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.MAX, 5L, 0, "1234.5678", "USD")
+        );
+        MappedPriceIndex.write(file, 42L, storeOf(prices));
+    }
+
+    private static PriceIndexStore storeOf(List<Price> prices) {
+        PriceIndexStore.Builder builder = HeapPriceIndexStore.builder();
+        builder.add(PrimitivePriceIndex.key(BRAND_ID, PRODUCT_ID), prices.subList(0, 4));
+        builder.add(PrimitivePriceIndex.key(2L, PRODUCT_ID), prices.subList(4, 5));
+        return builder.build();
+    }
+
+    private Price price(Long brandId, LocalDateTime startDate, LocalDateTime endDate, Long priceList, Integer priority,
+                        String amount, String currency) {
+        return new Price(brandId, startDate, endDate, priceList, PRODUCT_ID, priority, new BigDecimal(amount), currency);
+    }
+
+    @Test
+    void open_ShouldAnswerLookupsLikeTheIndexBuiltFromThePrices() throws IOException {
+        MappedPriceIndex mapped = MappedPriceIndex.open(file);
+        InMemoryPriceIndex fromFile = InMemoryPriceIndex.of(mapped, HeapPriceIndexStore::builder);
+        InMemoryPriceIndex fromPrices = InMemoryPriceIndex.build(prices);
+
+        assertEquals(42L, mapped.getWatermark());
+        assertEquals(2, fromFile.keyCount());
+        assertEquals(5L, fromFile.size());
+        for (LocalDateTime dateTime = LocalDateTime.of(2019, 12, 31, 0, 0, 0);
+             dateTime.isBefore(LocalDateTime.of(2021, 1, 2, 0, 0, 0));
+             dateTime = dateTime.plusMinutes(30)) {
+            for (Long brandId : List.of(BRAND_ID, 2L, 3L)) {
+                assertSamePrice(fromPrices.findApplicablePriceAt(dateTime, PRODUCT_ID, brandId).orElse(null),
+                        fromFile.findApplicablePriceAt(dateTime, PRODUCT_ID, brandId).orElse(null));
+                assertEquals(fromPrices.findApplicablePricesAt(dateTime, PRODUCT_ID, brandId).size(),
+                        fromFile.findApplicablePricesAt(dateTime, PRODUCT_ID, brandId).size());
+            }
+        }
+    }
+
+    @Test
+    void open_ShouldRestoreEveryColumn() throws IOException {
+        InMemoryPriceIndex index = InMemoryPriceIndex.of(MappedPriceIndex.open(file), HeapPriceIndexStore::builder);
+
+        ResolvedPrice resolved = index.findResolvedPriceAt(LocalDateTime.of(2030, 1, 1, 0, 0, 0), PRODUCT_ID, 2L).get();
+
+        assertSamePrice(prices.get(4), resolved.getPrice());
+        assertEquals(LocalDateTime.MAX, resolved.getPrice().getEndDate());
+        assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0, 0), resolved.getValidFrom());
+    }
+
+    @Test
+    void open_ShouldFail_WhenTheFileIsCorrupted() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 10);
+            int value = raf.read();
+            raf.seek(raf.length() - 10);
+            raf.write(value ^ 0xFF);
+        }
+
+        IOException exception = assertThrows(IOException.class, () -> MappedPriceIndex.open(file));
+        assertTrue(exception.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void open_ShouldFail_WhenTheHeaderIsCorrupted() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // Watermark, then the price count
+            raf.seek(8);
+            raf.writeLong(raf.readLong() + 1);
+            raf.seek(32);
+            raf.writeInt(raf.readInt() - 1);
+        }
+
+        IOException exception = assertThrows(IOException.class, () -> MappedPriceIndex.open(file));
+        assertTrue(exception.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void open_ShouldFail_WhenTheFormatVersionDiffers() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4);
+            raf.writeInt(99);
+        }
+
+        IOException exception = assertThrows(IOException.class, () -> MappedPriceIndex.open(file));
+        assertTrue(exception.getMessage().contains("format version 99"));
+    }
+
+    @Test
+    void open_ShouldFail_WhenTheFileIsNotAnIndexFile() throws IOException {
+        Files.writeString(file, "brand_id,start_date,end_date,price_list,product_id,priority,price,currency\n" +
+                "1,2020-06-14 00:00:00,2020-12-31 23:59:59,1,35455,0,35.50,EUR\n");
+
+        assertThrows(IOException.class, () -> MappedPriceIndex.open(file));
+    }
+
+    private static void assertSamePrice(Price expected, Price actual) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual);
+            return;
+        }
+        assertEquals(expected.getBrandId(), actual.getBrandId());
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getStartDate(), actual.getStartDate());
+        assertEquals(expected.getEndDate(), actual.getEndDate());
+        assertEquals(expected.getPriceList(), actual.getPriceList());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.test.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.InMemoryPriceIndex;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceIndexGeneration;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceIndexGenerations;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceIndexGenerationsTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+    private static final Long PRODUCT_ID = 35455L;
+    private static final Long BRAND_ID = 1L;
+
+    private static InMemoryPriceIndex index(long priceList) {
+        return InMemoryPriceIndex.build(List.of(new Price(BRAND_ID, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), priceList, PRODUCT_ID, 0, new BigDecimal("35.50"), "EUR")));
+    }
+
+    @Test
+    void current_ShouldFailBeforeTheFirstPublication() {
+        PriceIndexGenerations generations = new PriceIndexGenerations();
+
+        assertFalse(generations.isPublished());
+        assertThrows(IllegalStateException.class, generations::current);
+    }
+
+    @Test
+    void publish_ShouldNumberTheGenerationsAndRetireTheReplacedOneAtOnce() {
+        List<Long> retired = new ArrayList<>();
+        PriceIndexGenerations generations = new PriceIndexGenerations(generation -> retired.add(generation.getId()));
+
+        PriceIndexGeneration first = generations.publish(index(1L), Duration.ofMillis(5));
+        PriceIndexGeneration second = generations.publish(index(2L), Duration.ofMillis(7));
+
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        assertEquals(Duration.ofMillis(7), second.getBuildTime());
+        assertNotNull(second.getBuiltAt());
+        assertTrue(first.isRetired());
+        assertFalse(second.isRetired());
+        assertSame(second, generations.current());
+        assertEquals(List.of(1L), retired);
+        assertEquals(1L, generations.retiredCount());
+    }
+
+    @Test
+    void publish_ShouldLeaveAGenerationBeingReadUsable_AndCountItAsLive() {
+        PriceIndexGenerations generations = new PriceIndexGenerations();
+        generations.publish(index(1L), Duration.ZERO);
+
+        PriceIndexGeneration reading = generations.current();
+        generations.publish(index(2L), Duration.ZERO);
+
+        // The reader still sees its own generation, while new readers see the new one
+        assertTrue(reading.isRetired());
+        assertEquals(1L, reading.getIndex().findApplicablePriceAt(DATE_TIME, PRODUCT_ID, BRAND_ID).get().getPriceList());
+        assertEquals(2L, generations.current().getIndex().findApplicablePriceAt(DATE_TIME, PRODUCT_ID, BRAND_ID).get()
+                .getPriceList());
+        // Still reachable from the reader, so not collected
+        assertEquals(2, generations.liveCount());
+    }
+
+    @Test
+    void releasedCount_ShouldOnlyCountAReplacedGenerationOnceFreed() throws InterruptedException {
+        PriceIndexGenerations generations = new PriceIndexGenerations();
+        generations.publish(index(1L), Duration.ZERO);
+        PriceIndexGeneration reading = generations.current();
+        generations.publish(index(2L), Duration.ZERO);
+
+        assertEquals(1L, generations.retiredCount());
+        assertEquals(0L, generations.releasedCount());
+        assertTrue(reading.isRetired());
+
+        reading = null;
+        for (int attempt = 0; attempt < 50 && generations.releasedCount() == 0; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(1L, generations.releasedCount());
+        assertEquals(1, generations.liveCount());
+    }
+
+    @Test
+    void current_ShouldAlwaysHandOutAFullyBuiltGeneration_WhilePublishing() throws Exception {
+        PriceIndexGenerations generations = new PriceIndexGenerations();
+        generations.publish(index(0L), Duration.ZERO);
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<Long>> lookups = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            lookups.add(readers.submit(() -> {
+                long count = 0;
+                long lastId = 0;
+                while (publishing.get()) {
+                    PriceIndexGeneration generation = generations.current();
+                    assertTrue(generation.getIndex().findApplicablePriceAt(DATE_TIME, PRODUCT_ID, BRAND_ID).isPresent());
+                    // Generations only move forward
+                    assertTrue(generation.getId() >= lastId);
+                    lastId = generation.getId();
+                    count++;
+                }
+                return count;
+            }));
+        }
+
+        for (long priceList = 1; priceList <= 2_000; priceList++) {
+            generations.publish(index(priceList), Duration.ZERO);
+        }
+        publishing.set(false);
+        readers.shutdown();
+
+        for (Future<Long> lookup : lookups) {
+            assertTrue(lookup.get(10, TimeUnit.SECONDS) > 0);
+        }
+        assertEquals(2_000L, generations.retiredCount());
+        assertEquals(2_001L, generations.current().getId());
+        assertTrue(generations.liveCount() >= 1);
+    }
+}
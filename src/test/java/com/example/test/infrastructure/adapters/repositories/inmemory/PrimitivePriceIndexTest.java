@@ -0,0 +1,78 @@
+package com.example.test.infrastructure.adapters.repositories.inmemory;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceTimeline;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PrimitivePriceIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrimitivePriceIndexTest {
+
+    private static final long PRODUCT_ID = 35455L;
+    private static final long BRAND_ID = 1L;
+
+    private PrimitivePriceIndex index;
+    private long key;
+
+    @BeforeEach
+    void setUp() {
+        key = PrimitivePriceIndex.key(BRAND_ID, PRODUCT_ID);
+        index = PrimitivePriceIndex.of(Map.of(key, PriceTimeline.of(List.of(
+                price(LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1L, 0),
+                price(LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2L, 1),
+                price(LocalDateTime.of(2021, 1, 1, 0, 0, 0), LocalDateTime.MAX, 3L, 0)
+        ))));
+    }
+
+    private Price price(LocalDateTime startDate, LocalDateTime endDate, Long priceList, Integer priority) {
+        return new Price(BRAND_ID, startDate, endDate, priceList, PRODUCT_ID, priority, new BigDecimal("35.50"), "EUR");
+    }
+
+    private Long priceListAt(LocalDateTime dateTime) {
+        int segment = index.segmentAt(key, PrimitivePriceIndex.epochNanos(dateTime));
+        return segment < 0 ? null : index.winner(segment).getPriceList();
+    }
+
+    @Test
+    void segmentAt_ShouldResolveHighestPriorityPrice() {
+        assertEquals(1L, priceListAt(LocalDateTime.of(2020, 6, 14, 10, 0, 0)));
+        assertEquals(2L, priceListAt(LocalDateTime.of(2020, 6, 14, 15, 0, 0)));
+        assertEquals(2L, priceListAt(LocalDateTime.of(2020, 6, 14, 18, 30, 0)));
+        assertEquals(1L, priceListAt(LocalDateTime.of(2020, 6, 14, 18, 30, 0, 1)));
+    }
+
+    @Test
+    void segmentAt_ShouldKeepOpenEndedPriceUpToEndOfRange() {
+        assertEquals(3L, priceListAt(LocalDateTime.of(2200, 1, 1, 0, 0, 0)));
+        assertEquals(3L, priceListAt(LocalDateTime.of(9999, 12, 31, 23, 59, 59)));
+    }
+
+    @Test
+    void segmentAt_ShouldReturnMinusOne_WhenNoPriceApplies() {
+        assertNull(priceListAt(LocalDateTime.of(2019, 6, 14, 10, 0, 0)));
+        assertEquals(-1, index.segmentAt(PrimitivePriceIndex.key(BRAND_ID, 99999L),
+                PrimitivePriceIndex.epochNanos(LocalDateTime.of(2020, 6, 14, 10, 0, 0))));
+        assertNull(index.timeline(PrimitivePriceIndex.key(2L, PRODUCT_ID)));
+    }
+
+    @Test
+    void key_ShouldRejectIdentifiersWiderThan32Bits() {
+        assertThrows(IllegalArgumentException.class, () -> PrimitivePriceIndex.key(-1L, PRODUCT_ID));
+        assertThrows(IllegalArgumentException.class, () -> PrimitivePriceIndex.key(BRAND_ID, 1L << 32));
+        assertNotEquals(PrimitivePriceIndex.key(1L, 2L), PrimitivePriceIndex.key(2L, 1L));
+    }
+
+    @Test
+    void epochNanos_ShouldKeepNanosecondPrecision() {
+        assertEquals(1_000_000_001L, PrimitivePriceIndex.epochNanos(LocalDateTime.of(1970, 1, 1, 0, 0, 1, 1)));
+        assertEquals(Long.MAX_VALUE, PrimitivePriceIndex.epochNanos(LocalDateTime.MAX));
+        assertEquals(Long.MIN_VALUE, PrimitivePriceIndex.epochNanos(LocalDateTime.MIN));
+    }
+}
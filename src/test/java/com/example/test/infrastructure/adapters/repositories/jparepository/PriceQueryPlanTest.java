@@ -0,0 +1,162 @@
+package com.example.test.infrastructure.adapters.repositories.jparepository;
+
+import com.example.test.price.domain.models.PriceKey;
+import com.example.test.price.domain.models.PriceKeyRange;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDataGenerator;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriceDatasetSpec;
+import com.example.test.price.infrastructure.adapters.repositories.generator.PriorityDistribution;
+import com.example.test.price.infrastructure.adapters.repositories.inmemory.PriceTableLoader;
+import com.example.test.price.infrastructure.adapters.repositories.jparepository.JpaPriceRepository;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.PriceSnapshotScanner;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the plans of the lookup queries: each one has to go through the lookup index on its product and brand,
+ * and the V1 query has to take its rows in the order of the index instead of sorting them. The comparison of a
+ * product across brands has to go through the same index, on its product only, and so do the full load of the
+ * in-memory repository and the catalog snapshot, reading its rows in order.
+ * <p>
+ * The plans are those of the SQL Hibernate actually generates, captured by a statement inspector and explained
+ * against a seeded catalog.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:plans;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.test.infrastructure.adapters.repositories.jparepository.PriceQueryPlanTest$LastStatementInspector"
+})
+public class PriceQueryPlanTest {
+
+    private static final String LOOKUP_INDEX = "idx_price_lookup";
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    private static boolean seeded;
+
+    @Autowired
+    private JpaPriceRepository jpaPriceRepository;
+
+    @Autowired
+    private PriceDataGenerator priceDataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (!seeded) {
+            priceDataGenerator.generate(new PriceDatasetSpec(10, 200, 8, 3, 2, PriorityDistribution.LAYERED,
+                    LocalDateTime.of(2020, 1, 1, 0, 0, 0), 365, 7L));
+            jdbcTemplate.execute("ANALYZE");
+            seeded = true;
+        }
+    }
+
+    @Test
+    void v1Query_ShouldSeekTheLookupIndex_AndReadItsRowsAlreadySorted() {
+        String plan = planOf(() -> jpaPriceRepository.findApplicablePriceAt(DATE_TIME, 35455L, 1L));
+
+        assertUsesLookupIndex(plan);
+        assertTrue(plan.contains("index sorted"), "V1 query sorts its candidates:\n" + plan);
+    }
+
+    @Test
+    void v2Query_ShouldSeekTheLookupIndex() {
+        String plan = planOf(() -> jpaPriceRepository.findApplicablePricesAt(DATE_TIME, 35455L, 1L));
+
+        assertUsesLookupIndex(plan);
+    }
+
+    @Test
+    void resolvedPriceQuery_ShouldSeekTheLookupIndex() {
+        String plan = planOf(() -> jpaPriceRepository.findPricesAroundAt(DATE_TIME, 35455L, 1L));
+
+        assertUsesLookupIndex(plan);
+    }
+
+    @Test
+    void perBrandQuery_ShouldSeekTheLookupIndex_AndReadItsRowsAlreadySorted() {
+        String plan = planOf(() -> jpaPriceRepository.findApplicablePricesOfEveryBrandAt(DATE_TIME, 35455L));
+
+        assertUsesLookupIndex(plan);
+        assertTrue(plan.contains("index sorted"), "Per-brand query sorts its candidates:\n" + plan);
+    }
+
+    @Test
+    void perBrandQuery_ShouldSeekTheLookupIndex_ForTheGivenBrands() {
+        String plan = planOf(() -> jpaPriceRepository.findApplicablePricesOfBrandsAt(DATE_TIME, 35455L, List.of(1L, 2L)));
+
+        assertUsesLookupIndex(plan);
+    }
+
+    @Test
+    void batchQuery_ShouldSeekTheLookupIndexForEachKey() {
+        String plan = planOf(() -> jpaPriceRepository.findPricesOverlapping(List.of(
+                new PriceKeyRange(new PriceKey(1L, 35455L), DATE_TIME, DATE_TIME.plusHours(6)),
+                new PriceKeyRange(new PriceKey(2L, 35456L), DATE_TIME, DATE_TIME))));
+
+        assertUsesLookupIndex(plan);
+        assertTrue(plan.contains("IDX_PRICE_LOOKUP: PRODUCT_ID = R.PRODUCT_ID"),
+                "Batch query does not seek the index on each key:\n" + plan);
+    }
+
+    @Test
+    void fullLoadQuery_ShouldReadTheLookupIndexInOrder() {
+        String plan = explain(PriceTableLoader.ALL_KEYS_SQL);
+
+        assertTrue(plan.toLowerCase(Locale.ROOT).contains(LOOKUP_INDEX), "Query does not use " + LOOKUP_INDEX + ":\n" + plan);
+        assertTrue(plan.contains("index sorted"), "Full load query sorts the table:\n" + plan);
+    }
+
+    @Test
+    void snapshotQuery_ShouldSeekTheLookupIndex_AndReadItsRowsAlreadySorted() {
+        String plan = explain(PriceSnapshotScanner.PARTITION_SQL);
+
+        assertUsesLookupIndex(plan);
+        assertTrue(plan.contains("index sorted"), "Snapshot query sorts its partition:\n" + plan);
+    }
+
+    private String planOf(Runnable query) {
+        LastStatementInspector.lastStatement = null;
+        query.run();
+        String sql = LastStatementInspector.lastStatement;
+        assertNotNull(sql, "No statement was captured");
+        return explain(sql);
+    }
+
+    private String explain(String sql) {
+        // Parameters are left unbound: H2 plans an EXPLAIN without their values
+        return jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                (ResultSetExtractor<String>) resultSet -> resultSet.next() ? resultSet.getString(1) : "");
+    }
+
+    private static void assertUsesLookupIndex(String plan) {
+        String normalized = plan.toLowerCase(Locale.ROOT);
+        assertTrue(normalized.contains(LOOKUP_INDEX), "Query does not use " + LOOKUP_INDEX + ":\n" + plan);
+        assertFalse(normalized.contains("tablescan"), "Query scans the price table:\n" + plan);
+    }
+
+    /**
+     * Keeps the last statement prepared by Hibernate, so its plan can be explained.
+     */
+    public static class LastStatementInspector implements StatementInspector {
+        static volatile String lastStatement;
+
+        @Override
+        public String inspect(String sql) {
+            lastStatement = sql;
+            return sql;
+        }
+    }
+}
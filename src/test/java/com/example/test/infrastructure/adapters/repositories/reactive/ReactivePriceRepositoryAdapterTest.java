@@ -0,0 +1,84 @@
+package com.example.test.infrastructure.adapters.repositories.reactive;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceLookupResult;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.reactive.ReactivePriceRepositoryAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactivePriceRepositoryAdapterTest {
+
+    @Mock
+    private PriceRepositoryPort priceRepositoryPort;
+
+    private ReactivePriceRepositoryAdapter adapter;
+    private LocalDateTime testDateTime;
+    private Price testPrice;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new ReactivePriceRepositoryAdapter(priceRepositoryPort, Schedulers.immediate(), 2);
+        testDateTime = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+        testPrice = new Price(1L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                1L, 35455L, 0, new BigDecimal("35.50"), "EUR");
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldEmitPrice_WhenPriceExists() {
+        when(priceRepositoryPort.findApplicablePriceAt(eq(testDateTime), eq(35455L), eq(1L)))
+                .thenReturn(Optional.of(testPrice));
+
+        assertEquals(testPrice, adapter.findApplicablePriceAt(testDateTime, 35455L, 1L).block());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldCompleteEmpty_WhenNoPriceExists() {
+        when(priceRepositoryPort.findApplicablePriceAt(eq(testDateTime), eq(35455L), eq(1L)))
+                .thenReturn(Optional.empty());
+
+        assertNull(adapter.findApplicablePriceAt(testDateTime, 35455L, 1L).block());
+    }
+
+    @Test
+    void findApplicablePriceBatch_ShouldResolveInChunks_AndKeepQueryOrder() {
+        PriceQuery first = new PriceQuery(testDateTime, 35455L, 1L);
+        PriceQuery second = new PriceQuery(testDateTime, 99999L, 1L);
+        PriceQuery third = new PriceQuery(testDateTime, 35455L, 1L);
+        when(priceRepositoryPort.findApplicablePriceBatch(any())).thenAnswer(invocation -> {
+            List<PriceQuery> chunk = invocation.getArgument(0);
+            return chunk.contains(first) ? Map.of(first, testPrice) : Map.of();
+        });
+
+        List<PriceLookupResult> results = adapter.findApplicablePriceBatch(Flux.just(first, second, third))
+                .collectList()
+                .block();
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isFound());
+        assertFalse(results.get(1).isFound());
+        assertEquals(second, results.get(1).getQuery());
+        assertTrue(results.get(2).isFound());
+        verify(priceRepositoryPort, times(2)).findApplicablePriceBatch(any());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.test.infrastructure.adapters.repositories.replica;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.replica.ReplicaPriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.replica.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ReplicaPriceRepositoryPortTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    @Mock
+    private PriceRepositoryPort delegate;
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstReplicaConnection = mock(Connection.class);
+    private final Connection secondReplicaConnection = mock(Connection.class);
+    private final PreparedStatement slowStatement = mock(PreparedStatement.class);
+    private final CountDownLatch slowReplicaRelease = new CountDownLatch(1);
+    private final List<Thread> firstReplicaThreads = new CopyOnWriteArrayList<>();
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        // The connections are handed out wrapped, so they tell their target through their catalog
+        when(primaryConnection.getCatalog()).thenReturn("0");
+        when(firstReplicaConnection.getCatalog()).thenReturn("1");
+        when(secondReplicaConnection.getCatalog()).thenReturn("2");
+        when(firstReplicaConnection.prepareStatement(anyString())).thenReturn(slowStatement);
+        when(secondReplicaConnection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(primaryConnection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        // Cancelling the statement of the slow replica ends its wait, like a driver aborting a running query
+        doAnswer(invocation -> {
+            slowReplicaRelease.countDown();
+            return null;
+        }).when(slowStatement).cancel();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowReplicaRelease.countDown();
+    }
+
+    private ReplicaRoutingDataSource routing(Connection... replicaConnections) throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        List<DataSource> replicas = new ArrayList<>();
+        for (Connection connection : replicaConnections) {
+            DataSource replica = mock(DataSource.class);
+            when(replica.getConnection()).thenReturn(connection);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    /**
+     * Answers every lookup with a price whose price list tells the target it ran on, the first replica waiting until
+     * its statement is cancelled when slow.
+     */
+    private void answerFromTarget(ReplicaRoutingDataSource routing, boolean slowFirstReplica) {
+        when(delegate.findApplicablePriceAt(DATE_TIME, 35455L, 1L)).thenAnswer(invocation -> {
+            Connection connection = routing.getConnection();
+            long target = Long.parseLong(connection.getCatalog());
+            connection.prepareStatement("SELECT price");
+            if (target == 1L) {
+                firstReplicaThreads.add(Thread.currentThread());
+                if (slowFirstReplica) {
+                    slowReplicaRelease.await(10, TimeUnit.SECONDS);
+                }
+            }
+            return Optional.of(new Price(1L, DATE_TIME, DATE_TIME, target, 35455L, 0,
+                    new BigDecimal("35.50"), "EUR"));
+        });
+    }
+
+    private ReplicaPriceRepositoryPort hedgingPort(ReplicaRoutingDataSource routing, Duration minHedgeDelay,
+                                                   double hedgeBudget) {
+        return new ReplicaPriceRepositoryPort(delegate, routing, true, 0.95, minHedgeDelay, hedgeBudget, 4,
+                meterRegistry);
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldSendLookupsToEveryReplicaInTurn() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(firstReplicaConnection, secondReplicaConnection);
+        answerFromTarget(routing, false);
+        ReplicaPriceRepositoryPort port = new ReplicaPriceRepositoryPort(delegate, routing, false, 0.95,
+                Duration.ofMillis(2), 0.1, 4, meterRegistry);
+
+        assertEquals(1L, port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        assertEquals(2L, port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        assertEquals(1L, port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldRunTheFirstAttemptOnTheCallerThread_WhenHedging() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(firstReplicaConnection, secondReplicaConnection);
+        answerFromTarget(routing, false);
+        ReplicaPriceRepositoryPort port = hedgingPort(routing, Duration.ofSeconds(5), 0.1);
+
+        port.findApplicablePriceAt(DATE_TIME, 35455L, 1L);
+
+        assertEquals(List.of(Thread.currentThread()), firstReplicaThreads);
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldAnswerFromTheSecondReplica_WhenTheFirstOneExceedsTheHedgeDelay() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(firstReplicaConnection, secondReplicaConnection);
+        answerFromTarget(routing, true);
+        ReplicaPriceRepositoryPort port = hedgingPort(routing, Duration.ofMillis(20), 0.1);
+
+        long start = System.nanoTime();
+        Optional<Price> result = port.findApplicablePriceAt(DATE_TIME, 35455L, 1L);
+
+        assertEquals(2L, result.get().getPriceList());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        // The losing attempt had its statement cancelled rather than running to completion
+        verify(slowStatement).cancel();
+        assertEquals(1, meterRegistry.get("price.replica.hedges").counter().count());
+        assertEquals(1, meterRegistry.get("price.replica.hedge.wins").counter().count());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldWaitForTheFirstAttempt_WhenTheHedgeBudgetIsSpent() throws Exception {
+        ReplicaRoutingDataSource routing = routing(firstReplicaConnection, secondReplicaConnection);
+        answerFromTarget(routing, true);
+        ReplicaPriceRepositoryPort port = hedgingPort(routing, Duration.ofMillis(20), 0);
+        ScheduledExecutorService release = Executors.newSingleThreadScheduledExecutor();
+        release.schedule(slowReplicaRelease::countDown, 200, TimeUnit.MILLISECONDS);
+
+        try {
+            assertEquals(1L, port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        } finally {
+            release.shutdown();
+        }
+        assertEquals(0, meterRegistry.get("price.replica.hedges").counter().count());
+        assertEquals(1, meterRegistry.get("price.replica.hedges.skipped").counter().count());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldHedgeOnThePrimary_WhenThereIsASingleReplica() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(firstReplicaConnection);
+        answerFromTarget(routing, true);
+        ReplicaPriceRepositoryPort port = hedgingPort(routing, Duration.ofMillis(20), 0.1);
+
+        assertEquals(0L, port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+    }
+
+    @Test
+    void findApplicablePriceAt_ShouldNotHedge_WhenTheReplicaAnswersWithinTheDelay() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(firstReplicaConnection, secondReplicaConnection);
+        answerFromTarget(routing, false);
+        ReplicaPriceRepositoryPort port = hedgingPort(routing, Duration.ofSeconds(5), 0.1);
+
+        assertEquals(1L, port.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        assertEquals(0, meterRegistry.get("price.replica.hedges").counter().count());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.test.infrastructure.adapters.repositories.replica;
+
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:replicated-primary;DB_CLOSE_DELAY=-1",
+        "price.replicas.urls=jdbc:h2:mem:replica-0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:replica-1;DB_CLOSE_DELAY=-1",
+        "price.replicas.migrate=true",
+        // Hedged, so the lookups run on connections recording their statements
+        "price.replicas.hedge.enabled=true"
+})
+public class ReplicaRoutingIntegrationTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    @Autowired
+    private PriceRepositoryPort priceRepositoryPort;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lookups_ShouldBeAnsweredByTheReplicas() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(1L, priceRepositoryPort.findApplicablePriceAt(DATE_TIME, 35455L, 1L).get().getPriceList());
+        }
+    }
+
+    @Test
+    void writes_ShouldStayOnThePrimary() {
+        jdbcTemplate.update("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) " +
+                "VALUES (9, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 7, 99, 0, 10.00, 'EUR')");
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price WHERE product_id = 99", Integer.class));
+        // Nothing replicates to the stand-in replicas
+        assertTrue(priceRepositoryPort.findApplicablePriceAt(DATE_TIME, 99L, 9L).isEmpty());
+        assertTrue(priceRepositoryPort.findApplicablePriceAt(DATE_TIME, 99L, 9L).isEmpty());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.test.infrastructure.adapters.repositories.shard;
+
+import com.example.test.price.infrastructure.adapters.repositories.shard.ConfiguredPriceShardMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfiguredPriceShardMapTest {
+
+    @Test
+    void shardOf_ShouldPlaceAssignedBrandsOnTheirShard_AndOthersByModulo() {
+        ConfiguredPriceShardMap shardMap = ConfiguredPriceShardMap.parse(3, " 1:0, 7 :2");
+
+        assertEquals(0, shardMap.shardOf(1L));
+        assertEquals(2, shardMap.shardOf(7L));
+        assertEquals(2, shardMap.shardOf(2L));
+        assertEquals(0, shardMap.shardOf(3L));
+        assertEquals(2, shardMap.shardOf(-1L));
+    }
+
+    @Test
+    void parse_ShouldAcceptBlankAssignments() {
+        ConfiguredPriceShardMap shardMap = ConfiguredPriceShardMap.parse(2, "");
+
+        assertEquals(1, shardMap.shardOf(1L));
+        assertEquals(0, shardMap.shardOf(2L));
+    }
+
+    @Test
+    void parse_ShouldRejectInvalidAssignments() {
+        assertThrows(IllegalArgumentException.class, () -> ConfiguredPriceShardMap.parse(2, "1"));
+        assertThrows(IllegalArgumentException.class, () -> ConfiguredPriceShardMap.parse(2, "1:2"));
+        assertThrows(IllegalArgumentException.class, () -> ConfiguredPriceShardMap.parse(0, ""));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.test.infrastructure.adapters.repositories.shard;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.domain.models.PriceQuery;
+import com.example.test.price.domain.ports.out.PriceRepositoryPort;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceFeedFormat;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceImportReport;
+import com.example.test.price.infrastructure.adapters.repositories.importer.PriceImporter;
+import com.example.test.price.infrastructure.adapters.repositories.shard.PriceShards;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+        "price.shards.urls=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+        "price.shards.brands=1:2"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ShardRoutingIntegrationTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2021, 6, 1, 0, 0, 0);
+
+    @Autowired
+    private PriceRepositoryPort priceRepositoryPort;
+
+    @Autowired
+    private PriceImporter priceImporter;
+
+    @Autowired
+    private PriceShards priceShards;
+
+    private PriceImportReport importReport;
+
+    @BeforeAll
+    void importPrices() throws Exception {
+        // Brand 3 is held by shard 0 and brand 4 by shard 1
+        String feed = """
+                product_id,brand_id,price_list,start_date,end_date,priority,price,currency
+                92001,3,1,2021-01-01 00:00:00,2021-12-31 23:59:59,0,10.50,EUR
+                92001,4,2,2021-01-01 00:00:00,2021-12-31 23:59:59,0,11.50,EUR
+                92001,4,3,2021-05-01 00:00:00,2021-06-30 23:59:59,1,9.50,EUR
+                """;
+        importReport = priceImporter.importFeed(new StringReader(feed), PriceFeedFormat.CSV);
+    }
+
+    @Test
+    void lookups_ShouldAnswerTheReferenceScenarios_FromTheShardHoldingTheBrand() {
+        assertEquals(1L, lookUp(LocalDateTime.of(2020, 6, 14, 10, 0, 0), 35455L, 1L).getPriceList());
+        assertEquals(2L, lookUp(LocalDateTime.of(2020, 6, 14, 16, 0, 0), 35455L, 1L).getPriceList());
+        assertEquals(1L, lookUp(LocalDateTime.of(2020, 6, 14, 21, 0, 0), 35455L, 1L).getPriceList());
+        assertEquals(3L, lookUp(LocalDateTime.of(2020, 6, 15, 10, 0, 0), 35455L, 1L).getPriceList());
+        assertEquals(4L, lookUp(LocalDateTime.of(2020, 6, 16, 21, 0, 0), 35455L, 1L).getPriceList());
+        // Price lists 1 and 4
+        assertEquals(2, priceRepositoryPort.findApplicablePricesAt(LocalDateTime.of(2020, 6, 15, 16, 0, 0), 35455L, 1L).size());
+    }
+
+    @Test
+    void importFeed_ShouldWriteEveryRowToTheShardHoldingItsBrand() {
+        assertEquals(1, countRows(0, 3L));
+        assertEquals(0, countRows(0, 4L));
+        assertEquals(2, countRows(1, 4L));
+        assertEquals(0, countRows(1, 3L));
+        assertEquals(0, countRows(2, 3L) + countRows(2, 4L));
+        assertEquals(List.of(1L, 2L, 0L), importReport.getRowsImportedPerShard());
+
+        assertEquals(1L, lookUp(DATE_TIME, 92001L, 3L).getPriceList());
+        assertEquals(3L, lookUp(DATE_TIME, 92001L, 4L).getPriceList());
+    }
+
+    @Test
+    void findApplicablePriceBatch_ShouldMergeTheAnswersOfEveryShard() {
+        PriceQuery brand1 = new PriceQuery(LocalDateTime.of(2020, 6, 14, 16, 0, 0), 35455L, 1L);
+        PriceQuery brand3 = new PriceQuery(DATE_TIME, 92001L, 3L);
+        PriceQuery brand4 = new PriceQuery(DATE_TIME, 92001L, 4L);
+        PriceQuery missing = new PriceQuery(DATE_TIME, 92001L, 5L);
+
+        Map<PriceQuery, Price> prices = priceRepositoryPort.findApplicablePriceBatch(List.of(brand1, brand3, brand4, missing));
+
+        assertEquals(3, prices.size());
+        assertEquals(2L, prices.get(brand1).getPriceList());
+        assertEquals(1L, prices.get(brand3).getPriceList());
+        assertEquals(3L, prices.get(brand4).getPriceList());
+    }
+
+    @Test
+    void findApplicablePricePerBrand_ShouldMergeTheBrandsOfEveryShard_OrderedByBrand() {
+        List<Price> everyBrand = priceRepositoryPort.findApplicablePricePerBrand(DATE_TIME, 92001L, List.of());
+        List<Price> someBrands = priceRepositoryPort.findApplicablePricePerBrand(DATE_TIME, 92001L, List.of(4L, 1L));
+
+        assertEquals(List.of(3L, 4L), everyBrand.stream().map(Price::getBrandId).toList());
+        assertEquals(3L, everyBrand.get(1).getPriceList());
+        assertEquals(List.of(4L), someBrands.stream().map(Price::getBrandId).toList());
+    }
+
+    @Test
+    void forEachApplicablePriceAt_ShouldReturnEveryPriceOnce_FromTheShardHoldingItsBrand() {
+        // The reference rows, migrated onto every shard, are only read from shard 2
+        List<Price> reference = snapshot(LocalDateTime.of(2020, 6, 16, 21, 0, 0), 35455L);
+        assertEquals(1, reference.size());
+        assertEquals(4L, reference.get(0).getPriceList());
+
+        List<Price> imported = snapshot(DATE_TIME, 92001L);
+        assertEquals(2, imported.size());
+        assertEquals(List.of(3L, 4L), imported.stream().map(Price::getBrandId).sorted().toList());
+    }
+
+    private Price lookUp(LocalDateTime dateTime, Long productId, Long brandId) {
+        return priceRepositoryPort.findApplicablePriceAt(dateTime, productId, brandId).orElseThrow();
+    }
+
+    private List<Price> snapshot(LocalDateTime dateTime, Long productId) {
+        List<Price> prices = new ArrayList<>();
+        priceRepositoryPort.forEachApplicablePriceAt(dateTime, price -> {
+            if (price.getProductId().equals(productId)) {
+                prices.add(price);
+            }
+        });
+        return prices;
+    }
+
+    private int countRows(int shard, Long brandId) {
+        return new JdbcTemplate(priceShards.getDataSource(shard)).queryForObject(
+                "SELECT COUNT(*) FROM price WHERE product_id = 92001 AND brand_id = ?", Integer.class, brandId);
+    }
+}
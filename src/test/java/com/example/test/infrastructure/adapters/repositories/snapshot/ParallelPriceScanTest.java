@@ -0,0 +1,123 @@
+package com.example.test.infrastructure.adapters.repositories.snapshot;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.ParallelPriceScan;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelPriceScanTest {
+
+    private static Price price(long productId) {
+        return new Price(1L, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                1L, productId, 0, new BigDecimal("1.00"), "EUR");
+    }
+
+    private static ParallelPriceScan.Partition partition(long from, long to) {
+        return sink -> {
+            for (long productId = from; productId < to; productId++) {
+                sink.accept(price(productId));
+            }
+        };
+    }
+
+    @Test
+    void run_ShouldPassEveryPriceOfEveryPartitionToTheConsumer() {
+        List<ParallelPriceScan.Partition> partitions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            partitions.add(partition(i * 10_000L, (i + 1) * 10_000L));
+        }
+        Set<Long> productIds = new HashSet<>();
+        Thread caller = Thread.currentThread();
+
+        new ParallelPriceScan(3).run(partitions, price -> {
+            assertSame(caller, Thread.currentThread());
+            assertTrue(productIds.add(price.getProductId()));
+        });
+
+        assertEquals(80_000, productIds.size());
+    }
+
+    @Test
+    void run_ShouldFail_WhenAPartitionFails() {
+        List<ParallelPriceScan.Partition> partitions = List.of(
+                partition(0, 100_000),
+                sink -> {
+                    throw new IllegalArgumentException("broken partition");
+                });
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new ParallelPriceScan(2).run(partitions, price -> {
+                }));
+
+        assertEquals("broken partition", exception.getCause().getMessage());
+    }
+
+    @Test
+    void run_ShouldStopThePartitions_WhenTheConsumerFails() {
+        AtomicInteger produced = new AtomicInteger();
+        List<ParallelPriceScan.Partition> partitions = List.of(sink -> {
+            for (long productId = 0; productId < 10_000_000L; productId++) {
+                sink.accept(price(productId));
+                produced.incrementAndGet();
+            }
+        });
+        AtomicInteger consumed = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> new ParallelPriceScan(1).run(partitions, price -> {
+            if (consumed.incrementAndGet() == 100) {
+                throw new IllegalArgumentException("client went away");
+            }
+        }));
+
+        assertTrue(produced.get() < 10_000_000);
+    }
+
+    @Test
+    void run_ShouldShareItsThreadsAcrossConcurrentScans() throws Exception {
+        ParallelPriceScan scan = new ParallelPriceScan(2);
+        AtomicInteger scanning = new AtomicInteger();
+        AtomicInteger maxScanning = new AtomicInteger();
+        ParallelPriceScan.Partition partition = sink -> {
+            maxScanning.accumulateAndGet(scanning.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                sink.accept(price(1L));
+            } finally {
+                scanning.decrementAndGet();
+            }
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> scans = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                scans.add(callers.submit(() -> {
+                    AtomicInteger consumed = new AtomicInteger();
+                    scan.run(List.of(partition, partition, partition), price -> consumed.incrementAndGet());
+                    return consumed.get();
+                }));
+            }
+
+            for (Future<Integer> result : scans) {
+                assertEquals(3, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+            scan.destroy();
+        }
+        // Four scans of three partitions each, yet never more than two partitions at once
+        assertEquals(2, maxScanning.get());
+    }
+}
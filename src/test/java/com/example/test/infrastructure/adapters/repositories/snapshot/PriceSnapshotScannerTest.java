@@ -0,0 +1,71 @@
+package com.example.test.infrastructure.adapters.repositories.snapshot;
+
+import com.example.test.price.domain.models.Price;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.ParallelPriceScan;
+import com.example.test.price.infrastructure.adapters.repositories.snapshot.PriceSnapshotScanner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceSnapshotScannerTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private ParallelPriceScan parallelScan;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:price-snapshot-scanner;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE price (brand_id BIGINT, start_date TIMESTAMP, end_date TIMESTAMP, "
+                + "price_list BIGINT, product_id BIGINT, priority INT, price DECIMAL(10, 2), currency VARCHAR(3))");
+        parallelScan = new ParallelPriceScan(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelScan.destroy();
+        jdbcTemplate.execute("DROP TABLE price");
+    }
+
+    private void insert(long productId) {
+        jdbcTemplate.update("INSERT INTO price VALUES (1, '2020-06-14 00:00:00', '2020-12-31 23:59:59', 1, ?, 0, "
+                + "35.50, 'EUR')", productId);
+    }
+
+    private List<Long> snapshotProductIds() {
+        List<Long> productIds = new ArrayList<>();
+        new PriceSnapshotScanner(jdbcTemplate, parallelScan)
+                .forEachApplicablePriceAt(DATE_TIME, price -> productIds.add(price.getProductId()));
+        productIds.sort(null);
+        return productIds;
+    }
+
+    @Test
+    void forEachApplicablePriceAt_ShouldCoverTheWholeLongRange() {
+        for (long productId : new long[]{Long.MIN_VALUE, Long.MIN_VALUE + 1, -1L, 0L, 1L, Long.MAX_VALUE - 1,
+                Long.MAX_VALUE}) {
+            insert(productId);
+        }
+
+        assertEquals(List.of(Long.MIN_VALUE, Long.MIN_VALUE + 1, -1L, 0L, 1L, Long.MAX_VALUE - 1, Long.MAX_VALUE),
+                snapshotProductIds());
+    }
+
+    @Test
+    void forEachApplicablePriceAt_ShouldCoverRangesNarrowerThanThePartitionCount() {
+        insert(Long.MAX_VALUE - 2);
+        insert(Long.MAX_VALUE);
+
+        assertEquals(List.of(Long.MAX_VALUE - 2, Long.MAX_VALUE), snapshotProductIds());
+    }
+}